@@ -0,0 +1,77 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.Arrays;
+
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Hash key of a set of grounded predicates. The key is the sorted array of
+ * ids of the atoms of the predicates, so two sets with the same predicates
+ * have equal keys regardless of the order of the predicates.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see NoGoodStore
+ *	@see SubgoalMemo
+ */
+class AtomKey {
+	/**
+	 * Sorted ids of the atoms of the set.
+	 */
+	private int[] atoms;
+	
+	/**
+	 * Tests if two keys are equal.
+	 * 
+	 *	@param _other the other key.
+	 *	@return true if both keys have the same atoms.
+	 */
+	public boolean equals(Object _other) {
+		return _other instanceof AtomKey && Arrays.equals(atoms, ((AtomKey)_other).atoms);
+	}
+	
+	/**
+	 * Returns hash code of the key.
+	 * 
+	 *	@return hash code of the key.
+	 */
+	public int hashCode() {
+		return Arrays.hashCode(atoms);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 *	@param _atoms sorted ids of the atoms.
+	 */
+	public AtomKey(int[] _atoms) {
+		atoms = _atoms;
+	}
+	
+	/**
+	 * Constructor. Creates the key of a set of predicates.
+	 * 
+	 *	@param _predicates the set of predicates. All predicates must be
+	 *		grounded.
+	 */
+	public AtomKey(PredicateSet _predicates) {
+		this(_predicates.freeze().getAtomIds());
+	}
+}
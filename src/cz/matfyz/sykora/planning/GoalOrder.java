@@ -0,0 +1,40 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+/**
+ * Order in which the goals of a layer are resolved during the extraction of
+ * the plan.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#setGoalOrder(GoalOrder)
+ *	@see SupporterOrder
+ */
+public enum GoalOrder {
+	/**
+	 * The goals are resolved in the order in which they are stored in the
+	 * goal set.
+	 */
+	NATURAL,
+	/**
+	 * The goals with the fewest supporters (including the no-op) are resolved
+	 * first, so that dead ends are found as soon as possible.
+	 */
+	MOST_CONSTRAINED
+}
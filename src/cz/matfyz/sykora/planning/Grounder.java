@@ -0,0 +1,105 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Grounds action schemas before the planning graph is built. The grounding
+ * uses a relaxed reachability analysis: starting from the initial state,
+ * action schemas are instantiated on the set of reachable facts and positive
+ * effects of the instances are added to this set, ignoring negative effects
+ * and mutexes. This is repeated until no new fact is found.
+ * 
+ * Every action that can appear in the planning graph is found by this
+ * analysis, so the planning graph can be built only from the grounded actions.
+ * Their instantiation in each layer is then reduced to a test that all
+ * preconditions are present and are not mutex.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see Action#findPossibleInstances(PredicateLayer, Set, Map)
+ */
+public class Grounder {
+	/**
+	 * Grounds a list of action schemas.
+	 * 
+	 *	@param _actions list of action schemas.
+	 *	@param _initial_state facts describing the initial state.
+	 *	@param _atoms the atom table of the planning problem.
+	 *	@return list of all grounded actions that are reachable from the
+	 *		initial state in the relaxed problem.
+	 */
+	public static ActionList ground(Iterable<Action> _actions, PredicateSet _initial_state, AtomTable _atoms) {
+		return ground(_actions, _initial_state, _atoms, null);
+	}
+	
+	/**
+	 * Grounds a list of action schemas. The schemas are instantiated in
+	 * parallel on a fork/join pool.
+	 * 
+	 *	@param _actions list of action schemas.
+	 *	@param _initial_state facts describing the initial state.
+	 *	@param _atoms the atom table of the planning problem.
+	 *	@param _pool the pool used to instantiate the schemas, or null if the
+	 *		schemas are instantiated in the calling thread.
+	 *	@return list of all grounded actions that are reachable from the
+	 *		initial state in the relaxed problem.
+	 *	@see InstantiationTask
+	 */
+	public static ActionList ground(Iterable<Action> _actions, PredicateSet _initial_state,
+			AtomTable _atoms, ForkJoinPool _pool) {
+		PredicateLayer reachable = new PredicateLayer(_atoms);
+		for(Predicate fact : _initial_state)
+			if(!reachable.contains(fact))
+				reachable.add(fact);
+		
+		TreeSet<Action> grounded = new TreeSet<Action>();
+		int fact_count;
+		do {
+			fact_count = reachable.getPredicateCount();
+			if(_pool != null) {
+				InstantiationTask task = new InstantiationTask(_actions, reachable, false);
+				_pool.invoke(task);
+				grounded.addAll(task.getInstances());
+			}
+			else {
+				for(Action action : _actions)
+					action.findPossibleInstances(reachable, grounded);
+			}
+			for(Action action : grounded)
+				for(Predicate effect : action.getPositiveEffects())
+					if(!reachable.contains(effect))
+						reachable.add(effect);
+		} while(fact_count != reachable.getPredicateCount());
+		
+		ActionList result = new ActionList();
+		result.addAll(grounded);
+		return result;
+	}
+	
+	/**
+	 * Constructor. The class only has static methods.
+	 */
+	private Grounder() {
+	}
+}
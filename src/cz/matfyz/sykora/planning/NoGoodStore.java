@@ -0,0 +1,249 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Store of no-good combinations of predicates of a single layer of the
+ * planning graph. The store answers the question whether any of the stored
+ * combinations is a subset of a given set of goals.
+ * 
+ * The combinations are stored as sorted arrays of ids of their atoms. Exact
+ * matches are found in a hash table; the subset queries use a trie of these
+ * arrays (an unlimited branching tree). Each node of the trie keeps a 64-bit
+ * signature of the atoms of all combinations below it - the intersection of
+ * the signatures of the combinations. A branch is skipped if its signature
+ * has a bit that is not in the signature of the goals, because each
+ * combination in the branch then contains an atom that is not in the goals.
+ * 
+ * The store may be shared by extractors running in parallel. Lookups hold a
+ * read lock, so they do not block each other; only additions of new
+ * combinations are exclusive.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#findSerialPlan()
+ */
+public class NoGoodStore {
+	/**
+	 * Node of the trie of the no-good combinations. Children of a node are
+	 * sorted by the atom ids.
+	 */
+	private static class Node {
+		/**
+		 * Atom ids of the children, sorted in ascending order.
+		 */
+		private int[] atoms;
+		
+		/**
+		 * Children of the node, in the same order as <i>atoms</i>.
+		 */
+		private Node[] children;
+		
+		/**
+		 * Number of children of the node.
+		 */
+		private int childCount;
+		
+		/**
+		 * True if a stored combination ends in this node.
+		 */
+		private boolean terminal;
+		
+		/**
+		 * Intersection of signatures of all combinations that go through this
+		 * node.
+		 */
+		private long signature;
+		
+		/**
+		 * Returns the child for an atom, creating it if it does not exist.
+		 * 
+		 *	@param _atom_id id of the atom.
+		 *	@return the child node.
+		 */
+		public Node getOrCreateChild(int _atom_id) {
+			int position = Arrays.binarySearch(atoms, 0, childCount, _atom_id);
+			if(position >= 0)
+				return children[position];
+			position = -position - 1;
+			if(childCount == atoms.length) {
+				atoms = Arrays.copyOf(atoms, Math.max(2, 2 * atoms.length));
+				children = Arrays.copyOf(children, atoms.length);
+			}
+			System.arraycopy(atoms, position, atoms, position + 1, childCount - position);
+			System.arraycopy(children, position, children, position + 1, childCount - position);
+			Node child = new Node();
+			atoms[position] = _atom_id;
+			children[position] = child;
+			childCount++;
+			return child;
+		}
+		
+		/**
+		 * Constructor. Creates an empty node.
+		 */
+		public Node() {
+			atoms = new int[0];
+			children = new Node[0];
+			signature = -1L;
+		}
+	}
+	
+	/**
+	 * Hash table of the stored combinations.
+	 */
+	private HashSet<AtomKey> exact;
+	
+	/**
+	 * Root of the trie of the stored combinations.
+	 */
+	private Node root;
+	
+	/**
+	 * Lock guarding the hash table and the trie.
+	 */
+	private ReadWriteLock lock;
+	
+	/**
+	 * Adds a no-good combination to the store.
+	 * 
+	 *	@param _no_good the combination of predicates. All predicates must be
+	 *		grounded.
+	 *	@return true if the combination was added, false if it was already in
+	 *		the store.
+	 */
+	public boolean add(PredicateSet _no_good) {
+		int[] atoms = _no_good.freeze().getAtomIds();
+		long signature = getSignature(atoms);
+		lock.writeLock().lock();
+		try {
+			if(!exact.add(new AtomKey(atoms)))
+				return false;
+			Node node = root;
+			node.signature &= signature;
+			for(int atom_id : atoms) {
+				node = node.getOrCreateChild(atom_id);
+				node.signature &= signature;
+			}
+			node.terminal = true;
+			return true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Tests if the store contains a subset of a set of goals.
+	 * 
+	 *	@param _goals the set of goals. All predicates must be grounded.
+	 *	@return true if some of the stored combinations is a subset of
+	 *		<i>_goals</i>.
+	 */
+	public boolean containsSubsetOf(PredicateSet _goals) {
+		int[] atoms = _goals.freeze().getAtomIds();
+		lock.readLock().lock();
+		try {
+			if(exact.isEmpty())
+				return false;
+			if(exact.contains(new AtomKey(atoms)))
+				return true;
+			return containsSubsetOf(root, atoms, 0, getSignature(atoms));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Tests if a subtree of the trie contains a subset of a set of goals.
+	 * 
+	 *	@param _node root of the subtree.
+	 *	@param _atoms sorted ids of atoms of the goals.
+	 *	@param _from index of the first atom in <i>_atoms</i> that can be used
+	 *		in the subtree.
+	 *	@param _signature signature of the goals.
+	 *	@return true if the subtree contains a subset of the goals.
+	 */
+	private static boolean containsSubsetOf(Node _node, int[] _atoms, int _from, long _signature) {
+		if(_node.terminal)
+			return true;
+		if((_node.signature & ~_signature) != 0)
+			return false;
+		// merge the sorted children with the sorted remaining goals
+		int child = 0;
+		int goal = _from;
+		while(child < _node.childCount && goal < _atoms.length) {
+			int child_atom = _node.atoms[child];
+			if(child_atom < _atoms[goal])
+				child++;
+			else if(child_atom > _atoms[goal])
+				goal++;
+			else {
+				if(containsSubsetOf(_node.children[child], _atoms, goal + 1, _signature))
+					return true;
+				child++;
+				goal++;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns number of combinations in the store.
+	 * 
+	 *	@return number of the combinations.
+	 */
+	public int getSize() {
+		lock.readLock().lock();
+		try {
+			return exact.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Computes the signature of a set of atoms. Bit <i>i</i> of the signature
+	 * is set if the set contains an atom whose id gives <i>i</i> modulo 64.
+	 * 
+	 *	@param _atoms ids of the atoms.
+	 *	@return the signature.
+	 */
+	private static long getSignature(int[] _atoms) {
+		long signature = 0;
+		for(int atom_id : _atoms)
+			signature |= 1L << (atom_id & 63);
+		return signature;
+	}
+	
+	/**
+	 * Constructor. Creates an empty store.
+	 */
+	public NoGoodStore() {
+		exact = new HashSet<AtomKey>();
+		root = new Node();
+		lock = new ReentrantReadWriteLock();
+	}
+}
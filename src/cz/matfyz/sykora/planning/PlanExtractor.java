@@ -0,0 +1,936 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.*;
+
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Extracts a serial plan from the planning graph. The extraction is a
+ * backward depth-first search: the goals of a layer are resolved one after
+ * another by selecting their supporters, and once all goals of the layer are
+ * resolved, the preconditions of the selected actions and the facts persisted
+ * by the selected no-ops become the goals of the preceding layer.
+ * 
+ * The search is iterative. Each goal, for which a supporter was selected, has
+ * a frame on an explicit stack; frames are records of <i>FRAME_SIZE</i> ints
+ * in a single array. The selected actions, no-ops and support counters of
+ * each layer are kept in arrays indexed by the layers, and the bits added to
+ * the set of forbidden actions by a frame are kept in a bit set owned by the
+ * frame, so that the selection can be undone. The arrays and bit sets are
+ * reused, they only grow when the search gets deeper than before. The depth
+ * of the search is not limited by the stack of the thread, and the search can
+ * be stopped after a number of supporter trials and resumed later.
+ * 
+ * The extractor can also enumerate the selections of supporters of a single
+ * layer, without searching the preceding layers. This is used to split the
+ * search to parallel tasks.
+ * 
+ * The extractor keeps the state of the search, so a single extractor must not
+ * be used by multiple threads at the same time.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#findSerialPlan()
+ */
+public class PlanExtractor {
+	/**
+	 * Offset of the layer of the frame in the frame record.
+	 */
+	private static final int FRAME_LAYER = 0;
+	
+	/**
+	 * Offset of the position of the goal in the list of goals of the layer.
+	 */
+	private static final int FRAME_GOAL = 1;
+	
+	/**
+	 * Offset of the index of the goal fact in the planning graph.
+	 */
+	private static final int FRAME_FACT = 2;
+	
+	/**
+	 * Offset of the index of the next candidate supporter to try.
+	 */
+	private static final int FRAME_NEXT = 3;
+	
+	/**
+	 * Offset of the number of the supporters of the goal, without the no-op.
+	 */
+	private static final int FRAME_SUPPORTERS = 4;
+	
+	/**
+	 * Offset of the number of the candidate supporters, including the no-op.
+	 */
+	private static final int FRAME_CANDIDATES = 5;
+	
+	/**
+	 * Offset of the selected supporter: index of the action, <i>NO_OP</i> or
+	 * <i>NO_CHOICE</i>.
+	 */
+	private static final int FRAME_CHOICE = 6;
+	
+	/**
+	 * Number of ints in a frame record.
+	 */
+	private static final int FRAME_SIZE = 7;
+	
+	/**
+	 * Marker of the no-op in lists of supporters.
+	 */
+	private static final int NO_OP = -1;
+	
+	/**
+	 * Marker of a frame, for which no supporter is selected.
+	 */
+	private static final int NO_CHOICE = -2;
+	
+	/**
+	 * The planning graph, from which the plan is extracted.
+	 */
+	private PlanningGraph graph;
+	
+	/**
+	 * No-good combinations of the layers, indexed by the layers.
+	 */
+	private List<NoGoodStore> noGoods;
+	
+	/**
+	 * Order in which the goals of a layer are resolved.
+	 */
+	private GoalOrder goalOrder;
+	
+	/**
+	 * Order in which the supporters of a goal are tried.
+	 */
+	private SupporterOrder supporterOrder;
+	
+	/**
+	 * The frame records.
+	 * 
+	 *	@see #FRAME_SIZE
+	 */
+	private int[] frames;
+	
+	/**
+	 * Number of frames on the stack.
+	 */
+	private int frameCount;
+	
+	/**
+	 * Actions added to the set of forbidden actions by the selection in each
+	 * frame.
+	 */
+	private BitSet[] frameForbidden;
+	
+	/**
+	 * Ordered candidate supporters of each frame. Only used if the supporters
+	 * are ranked.
+	 * 
+	 *	@see #isRankedOrder()
+	 */
+	private int[][] frameOrders;
+	
+	/**
+	 * Keys used to rank the supporters of a frame.
+	 */
+	private int[] rankKeys;
+	
+	/**
+	 * Generator used to shuffle the supporters for the random supporter order.
+	 * 
+	 *	@see #setSeed(long)
+	 */
+	private Random random;
+	
+	/**
+	 * Flag that stops the search, it may be set by another thread.
+	 * 
+	 *	@see #cancel()
+	 */
+	private volatile boolean cancelled;
+	
+	/**
+	 * Goals of the layers, as they were collected. These are used for the
+	 * no-goods.
+	 */
+	private PredicateSet[] layerGoalSets;
+	
+	/**
+	 * Indices of the goal facts of the layers, in the order in which they are
+	 * resolved.
+	 */
+	private int[][] layerGoalFacts;
+	
+	/**
+	 * Number of the goals of the layers.
+	 */
+	private int[] layerGoalCounts;
+	
+	/**
+	 * Support counters of the layers, indexed by the indices of the facts in
+	 * the graph. The counter of a fact is the number of the selected
+	 * supporters that achieve it; goals with a non-zero counter are resolved.
+	 */
+	private int[][] layerSupport;
+	
+	/**
+	 * Indices of the selected actions of the layers.
+	 */
+	private BitSet[] layerSelected;
+	
+	/**
+	 * Indices of the facts whose no-ops were selected in the layers.
+	 */
+	private BitSet[] layerPersisted;
+	
+	/**
+	 * Indices of the actions that are mutex with some of the selected actions
+	 * or no-ops of the layers.
+	 */
+	private BitSet[] layerForbidden;
+	
+	/**
+	 * The selected actions of the layers, in the order of the selection.
+	 */
+	private int[][] layerActions;
+	
+	/**
+	 * Number of the selected actions of the layers.
+	 */
+	private int[] layerActionCounts;
+	
+	/**
+	 * Number of frames on the stack when the layers were entered. The frames
+	 * of a layer are above this number.
+	 */
+	private int[] layerFrameBases;
+	
+	/**
+	 * The layer from which the extraction started.
+	 */
+	private int topLayer;
+	
+	/**
+	 * The layer, in which the search is.
+	 */
+	private int currentLayer;
+	
+	/**
+	 * Position of the next goal to resolve in the current layer.
+	 */
+	private int currentGoal;
+	
+	/**
+	 * True if the search is backtracking, i.e. the selection in the top frame
+	 * must be replaced by the next candidate.
+	 */
+	private boolean backtracking;
+	
+	/**
+	 * True if the search has finished.
+	 * 
+	 *	@see #isFinished()
+	 */
+	private boolean finished;
+	
+	/**
+	 * True if the extractor enumerates the selections of the top layer
+	 * instead of searching for a plan.
+	 * 
+	 *	@see #startSelections(int, PredicateSet)
+	 */
+	private boolean enumerating;
+	
+	/**
+	 * True if a complete selection of the top layer was found by the
+	 * enumeration and not passed to the caller yet.
+	 * 
+	 *	@see #nextSelection()
+	 */
+	private boolean selectionFound;
+	
+	/**
+	 * The plan found by the search.
+	 * 
+	 *	@see #getPlan()
+	 */
+	private ActionList plan;
+	
+	/**
+	 * Number of supporters that were selected by the search.
+	 * 
+	 *	@see #getSupporterTrials()
+	 */
+	private long supporterTrials;
+	
+	/**
+	 * Number of selected supporters that were withdrawn by the search.
+	 * 
+	 *	@see #getBacktrackCount()
+	 */
+	private long backtrackCount;
+	
+	/**
+	 * Withdraws the selection in the top frame and tries the next candidate.
+	 * If the current layer has no frames, its goals are recorded as a no-good
+	 * and the search returns to the following layer.
+	 */
+	private void backtrack() {
+		if(frameCount == layerFrameBases[currentLayer]) {
+			// no choice left in this layer; the enumeration does not search
+			// the preceding layers, so it does not know if it is a no-good
+			if(!enumerating)
+				noGoods.get(currentLayer).add(layerGoalSets[currentLayer]);
+			if(currentLayer == topLayer)
+				finish(null);
+			else
+				currentLayer++;
+			return;
+		}
+		selectNext();
+	}
+	
+	/**
+	 * Stops the search. This method may be called from another thread; the
+	 * search stops after the current step, and the extractor can not be used
+	 * any more.
+	 * 
+	 *	@see #isCancelled()
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+	
+	/**
+	 * Collects the selected actions of all layers to a plan.
+	 * 
+	 *	@return the plan; it starts from the initial state.
+	 */
+	private ActionList buildPlan() {
+		ActionList result = new ActionList();
+		for(int layer = 1; layer <= topLayer; layer++)
+			for(int i = 0; i < layerActionCounts[layer]; i++)
+				result.add(graph.getAction(layerActions[layer][i]));
+		return result;
+	}
+	
+	/**
+	 * Returns the candidate supporter of the goal of a frame.
+	 * 
+	 *	@param _frame index of the frame.
+	 *	@param _candidate index of the candidate.
+	 *	@return index of the action or <i>NO_OP</i>.
+	 */
+	private int getCandidate(int _frame, int _candidate) {
+		if(isRankedOrder())
+			return frameOrders[_frame][_candidate];
+		int base = _frame * FRAME_SIZE;
+		int fact = frames[base + FRAME_FACT];
+		int supporter_count = frames[base + FRAME_SUPPORTERS];
+		boolean has_no_op = frames[base + FRAME_CANDIDATES] > supporter_count;
+		if(supporterOrder == SupporterOrder.NATURAL)
+			return _candidate < supporter_count ? graph.getSupporter(fact, _candidate) : NO_OP;
+		if(has_no_op)
+			return _candidate == 0 ? NO_OP : graph.getSupporter(fact, _candidate - 1);
+		return graph.getSupporter(fact, _candidate);
+	}
+	
+	/**
+	 * Enters a layer with a new set of goals. The goals are not entered if
+	 * they are not in the layer, or if they contain a no-good of the layer.
+	 * 
+	 *	@param _layer index of the layer.
+	 *	@param _goals the goals.
+	 *	@return true if the layer was entered.
+	 */
+	private boolean enterLayer(int _layer, PredicateSet _goals) {
+		if(!graph.containsFacts(_goals, _layer))
+			return false;
+		if(noGoods.get(_layer).containsSubsetOf(_goals))
+			return false;
+		
+		int count = _goals.getPredicateCount();
+		if(layerGoalFacts[_layer] == null || layerGoalFacts[_layer].length < count)
+			layerGoalFacts[_layer] = new int[Math.max(count, 4)];
+		int[] facts = layerGoalFacts[_layer];
+		for(int i = 0; i < count; i++)
+			facts[i] = graph.getFactIndex(_goals.getPredicate(i));
+		if(goalOrder == GoalOrder.MOST_CONSTRAINED)
+			orderGoals(facts, count, _layer);
+		layerGoalSets[_layer] = _goals;
+		layerGoalCounts[_layer] = count;
+		
+		int fact_count = graph.getFactCount(_layer);
+		if(layerSupport[_layer] == null || layerSupport[_layer].length < fact_count)
+			layerSupport[_layer] = new int[fact_count];
+		if(layerSelected[_layer] == null) {
+			layerSelected[_layer] = new BitSet();
+			layerPersisted[_layer] = new BitSet();
+			layerForbidden[_layer] = new BitSet();
+			layerActions[_layer] = new int[4];
+		}
+		layerActionCounts[_layer] = 0;
+		layerFrameBases[_layer] = frameCount;
+		currentLayer = _layer;
+		currentGoal = 0;
+		return true;
+	}
+	
+	/**
+	 * Finishes the search.
+	 * 
+	 *	@param _plan the plan, or null if the search failed.
+	 */
+	private void finish(ActionList _plan) {
+		plan = _plan;
+		finished = true;
+	}
+	
+	/**
+	 * Adds actions mutex with a selected supporter to the set of forbidden
+	 * actions. Only the actions that were not forbidden before are recorded,
+	 * so the selection can be undone by removing them from the set again.
+	 * 
+	 *	@param _forbidden the set of forbidden actions.
+	 *	@param _mutexes actions mutex with the selected supporter.
+	 *	@param _added the bit set, where the added actions are recorded.
+	 */
+	private static void forbid(BitSet _forbidden, BitSet _mutexes, BitSet _added) {
+		_added.clear();
+		_added.or(_mutexes);
+		_added.andNot(_forbidden);
+		_forbidden.or(_added);
+	}
+	
+	/**
+	 * Returns number of selected supporters that were withdrawn by the
+	 * search.
+	 * 
+	 *	@return number of the backtracking steps.
+	 */
+	public long getBacktrackCount() {
+		return backtrackCount;
+	}
+	
+	/**
+	 * Returns the layer, in which the search is.
+	 * 
+	 *	@return index of the layer.
+	 */
+	public int getCurrentLayer() {
+		return currentLayer;
+	}
+	
+	/**
+	 * Returns the depth of the search, i.e. the number of goals of all layers,
+	 * for which a supporter is selected.
+	 * 
+	 *	@return number of the frames on the stack.
+	 */
+	public int getDepth() {
+		return frameCount;
+	}
+	
+	/**
+	 * Returns the plan found by the search.
+	 * 
+	 *	@return the plan that starts from the initial state, or null if the
+	 *		search did not find any plan or did not finish yet.
+	 */
+	public ActionList getPlan() {
+		return plan;
+	}
+	
+	/**
+	 * Collects the subgoals for the layer preceding a layer. These are the
+	 * preconditions of the selected actions and the facts persisted by the
+	 * selected no-ops.
+	 * 
+	 *	@param _layer index of the layer.
+	 *	@return frozen set of the subgoals.
+	 */
+	private PredicateSet getSubgoals(int _layer) {
+		ArrayList<Predicate> subgoals = new ArrayList<Predicate>();
+		for(int i = 0; i < layerActionCounts[_layer]; i++)
+			for(Predicate precondition : graph.getAction(layerActions[_layer][i]).getPreconditions())
+				subgoals.add(precondition);
+		BitSet persisted = layerPersisted[_layer];
+		for(int fact = persisted.nextSetBit(0); fact >= 0; fact = persisted.nextSetBit(fact + 1))
+			subgoals.add(graph.getFact(fact));
+		return new FrozenPredicateSet(subgoals);
+	}
+	
+	/**
+	 * Returns the actions of the selection found by the enumeration.
+	 * 
+	 *	@return the selected actions of the top layer, in the order of the
+	 *		selection.
+	 *	@see #nextSelection()
+	 */
+	public ActionList getSelection() {
+		ActionList result = new ActionList();
+		for(int i = 0; i < layerActionCounts[topLayer]; i++)
+			result.add(graph.getAction(layerActions[topLayer][i]));
+		return result;
+	}
+	
+	/**
+	 * Returns the goals of the layer preceding the top layer for the
+	 * selection found by the enumeration.
+	 * 
+	 *	@return the preconditions of the selected actions and the facts
+	 *		persisted by the selected no-ops.
+	 *	@see #nextSelection()
+	 */
+	public PredicateSet getSelectionSubgoals() {
+		return getSubgoals(topLayer);
+	}
+	
+	/**
+	 * Returns number of supporters (actions and no-ops) that were selected by
+	 * the search.
+	 * 
+	 *	@return number of the selected supporters.
+	 */
+	public long getSupporterTrials() {
+		return supporterTrials;
+	}
+	
+	/**
+	 * Tests whether the search was cancelled.
+	 * 
+	 *	@return true if <i>cancel</i> was called.
+	 *	@see #cancel()
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	/**
+	 * Tests whether the search has finished.
+	 * 
+	 *	@return true if the search found a plan or found out that no plan
+	 *		exists.
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+	
+	/**
+	 * Tests whether the supporters are ranked, i.e. whether the candidates of
+	 * each frame are stored in <i>frameOrders</i>.
+	 * 
+	 *	@return true if the supporters are ranked.
+	 */
+	private boolean isRankedOrder() {
+		return supporterOrder == SupporterOrder.LEVEL_COST || supporterOrder == SupporterOrder.GOAL_COVER
+				|| supporterOrder == SupporterOrder.RANDOM;
+	}
+	
+	/**
+	 * Finds the next complete selection of supporters of the top layer. The
+	 * enumeration must be started by <i>startSelections</i>.
+	 * 
+	 *	@return true if a selection was found, false if there are no more
+	 *		selections or the enumeration was cancelled.
+	 *	@see #getSelection()
+	 *	@see #getSelectionSubgoals()
+	 */
+	public boolean nextSelection() {
+		if(!enumerating)
+			throw new IllegalStateException("The enumeration of selections was not started");
+		search(Long.MAX_VALUE);
+		return selectionFound;
+	}
+	
+	/**
+	 * Orders goals of a layer from the most constrained one, i.e. from the goal
+	 * with the fewest supporters (including the no-op) at the layer. Goals
+	 * with the same number of supporters keep their order.
+	 * 
+	 *	@param _facts indices of the goal facts.
+	 *	@param _count number of the goals.
+	 *	@param _layer index of the layer.
+	 *	@see GoalOrder#MOST_CONSTRAINED
+	 */
+	private void orderGoals(int[] _facts, int _count, int _layer) {
+		int[] positions = new int[_count];
+		int[] keys = new int[_count];
+		for(int i = 0; i < _count; i++) {
+			positions[i] = i;
+			keys[i] = graph.getSupporterCount(_facts[i], _layer) + (graph.hasNoOp(_facts[i], _layer) ? 1 : 0);
+		}
+		sortByKeys(positions, keys, _count);
+		int[] facts = Arrays.copyOf(_facts, _count);
+		for(int i = 0; i < _count; i++)
+			_facts[i] = facts[positions[i]];
+	}
+	
+	/**
+	 * Ranks supporters of the goal of a frame according to the supporter
+	 * order, and stores them to <i>frameOrders</i>.
+	 * 
+	 *	@param _frame index of the frame.
+	 *	@see SupporterOrder
+	 */
+	private void orderSupporters(int _frame) {
+		int base = _frame * FRAME_SIZE;
+		int layer = frames[base + FRAME_LAYER];
+		int fact = frames[base + FRAME_FACT];
+		int supporter_count = frames[base + FRAME_SUPPORTERS];
+		int candidate_count = frames[base + FRAME_CANDIDATES];
+		if(frameOrders[_frame] == null || frameOrders[_frame].length < candidate_count)
+			frameOrders[_frame] = new int[Math.max(candidate_count, 4)];
+		if(rankKeys.length < candidate_count)
+			rankKeys = new int[Math.max(candidate_count, 2 * rankKeys.length)];
+		int[] supporters = frameOrders[_frame];
+		int count = 0;
+		if(candidate_count > supporter_count) {
+			supporters[count] = NO_OP;
+			rankKeys[count++] = supporterOrder == SupporterOrder.LEVEL_COST ? graph.getFactLevel(fact) : 0;
+		}
+		if(supporterOrder == SupporterOrder.RANDOM) {
+			for(int supporter = 0; supporter < supporter_count; supporter++)
+				supporters[count++] = graph.getSupporter(fact, supporter);
+			// Fisher-Yates shuffle
+			for(int i = count - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = supporters[i];
+				supporters[i] = supporters[j];
+				supporters[j] = swap;
+			}
+			return;
+		}
+		int[] goals = layerGoalFacts[layer];
+		int[] support = layerSupport[layer];
+		for(int supporter = 0; supporter < supporter_count; supporter++) {
+			int action = graph.getSupporter(fact, supporter);
+			supporters[count] = action;
+			if(supporterOrder == SupporterOrder.LEVEL_COST)
+				rankKeys[count++] = graph.getActionCost(action);
+			else {
+				// the more pending goals the action achieves, the lower the key
+				int[] effects = graph.getActionEffects(action);
+				int covered = 0;
+				for(int goal = frames[base + FRAME_GOAL] + 1; goal < layerGoalCounts[layer]; goal++)
+					if(support[goals[goal]] == 0 && Arrays.binarySearch(effects, goals[goal]) >= 0)
+						covered++;
+				rankKeys[count++] = -covered;
+			}
+		}
+		sortByKeys(supporters, rankKeys, count);
+	}
+	
+	/**
+	 * Pushes a frame for a goal of the current layer and selects its first
+	 * candidate supporter.
+	 * 
+	 *	@param _goal position of the goal in the current layer.
+	 */
+	private void pushFrame(int _goal) {
+		if((frameCount + 1) * FRAME_SIZE > frames.length) {
+			frames = Arrays.copyOf(frames, 2 * frames.length);
+			frameForbidden = Arrays.copyOf(frameForbidden, 2 * frameForbidden.length);
+			frameOrders = Arrays.copyOf(frameOrders, 2 * frameOrders.length);
+		}
+		int frame = frameCount++;
+		int base = frame * FRAME_SIZE;
+		int fact = layerGoalFacts[currentLayer][_goal];
+		int supporter_count = graph.getSupporterCount(fact, currentLayer);
+		frames[base + FRAME_LAYER] = currentLayer;
+		frames[base + FRAME_GOAL] = _goal;
+		frames[base + FRAME_FACT] = fact;
+		frames[base + FRAME_NEXT] = 0;
+		frames[base + FRAME_SUPPORTERS] = supporter_count;
+		frames[base + FRAME_CANDIDATES] = supporter_count + (graph.hasNoOp(fact, currentLayer) ? 1 : 0);
+		frames[base + FRAME_CHOICE] = NO_CHOICE;
+		if(frameForbidden[frame] == null)
+			frameForbidden[frame] = new BitSet();
+		if(isRankedOrder())
+			orderSupporters(frame);
+		selectNext();
+	}
+	
+	/**
+	 * Continues the search. The search runs until it finds a plan, finds out
+	 * that no plan exists, or selects the given number of supporters. In the
+	 * last case, the search can be resumed by calling this method again.
+	 * 
+	 *	@param _max_trials maximal number of supporters selected by this call.
+	 *	@return true if the search has finished, false if it was stopped by
+	 *		the limit of trials or cancelled.
+	 */
+	public boolean search(long _max_trials) {
+		long limit = _max_trials > Long.MAX_VALUE - supporterTrials
+				? Long.MAX_VALUE : supporterTrials + _max_trials;
+		selectionFound = false;
+		while(!finished) {
+			if(supporterTrials >= limit || cancelled || selectionFound)
+				return false;
+			if(backtracking) {
+				backtrack();
+				continue;
+			}
+			
+			int[] goals = layerGoalFacts[currentLayer];
+			int[] support = layerSupport[currentLayer];
+			int count = layerGoalCounts[currentLayer];
+			// goals achieved by the selected supporters are skipped
+			while(currentGoal < count && support[goals[currentGoal]] > 0)
+				currentGoal++;
+			if(currentGoal < count)
+				pushFrame(currentGoal);
+			else if(enumerating) {
+				// pass the selection to the caller, the next call of the
+				// search continues with the next one
+				selectionFound = true;
+				backtracking = true;
+			}
+			else if(currentLayer <= 1)
+				finish(buildPlan());
+			else if(!enterLayer(currentLayer - 1, getSubgoals(currentLayer)))
+				backtracking = true;
+		}
+		return true;
+	}
+	
+	/**
+	 * Tries to select a supporter for the goal of a frame.
+	 * 
+	 *	@param _frame index of the frame.
+	 *	@param _supporter index of the action or <i>NO_OP</i>.
+	 *	@return true if the supporter was selected, false if it is mutex with
+	 *		the supporters selected before.
+	 */
+	private boolean select(int _frame, int _supporter) {
+		int base = _frame * FRAME_SIZE;
+		int layer = frames[base + FRAME_LAYER];
+		int fact = frames[base + FRAME_FACT];
+		BitSet selected = layerSelected[layer];
+		BitSet persisted = layerPersisted[layer];
+		BitSet forbidden = layerForbidden[layer];
+		int[] support = layerSupport[layer];
+		if(_supporter == NO_OP) {
+			// the no-op does not add any new subgoal
+			BitSet mutexes = graph.getNoOpMutexColumn(fact, layer);
+			if(mutexes.intersects(selected))
+				return false;
+			for(int other = persisted.nextSetBit(0); other >= 0; other = persisted.nextSetBit(other + 1))
+				if(graph.isFactMutex(fact, other, layer - 1))
+					return false;
+			support[fact]++;
+			persisted.set(fact);
+			forbid(forbidden, mutexes, frameForbidden[_frame]);
+		}
+		else {
+			if(forbidden.get(_supporter))
+				return false;
+			// a selected action supports all its positive effects, so it
+			// could not be a candidate for an unresolved goal
+			assert(!selected.get(_supporter));
+			for(int effect : graph.getActionEffects(_supporter))
+				support[effect]++;
+			selected.set(_supporter);
+			if(layerActionCounts[layer] == layerActions[layer].length)
+				layerActions[layer] = Arrays.copyOf(layerActions[layer], 2 * layerActions[layer].length);
+			layerActions[layer][layerActionCounts[layer]++] = _supporter;
+			forbid(forbidden, graph.getActionMutexRow(_supporter, layer), frameForbidden[_frame]);
+		}
+		frames[base + FRAME_CHOICE] = _supporter;
+		return true;
+	}
+	
+	/**
+	 * Withdraws the selection in the top frame, if any, and selects the next
+	 * candidate supporter that is compatible with the other selected
+	 * supporters. If there is no such candidate, the frame is popped and the
+	 * search backtracks.
+	 */
+	private void selectNext() {
+		int frame = frameCount - 1;
+		int base = frame * FRAME_SIZE;
+		if(frames[base + FRAME_CHOICE] != NO_CHOICE) {
+			unselect(frame);
+			backtrackCount++;
+		}
+		while(frames[base + FRAME_NEXT] < frames[base + FRAME_CANDIDATES]) {
+			int candidate = frames[base + FRAME_NEXT]++;
+			if(select(frame, getCandidate(frame, candidate))) {
+				supporterTrials++;
+				currentLayer = frames[base + FRAME_LAYER];
+				currentGoal = frames[base + FRAME_GOAL] + 1;
+				backtracking = false;
+				return;
+			}
+		}
+		frameCount--;
+		backtracking = true;
+	}
+	
+	/**
+	 * Sets the seed of the generator used by the random supporter order.
+	 * 
+	 *	@param _seed the seed.
+	 *	@see SupporterOrder#RANDOM
+	 */
+	public void setSeed(long _seed) {
+		random.setSeed(_seed);
+	}
+	
+	/**
+	 * Sorts items by their keys in ascending order. The sort is stable, so
+	 * items with the same keys keep their order. The arrays are expected to
+	 * be short, so insertion sort is used.
+	 * 
+	 *	@param _items the items.
+	 *	@param _keys keys of the items, they are sorted together with them.
+	 *	@param _count number of the items.
+	 */
+	private static void sortByKeys(int[] _items, int[] _keys, int _count) {
+		for(int i = 1; i < _count; i++) {
+			int item = _items[i];
+			int key = _keys[i];
+			int j = i - 1;
+			while(j >= 0 && _keys[j] > key) {
+				_items[j + 1] = _items[j];
+				_keys[j + 1] = _keys[j];
+				j--;
+			}
+			_items[j + 1] = item;
+			_keys[j + 1] = key;
+		}
+	}
+	
+	/**
+	 * Starts a new search for a plan that achieves goals at a layer of the
+	 * graph. The search itself is run by <i>search</i>.
+	 * 
+	 *	@param _layer index of the layer.
+	 *	@param _goals the goals.
+	 *	@see #search(long)
+	 */
+	public void start(int _layer, PredicateSet _goals) {
+		if(_goals == null)
+			throw new NullPointerException("_goals must not be null");
+		if(_layer >= noGoods.size())
+			throw new IllegalArgumentException("There are no no-goods for layer " + _layer);
+		int layer_count = _layer + 1;
+		if(layerGoalSets == null || layerGoalSets.length < layer_count) {
+			layerGoalSets = new PredicateSet[layer_count];
+			layerGoalFacts = new int[layer_count][];
+			layerGoalCounts = new int[layer_count];
+			layerSupport = new int[layer_count][];
+			layerSelected = new BitSet[layer_count];
+			layerPersisted = new BitSet[layer_count];
+			layerForbidden = new BitSet[layer_count];
+			layerActions = new int[layer_count][];
+			layerActionCounts = new int[layer_count];
+			layerFrameBases = new int[layer_count];
+		}
+		// the state of a finished search may be left in the layers
+		for(int layer = 0; layer < layer_count; layer++) {
+			if(layerSupport[layer] != null)
+				Arrays.fill(layerSupport[layer], 0);
+			if(layerSelected[layer] != null) {
+				layerSelected[layer].clear();
+				layerPersisted[layer].clear();
+				layerForbidden[layer].clear();
+			}
+		}
+		frameCount = 0;
+		topLayer = _layer;
+		plan = null;
+		finished = false;
+		backtracking = false;
+		enumerating = false;
+		selectionFound = false;
+		if(!enterLayer(_layer, _goals))
+			finish(null);
+	}
+	
+	/**
+	 * Starts an enumeration of the selections of supporters that resolve
+	 * goals at a layer of the graph. The selections are found by
+	 * <i>nextSelection</i>. Unlike the search for a plan, the enumeration
+	 * does not record the goals as a no-good when there are no more
+	 * selections.
+	 * 
+	 *	@param _layer index of the layer.
+	 *	@param _goals the goals.
+	 *	@see #nextSelection()
+	 */
+	public void startSelections(int _layer, PredicateSet _goals) {
+		start(_layer, _goals);
+		enumerating = true;
+	}
+	
+	/**
+	 * Withdraws the selection in a frame.
+	 * 
+	 *	@param _frame index of the frame.
+	 */
+	private void unselect(int _frame) {
+		int base = _frame * FRAME_SIZE;
+		int layer = frames[base + FRAME_LAYER];
+		int choice = frames[base + FRAME_CHOICE];
+		layerForbidden[layer].andNot(frameForbidden[_frame]);
+		if(choice == NO_OP) {
+			layerPersisted[layer].clear(frames[base + FRAME_FACT]);
+			layerSupport[layer][frames[base + FRAME_FACT]]--;
+		}
+		else {
+			for(int effect : graph.getActionEffects(choice))
+				layerSupport[layer][effect]--;
+			layerSelected[layer].clear(choice);
+			layerActionCounts[layer]--;
+		}
+		frames[base + FRAME_CHOICE] = NO_CHOICE;
+	}
+	
+	/**
+	 * Constructor. Creates an extractor for a planning graph.
+	 * 
+	 *	@param _graph the planning graph.
+	 *	@param _no_goods no-good combinations of the layers of the graph,
+	 *		indexed by the layers. New no-goods found by the search are added
+	 *		to them.
+	 *	@param _goal_order order in which the goals of a layer are resolved.
+	 *	@param _supporter_order order in which the supporters of a goal are
+	 *		tried.
+	 */
+	public PlanExtractor(PlanningGraph _graph, List<NoGoodStore> _no_goods,
+			GoalOrder _goal_order, SupporterOrder _supporter_order) {
+		if(_graph == null)
+			throw new NullPointerException("_graph must not be null");
+		if(_no_goods == null)
+			throw new NullPointerException("_no_goods must not be null");
+		graph = _graph;
+		noGoods = _no_goods;
+		goalOrder = _goal_order;
+		supporterOrder = _supporter_order;
+		frames = new int[64 * FRAME_SIZE];
+		frameForbidden = new BitSet[64];
+		frameOrders = new int[64][];
+		rankKeys = new int[16];
+		random = new Random(0);
+		finished = true;
+	}
+}
@@ -1,93 +1,182 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package cz.matfyz.sykora.planning;
-
-import java.io.*;
-
-import cz.matfyz.sykora.planning.predicate.*;
-
-/**
- * Class containing the <i>main</i> method. This is only helper class used to
- * separate the command line utilities from the rest of the program.
- * 
- *	@author Ondra Sykora [ondrasej@matfyz.cz]
- */
-public final class Planner {
-	/**
-	 * Prints info on usage of this application.
-	 */
-	public static void printUsage() {
-		System.out.println("GraphPlan.jar");
-		System.out.println("Usage: java -jar GraphPlan.jar [file]");
-		System.out.println("   where file is planning problem specification in format described in the docs.");
-	}
-	
-	/**
-	 * Main function for running this application from command line.
-	 *
-	 *	@param _arguments list of command line arguments.
-	 */
-	public static void main(String[] _arguments) {
-		if(_arguments.length == 0 || _arguments.length > 2) {
-			printUsage();
-			return;
-		}
-		
-		boolean verbose = false;
-		if(_arguments.length == 2) {
-			if(!_arguments[0].equals("-v")) {
-				printUsage();
-				return;
-			}
-			verbose = true;
-		}
-		
-		File file = new File(_arguments[_arguments.length - 1]);
-		if(!file.exists() || !file.isFile() || !file.canRead()) {
-			System.out.println("ERROR: File '" + _arguments[0] + "' does not exist or could not be read by the application");
-			return;
-		}
-		
-		PlanningProblem problem = new PlanningProblem(verbose);
-		ActionList plan = null;
-		try {
-			problem.initialize(new FileReader(file));
-			long start_time = System.currentTimeMillis();
-			plan = problem.solve();
-			long end_time = System.currentTimeMillis();
-			
-			System.out.println("Solved in " + (end_time - start_time) + " milliseconds.");
-		}
-		catch(PredicateParser.TokenException token_err) {
-			System.out.println("ERROR: File format error: " + token_err.getMessage());
-		}
-		catch(IOException io_err) {
-			System.out.println("ERROR: Input/output error: " + io_err.getMessage());
-		}
-		
-		if(plan != null) {
-			for(int i = 0; i < plan.size(); i++) {
-				System.out.println(plan.get(i).toString());
-			}
-		}
-		else {
-			System.out.println("Serial plan does not exist. Planning failed.");
-		}
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.io.*;
+
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Class containing the <i>main</i> method. This is only helper class used to
+ * separate the command line utilities from the rest of the program.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ */
+public final class Planner {
+	/**
+	 * Prints info on usage of this application.
+	 */
+	public static void printUsage() {
+		System.out.println("GraphPlan.jar");
+		System.out.println("Usage: java -jar GraphPlan.jar [-v] [-j threads] [-p extractors] [-e threads] [-g goal-order] [-s supporter-order] file");
+		System.out.println("   where file is planning problem specification in format described in the docs,");
+		System.out.println("   -v enables verbose output and -j sets the number of threads used to build the graph,");
+		System.out.println("   -p sets the number of extractors that search for the plan in parallel,");
+		System.out.println("   -e sets the number of threads that split a single extraction of the plan");
+		System.out.println("      (-p and -e can not be combined),");
+		System.out.println("   -g sets the goal order (natural, most-constrained),");
+		System.out.println("   -s sets the supporter order (natural, no-op-first, level-cost, goal-cover, random).");
+	}
+	
+	/**
+	 * Converts a command line value to the name of an enum constant, e.g.
+	 * "most-constrained" to "MOST_CONSTRAINED".
+	 * 
+	 *	@param _value the command line value.
+	 *	@return the name of the constant.
+	 */
+	private static String constantName(String _value) {
+		return _value.toUpperCase().replace('-', '_');
+	}
+	
+	/**
+	 * Main function for running this application from command line.
+	 *
+	 *	@param _arguments list of command line arguments.
+	 */
+	public static void main(String[] _arguments) {
+		boolean verbose = false;
+		int threads = 1;
+		int extractors = 1;
+		int search_threads = 1;
+		GoalOrder goal_order = GoalOrder.NATURAL;
+		SupporterOrder supporter_order = SupporterOrder.NO_OP_FIRST;
+		String file_name = null;
+		for(int i = 0; i < _arguments.length; i++) {
+			if(_arguments[i].equals("-v"))
+				verbose = true;
+			else if(_arguments[i].equals("-j") && i + 1 < _arguments.length) {
+				try {
+					threads = Integer.parseInt(_arguments[++i]);
+				}
+				catch(NumberFormatException format_err) {
+					threads = 0;
+				}
+				if(threads < 1) {
+					printUsage();
+					return;
+				}
+			}
+			else if(_arguments[i].equals("-p") && i + 1 < _arguments.length) {
+				try {
+					extractors = Integer.parseInt(_arguments[++i]);
+				}
+				catch(NumberFormatException format_err) {
+					extractors = 0;
+				}
+				if(extractors < 1) {
+					printUsage();
+					return;
+				}
+			}
+			else if(_arguments[i].equals("-e") && i + 1 < _arguments.length) {
+				try {
+					search_threads = Integer.parseInt(_arguments[++i]);
+				}
+				catch(NumberFormatException format_err) {
+					search_threads = 0;
+				}
+				if(search_threads < 1) {
+					printUsage();
+					return;
+				}
+			}
+			else if(_arguments[i].equals("-g") && i + 1 < _arguments.length) {
+				try {
+					goal_order = GoalOrder.valueOf(constantName(_arguments[++i]));
+				}
+				catch(IllegalArgumentException order_err) {
+					printUsage();
+					return;
+				}
+			}
+			else if(_arguments[i].equals("-s") && i + 1 < _arguments.length) {
+				try {
+					supporter_order = SupporterOrder.valueOf(constantName(_arguments[++i]));
+				}
+				catch(IllegalArgumentException order_err) {
+					printUsage();
+					return;
+				}
+			}
+			else if(file_name == null)
+				file_name = _arguments[i];
+			else {
+				printUsage();
+				return;
+			}
+		}
+		if(file_name == null || (extractors > 1 && search_threads > 1)) {
+			printUsage();
+			return;
+		}
+		
+		File file = new File(file_name);
+		if(!file.exists() || !file.isFile() || !file.canRead()) {
+			System.out.println("ERROR: File '" + file_name + "' does not exist or could not be read by the application");
+			return;
+		}
+		
+		PlanningProblem problem = new PlanningProblem(verbose);
+		problem.setThreadCount(threads);
+		problem.setPortfolioSize(extractors);
+		problem.setSearchThreadCount(search_threads);
+		problem.setGoalOrder(goal_order);
+		problem.setSupporterOrder(supporter_order);
+		ActionList plan = null;
+		try {
+			problem.initialize(new FileReader(file));
+			long start_time = System.currentTimeMillis();
+			plan = problem.solve();
+			long end_time = System.currentTimeMillis();
+			
+			System.out.println("Solved in " + (end_time - start_time) + " milliseconds.");
+			System.out.println("Extraction tried " + problem.getSupporterTrials() + " supporters, "
+					+ problem.getBacktrackCount() + " of them were withdrawn.");
+		}
+		catch(PredicateParser.TokenException token_err) {
+			System.out.println("ERROR: File format error: " + token_err.getMessage());
+		}
+		catch(IOException io_err) {
+			System.out.println("ERROR: Input/output error: " + io_err.getMessage());
+		}
+		finally {
+			problem.shutdown();
+		}
+		
+		if(plan != null) {
+			for(int i = 0; i < plan.size(); i++) {
+				System.out.println(plan.get(i).toString());
+			}
+		}
+		else {
+			System.out.println("Serial plan does not exist. Planning failed.");
+		}
+	}
+}
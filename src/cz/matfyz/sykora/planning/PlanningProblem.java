@@ -1,665 +1,869 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package cz.matfyz.sykora.planning;
-
-import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
-import java.util.*;
-
-import cz.matfyz.sykora.planning.graph.*;
-import cz.matfyz.sykora.planning.predicate.*;
-import cz.matfyz.sykora.planning.predicate.PredicateParser.TokenException;
-
-/**
- * Class representing the whole planning problem. Takes care of performing
- * single steps necessary for problem evaluation.
- * 
- *	@author Ondra Sykora [ondrasej@matfyz.cz]
- */
-public class PlanningProblem {
-	
-	/**
-	 * Text of Identifier that preceeds goal predicate in the input stream.
-	 *
-	 *	@see #GOALS_STRING
-	 *	@see #initialize(Reader)
-	 */
-	private final String GOAL_STRING = "goal";
-	
-	/**
-	 * Text of identifier that preceeds goal predicates in the input stream.
-	 *
-	 *	@see #GOAL_STRING
-	 *	@see #initialize(Reader)
-	 */
-	private final String GOALS_STRING = "goals";
-	
-	/**
-	 * List of goals of the planning problem. All these predicates must be
-	 * contained in the result state of the world.
-	 * 
-	 *	@see #verifyGoals()
-	 */
-	private PredicateSet goals;
-	
-	/**
-	 * Cache for result of the <i>verifyGoals</i> method.
-	 * 
-	 *	@see #isGoalsFulfilled()
-	 *	@see #verifyGoals()
-	 */
-	private boolean goalsFulfiled;
-	
-	/**
-	 * Reference to fixed point layer in the planning graph.
-	 * 
-	 * Fixed point is such layer, that has the same predicates, actions and
-	 * mutexes on both actions and predicates at preceeding layer.
-	 * 
-	 * If fixed point has not been reached yet, this reference is set to null.
-	 * 
-	 *	@see #singleStep()
-	 *	@see #solve()
-	 */
-	private BiLayer fixedPoint;
-	
-	/**
-	 * Flag specifying how much information is printed to std output when
-	 * processing the problem.
-	 */
-	private boolean verboseOutput;
-	
-	/**
-	 * List of possible action in the planning problem. Actions in this list
-	 * need not to be fully instantiated (have grounded predicates only).
-	 * Instantiation takes place in the <i>PredicateLayer.buildActionLayer</i>
-	 * method
-	 * 
-	 *	@see PredicateLayer#buildActionLayer(Iterable)
-	 *	@see #buildNextLayer()
-	 */
-	private ArrayList<Action> possibleActions;
-	
-	/**
-	 * List of layers in the layered plan. Each <i>BiLayer</i> class instance
-	 * holds both action and resulting predicate layer.
-	 * 
-	 * The only exception is the layer 0 which only contains predicates
-	 * describing the initial state of the planning system.
-	 * 
-	 * For access to last action and predicate layers do not use this list, use
-	 * <i>getLastActionLayer</i> and <i>getLastPredicateLayer</i> methods
-	 * instead.
-	 * 
-	 *	@see BiLayer
-	 *	@see #buildNextLayer()
-	 *	@see #getLastActionLayer()
-	 *	@see #getLastPredicateLayer()
-	 */
-	private ArrayList<BiLayer> layers;
-	
-	/**
-	 * Helper class used to hold both action layer and it's succeeding
-	 * predicate layer in the plan graph.
-	 * 
-	 *	@see PlanningProblem#layers 
-	 */
-	protected class BiLayer {
-		/**
-		 * Action layer.
-		 * 
-		 *	@see #getActions()
-		 */
-		private ActionLayer actions;
-		
-		/**
-		 * Predicate layer.
-		 * 
-		 *	@see #getPredicates()
-		 */
-		private PredicateLayer predicates;
-		
-		/**
-		 * Mapping of predicates to actions that support it.
-		 * 
-		 *	@see #getSupport()
-		 */
-		private Map<Predicate, ActionList> support;
-		
-		/**
-		 * List of no-good combinations for this layer.
-		 *	
-		 *	@see #addNoGood(PredicateSet)
-		 *	@see #isNoGood(PredicateSet)
-		 */
-		private ArrayList<PredicateSet> noGoods;
-		
-		/**
-		 * Adds a new no-good combination of predicates to the list.
-		 * 
-		 *	@param _no_good new no-good combination of predicates.
-		 */
-		public void addNoGood(PredicateSet _no_good) {
-			if(noGoods == null)
-				noGoods = new ArrayList<PredicateSet>();
-			noGoods.add(_no_good);
-		}
-		
-		/**
-		 * Getter for action layer hold by this class.
-		 * 
-		 *	@return action layer hold by this class.
-		 *	@see #actions 
-		 */
-		public ActionLayer getActions() {
-			return actions;
-		}
-		
-		/**
-		 * Returns number of no-good combinations in this layer.
-		 * 
-		 *	@return number of no-good combinations in this layer.
-		 */
-		public int getNoGoodSize() {
-			return noGoods == null ? 0 : noGoods.size();
-		}
-		
-		/**
-		 * Getter for predicate layer hold by this class.
-		 * 
-		 *	@return predicate layer hold by this class.
-		 *	@see #predicates
-		 */
-		public PredicateLayer getPredicates() {
-			return predicates;
-		}
-		
-		/**
-		 * Returns mapping from predicates to actions that support them.
-		 * 
-		 *	@return mapping from predicates to actions that support them.
-		 */
-		public Map<Predicate, ActionList> getSupport() {
-			return support;
-		}
-		
-		/**
-		 * Finds out whether the given set of predicates is a no-good
-		 * combination (a combination of predicates that was not solved in this
-		 * layer before).
-		 * 
-		 * This method does not test <i>_predicates</i> for equality, but for
-		 * inclusion of a no-good combination
-		 * 
-		 *	@param _predicates combination of predicates that is tested for
-		 * 		no-good.
-		 *	@return true if the set contains a no-good combination, false
-		 *		otherwise.
-		 */
-		public boolean isNoGood(PredicateSet _predicates) {
-			if(noGoods == null)
-				return false;
-			for(PredicateSet no_good : noGoods)
-				if(_predicates.contains(no_good)/* && no_good.contains(_predicates)*/)
-					return true;
-			return false;
-		}
-		
-		/**
-		 * Constructor. Creates a new instance of BiLayer for a set of
-		 * predicates.
-		 * 
-		 * This constructor is used to create a BiLayer with no action layer
-		 * that may be used as the first BiLayer holding the initial state of
-		 * the planning system.
-		 * 
-		 *	@param _predicates set of predicates describing the initial state
-		 *		of the planning system.
-		 */
-		public BiLayer(PredicateSet _predicates) {
-			actions = null;
-			predicates = new PredicateLayer();
-			predicates.add(_predicates);
-		}
-		
-		/**
-		 * Constructor. Creates a new instance of BiLayer for specified action
-		 * and predicate layer.
-		 *	@param _actions action layer
-		 *	@param _predicates predicate layer succeeding the action layer
-		 * 		<i>actions</i>
-		 */
-		public BiLayer(ActionLayer _actions, PredicateLayer _predicates,
-					Map<Predicate, ActionList> _support) {
-			actions = _actions;
-			predicates = _predicates;
-			support = _support;
-		}
-	}
-	
-	/**
-	 * Builds next action layer-predicate layer tuple from the last predicate
-	 * layer in the graph.
-	 *
-	 *	@return action layer-predicate layer tuple build from the last predicate
-	 *		layer.
-	 *	@see BiLayer
-	 *	@see #getLastPredicateLayer()
-	 *	@see #singleStep()
-	 */
-	protected BiLayer buildNextLayer() {
-		PredicateLayer last_predicates = getLastPredicateLayer();
-		if(last_predicates == null)
-			throw new RuntimeException("Planning problem was not initialized yet.");
-		
-		TreeMap<Predicate, ActionList> support_map = new TreeMap<Predicate, ActionList>();
-		ActionLayer actions = last_predicates.buildActionLayer(possibleActions);
-		PredicateLayer predicates = actions.buildPredicateLayer(support_map);
-		
-		return new BiLayer(actions, predicates,support_map);
-	}
-	
-	/**
-	 * Selects an action sequence from each action layer in the graph that
-	 * solves the planning problem. 
-	 * 
-	 *	@return a serial plan that solves the planning problem or null if no
-	 * 		such plan exists.
-	 */
-	public ActionList findSerialPlan() {
-		if(!isGoalsFulfilled()) {
-			// TODO: hodit nejakou vyjimku a nepatlat se s tim
-			return null;
-		}
-		ActionList result = findSerialPlanActions(layers.size() - 1, goals);
-		return result;
-	}
-	
-	/**
-	 * Helper method that is used in search for the serial plan. This method
-	 * is used to find action that satisfies a predicate and that is compatible
-	 * with other selected actions.
-	 * 
-	 *	@param _source BiLayer in which is the action looked for.
-	 *	@param _predicates list of predicates that need to be satisfied.
-	 *	@param _current_predicate index of the current predicate in the
-	 *		<i>_predicates</i> list.
-	 *	@param _resolved set containing predicates that are resolved by
-	 *		selected actions.
-	 *	@param _current_actions actions that were selected.
-	 *	@param _current_layer index of the current layer in the <i>layers</i>
-	 *		list.
-	 *	@return A serial plan for the specified layer and list of predicates
-	 *		that need to be fulfilled by selected actions. The plan starts from
-	 *		the initial state of the planning system.
-	 *	@see #findSerialPlan()
-	 *	@see #findSerialPlanActions(int, PredicateSet)
-	 */
-	private ActionList findPredicateAction(BiLayer _source, PredicateSet _predicates,
-			int _current_predicate, Set<Predicate> _resolved, ActionList _current_actions,
-			int _current_layer) {
-		// TODO: misto Set<Predicate> _resolved pouzit mapu s pocitanim podpor,
-		// ktera by umoznila pridavat do _resolved vsechny pozitivni efekty
-		// vybranych akci a zrychlit tak prohledavani.
-		if(_predicates.getPredicateCount() == _current_predicate) {
-			// all predicates from the working set are fulfilled, this layer is
-			// resolved, try to resolve next layer.
-			// If all layers are resolved, then the plan was found -> return
-			// selected actions
-			if(_current_layer == 1)
-				return _current_actions;
-			PredicateSet current_goals = _current_actions.getPreconditions();
-			ActionList next_actions = findSerialPlanActions(_current_layer - 1, current_goals);
-			
-			if(next_actions == null)
-				return null;
-			next_actions.addAll(_current_actions);
-			return next_actions;
-		}
-		
-		Predicate predicate = _predicates.getPredicate(_current_predicate);
-		if(!_resolved.contains(predicate)) {
-			// current predicate is not resolved yet, let's do something about it
-			actions:
-			for(Action action : _source.getSupport().get(predicate)) {
-				// find actions that has predicate as a positive effect
-//				if(action.getPositiveEffects().contains(predicate)) {
-					for(Action previous_action : _current_actions) {
-						if(_source.getActions().isMutex(action, previous_action)) {
-							continue actions;
-						}
-					}
-					_resolved.add(predicate);
-					boolean appended = false;
-					if(!_current_actions.contains(action)) {
-						_current_actions.add(action);
-						appended = true;
-					}
-					ActionList result = findPredicateAction(_source, _predicates, _current_predicate + 1,
-							_resolved, _current_actions, _current_layer);
-					if(result != null)
-						return result;
-					_resolved.remove(predicate);
-					if(appended)
-						_current_actions.remove(_current_actions.size() - 1);
-//				}
-			}
-			return null;
-		}
-		else
-			return findPredicateAction(_source, _predicates, _current_predicate + 1, _resolved, _current_actions, _current_layer);
-	}
-	
-	/**
-	 * Finds serial plan to resolve a set of predicates (preconditions of
-	 * actions from the following action layer) in a layer.
-	 * 
-	 *	@param _current_layer index of current layer in the <i>layers</i>
-	 *		array.
-	 *	@param _predicates set of predicates that should be resolved in the
-	 * 		layer with index <i>_current_layer</i>.
-	 *	@return serial plan for
-	 *	@see #findPredicateAction(BiLayer, PredicateSet, int, Set, ActionList, int)
-	 *	@see #findSerialPlan() 
-	 */
-	private ActionList findSerialPlanActions(int _current_layer, PredicateSet _predicates) {
-		BiLayer source = layers.get(_current_layer);
-		if(source == null)
-			throw new NullPointerException("_source must not be null");
-		if(_predicates == null)
-			throw new NullPointerException("_predicates must not be null");
-		
-		if(!source.getPredicates().contains(_predicates))
-			return null;
-		
-		if(source.isNoGood(_predicates))
-			return null;
-		ActionList actions = findPredicateAction(source, _predicates, 0, new TreeSet<Predicate>(), new ActionList(), _current_layer);
-		if(actions == null)
-			source.addNoGood(_predicates);
-		return actions;
-	}
-	
-	/**
-	 * Returns the last action layer from the planning graph.
-	 * 
-	 *	@return last action layer from the planning graph.
-	 *	@see #layers
-	 *	@see #getLastLayers()
-	 *	@see #getLastPredicateLayer()
-	 */
-	public ActionLayer getLastActionLayer() {
-		BiLayer last_bi = getLastLayers();
-		return last_bi.getActions();
-	}
-	
-	/**
-	 * Returns last BiLayer class holding last predicate and action layers in
-	 * the planning graph.
-	 * 
-	 *	@return BiLayer class with last action and last predicate layers in the
-	 *		planning graph.
-	 *	@see #layers
-	 *	@see #getLastActionLayer()
-	 *	@see #getLastPredicateLayer()
-	 */
-	public BiLayer getLastLayers() {
-		return layers.get(layers.size() - 1);
-	}
-	
-	/**
-	 * Returns the last predicate layer from the planning graph.
-	 * 
-	 *	@return last predicate layer from the planning graph.
-	 *	@see #layers
-	 *	@see #getLastActionLayer()
-	 *	@see #getLastLayers()
-	 */
-	public PredicateLayer getLastPredicateLayer() {
-		BiLayer last_bi = getLastLayers();
-		return last_bi.getPredicates();
-	}
-	
-	/**
-	 * Initializes internal structures in the class.
-	 *	
-	 *	@see #PlanningProblem(boolean)
-	 */
-	private void initialize() {
-		layers = new ArrayList<BiLayer>();
-		possibleActions = new ArrayList<Action>();
-		goals = new PredicateSet();
-	}
-	
-	/**
-	 * Initializes the planning problem for a specified input data. The
-	 * planning problem specification is read from a string variable.
-	 * 
-	 *	@param _input string containing the specification of the planning
-	 * 		problem.
-	 *	@throws IOException on input/output error while reading the planning
-	 *		problem specification.
-	 *	@throws TokenException on invalid input data format.
-	 *	@see #initialize(Reader)
-	 */
-	public void initialize(String _input) throws IOException, TokenException {
-		initialize(new StringReader(_input));
-	}
-	
-	/**
-	 * Initializes the planning problem for a specified input data. The
-	 * planning problem specification is read from an input stream represented
-	 * by a reader.
-	 *  
-	 *	@param _input_reader input stream reader.
-	 *	@throws IOException on input/output error while reading the planning
-	 * 		problem specification from the input stream.
-	 *	@throws TokenException on invalid input data format.
-	 *	@see #initialize(String)
-	 */
-	public void initialize(Reader _input_reader) throws IOException, TokenException {
-		PredicateParser parser = new PredicateParser(_input_reader);
-		PredicateSet initial_state = new PredicateSet();
-		boolean read_goals = false;
-		
-		goals.clear();
-		possibleActions.clear();
-		layers.clear();
-		 
-		PredicateParser.Token current = parser.nextToken();
-		while(current != null) {
-			boolean current_is_goal = read_goals;
-			if(current.getTokenType() == PredicateParser.Token.Type.IDENTIFIER
-					&& current.getTokenText().equals(GOAL_STRING)) {
-				current_is_goal = true;
-				
-				current = parser.nextToken();
-			}
-			else if(current.getTokenType() == PredicateParser.Token.Type.IDENTIFIER
-										&& current.getTokenText().equals(GOALS_STRING)) {
-				read_goals = true;
-				current_is_goal = true;
-				
-				current = parser.nextToken();
-			}
-			parser.pushToken(current);
-			
-			if(current.getTokenType() != PredicateParser.Token.Type.IDENTIFIER)
-				throw parser.new UnexpectedTokenException(current, "Identifier expected");
-
-			Object current_object = parser.parse();
-			if(current_object instanceof Action)
-				possibleActions.add((Action)current_object);
-			else if(current_object instanceof Predicate) {
-				if(current_is_goal)
-					goals.add((Predicate)current_object);
-				else
-					initial_state.add((Predicate)current_object);
-			}
-			else
-				break;
-			
-			current = parser.nextToken();
-		}
-		
-		layers.add(new BiLayer(initial_state));
-		
-		goalsFulfiled = false;
-		fixedPoint = null;
-	}
-	
-	/**
-	 * Initializes the planning problem for a set of possible actions, set of
-	 * predicates specifying the initial state of the system and set of goal
-	 * predicates.
-	 * 
-	 *	@param _actions list of possible actions.
-	 *	@param _initiali_state list of predicates describing the initial state
-	 *		of the system.
-	 *	@param _goals list of goal predicates.
-	 */
-	public void initialize(Iterable<Action> _actions, PredicateSet _initiali_state,
-							PredicateSet _goals) {
-		possibleActions.clear();
-		for(Action action : _actions)
-			possibleActions.add(action);
-		
-		goals.clear();
-		goals.add(_goals);
-		
-		layers.clear();
-		layers.add(new BiLayer(_initiali_state));
-		
-		goalsFulfiled = false;
-		fixedPoint = null;
-	}
-	
-	/**
-	 * Finds out whether all goal predicates are present and no mutex is
-	 * between any two of them in the last predicate layer in the planning
-	 * graph. This method only works with the <i>goalsFulfiled</i> cache, to
-	 * calculate this value again one needs to call the <i>verifyGoals</i>
-	 * method.
-	 * 
-	 *	@return true if all goal predicates were fulfulled when the 
-	 * 		<i>singleStep</i> method was called for the last time.
-	 *	@see #goalsFulfiled
-	 *	@see #singleStep()
-	 *	@see #verifyGoals()
-	 */
-	public boolean isGoalsFulfilled() {
-		return goalsFulfiled;
-	}
-	
-	/**
-	 * Performs a single step of the planning graphs extension. Uses last
-	 * predicate layer to build a succeeding action layer and builds next
-	 * predicate layer upon it.
-	 * 
-	 *	@return false if the termination condition was reached, true otherwise.
-	 *	@see #buildNextLayer()
-	 *	@see #fixedPoint
-	 *	@see #verifyGoals()
-	 */
-	public boolean singleStep() {
-		BiLayer next_bi = buildNextLayer();
-		PredicateLayer previous = getLastPredicateLayer();
-		
-		if(next_bi == null)
-			return false;
-		layers.add(next_bi);
-		if(fixedPoint == null && previous.equals(getLastPredicateLayer()))
-			fixedPoint = next_bi;
-		if(verifyGoals()) {
-			goalsFulfiled = true;
-			if(verboseOutput)
-				System.out.println("All goals are contained in predicate layer and there are no mutexes among them.");
-			return true;
-		}
-		else if(fixedPoint != null)
-			return false;
-		return true;
-	}
-	
-	/**
-	 * Solves the planning problem or finds out that no solution exists.
-	 *	@return true if serial plan was found, false if no solution exists.
-	 */
-	public ActionList solve() {
-		int counter = 0;
-		while(singleStep()) {
-			System.out.println("Layer #" + ++counter + " built.");
-			if(isGoalsFulfilled()) {
-				if(verboseOutput)
-					System.out.println("Layered plan was found.");
-				int old_no_good = fixedPoint != null ? fixedPoint.getNoGoodSize() : 0;
-				ActionList plan = findSerialPlan();
-				if(plan != null) {
-					if(verboseOutput)
-						System.out.println("Serial plan was found");
-					return plan.getPureList();
-				}
-				else {
-					if(fixedPoint == null) {
-						if(verboseOutput)
-							System.out.println("Fixed point not reached yet - resuming");
-						continue;
-					}
-					else if(fixedPoint.getNoGoodSize() != old_no_good) {
-						if(verboseOutput)
-							System.out.println("New no-good combination found at fixed point - resuming");
-						continue;
-					}
-					return null;
-				}
-			}
-		}
-		if(verboseOutput)
-			System.out.println("Termination condition reached.");
-		return null;
-	}
-	
-	/**
-	 * Tests if all goals are contained in the last predicate layer and that no
-	 * mutex is between them.
-	 * 
-	 *	@return if all goals are contained in the last predicate layer and if
-	 *		no mutex is between them.
-	 *	@see #goals
-	 *	@see #goalsFulfiled
-	 *	@see #isGoalsFulfilled()
-	 */
-	protected boolean verifyGoals() {
-		PredicateLayer last = getLastPredicateLayer();
-		assert(last != null);
-		
-		return last.contains(goals);
-	}
-	
-	/**
-	 * Constructor. Initializes an empty planning problem.
-	 * 
-	 *	@see #initialize()
-	 */
-	public PlanningProblem(boolean _verbose) {
-		verboseOutput = _verbose;
-		initialize();
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.*;
+
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+import cz.matfyz.sykora.planning.predicate.PredicateParser.TokenException;
+
+/**
+ * Class representing the whole planning problem. Takes care of performing
+ * single steps necessary for problem evaluation.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ */
+public class PlanningProblem {
+	
+	/**
+	 * Text of Identifier that preceeds goal predicate in the input stream.
+	 *
+	 *	@see #GOALS_STRING
+	 *	@see #initialize(Reader)
+	 */
+	private final String GOAL_STRING = "goal";
+	
+	/**
+	 * Text of identifier that preceeds goal predicates in the input stream.
+	 *
+	 *	@see #GOAL_STRING
+	 *	@see #initialize(Reader)
+	 */
+	private final String GOALS_STRING = "goals";
+	
+	/**
+	 * List of goals of the planning problem. All these predicates must be
+	 * contained in the result state of the world.
+	 * 
+	 *	@see #verifyGoals()
+	 */
+	private PredicateSet goals;
+	
+	/**
+	 * Cache for result of the <i>verifyGoals</i> method.
+	 * 
+	 *	@see #isGoalsFulfilled()
+	 *	@see #verifyGoals()
+	 */
+	private boolean goalsFulfiled;
+	
+	/**
+	 * Reference to fixed point layer in the planning graph.
+	 * 
+	 * Fixed point is such layer, that has the same predicates, actions and
+	 * mutexes on both actions and predicates at preceeding layer.
+	 * 
+	 * If fixed point has not been reached yet, this reference is set to null.
+	 * 
+	 *	@see #singleStep()
+	 *	@see #solve()
+	 *	@see PlanningGraph#isLevelledOff()
+	 */
+	private BiLayer fixedPoint;
+	
+	/**
+	 * Flag specifying how much information is printed to std output when
+	 * processing the problem.
+	 */
+	private boolean verboseOutput;
+	
+	/**
+	 * List of possible action in the planning problem. Actions in this list
+	 * need not to be fully instantiated (have grounded predicates only).
+	 * Instantiation takes place in the <i>PredicateLayer.buildActionLayer</i>
+	 * method
+	 * 
+	 *	@see PredicateLayer#buildActionLayer(Iterable)
+	 *	@see PlanningGraph#expand(Iterable)
+	 */
+	private ArrayList<Action> possibleActions;
+	
+	/**
+	 * List of grounded actions that are reachable from the initial state in
+	 * the relaxed problem. The planning graph is built from these actions
+	 * instead of the action schemas from <i>possibleActions</i>.
+	 * 
+	 *	@see Grounder
+	 *	@see #singleStep()
+	 */
+	private ActionList groundActions;
+	
+	/**
+	 * Static predicates of the planning problem. Static facts are not stored
+	 * in the planning graph and static preconditions are removed from the
+	 * grounded actions.
+	 * 
+	 *	@see StaticPredicates
+	 */
+	private StaticPredicates staticPredicates;
+	
+	/**
+	 * Mapping from grounded actions without static preconditions to the
+	 * original grounded actions. This is used to report the actions with all
+	 * their preconditions in the plan.
+	 * 
+	 *	@see #findSerialPlan()
+	 */
+	private HashMap<Action, Action> originalActions;
+	
+	/**
+	 * The planning graph. Facts, actions and mutexes of all levels are stored
+	 * in a single levelled structure.
+	 * 
+	 *	@see PlanningGraph
+	 *	@see #singleStep()
+	 */
+	private PlanningGraph graph;
+	
+	/**
+	 * Pool used to instantiate actions in parallel, or null if the actions
+	 * are instantiated in the calling thread.
+	 * 
+	 *	@see #setThreadCount(int)
+	 */
+	private ForkJoinPool pool;
+	
+	/**
+	 * Number of extractors that search for the plan in parallel.
+	 * 
+	 *	@see #setPortfolioSize(int)
+	 */
+	private int portfolioSize;
+	
+	/**
+	 * Pool used to run the portfolio of extractors, or null if the plan is
+	 * extracted by a single extractor in the calling thread.
+	 * 
+	 *	@see #setPortfolioSize(int)
+	 */
+	private ForkJoinPool portfolioPool;
+	
+	/**
+	 * Pool used to split a single extraction of the plan among multiple
+	 * threads, or null if the extraction is not split.
+	 * 
+	 *	@see #setSearchThreadCount(int)
+	 */
+	private ForkJoinPool searchPool;
+	
+	/**
+	 * Order in which the goals of a layer are resolved during the extraction
+	 * of the plan.
+	 * 
+	 *	@see #setGoalOrder(GoalOrder)
+	 */
+	private GoalOrder goalOrder;
+	
+	/**
+	 * Order in which the supporters of a goal are tried during the extraction
+	 * of the plan.
+	 * 
+	 *	@see #setSupporterOrder(SupporterOrder)
+	 */
+	private SupporterOrder supporterOrder;
+	
+	/**
+	 * Number of supporters that were selected during the extraction of the
+	 * plan.
+	 * 
+	 *	@see #getSupporterTrials()
+	 */
+	private long supporterTrials;
+	
+	/**
+	 * Number of selected supporters that were later withdrawn during the
+	 * extraction of the plan.
+	 * 
+	 *	@see #getBacktrackCount()
+	 */
+	private long backtrackCount;
+	
+	/**
+	 * The symbol table of the problem. It is used to intern all names read
+	 * by the parser, and its atom table holds the facts of the problem.
+	 * 
+	 *	@see #getSymbolTable()
+	 */
+	private SymbolTable symbols;
+	
+	/**
+	 * List of per-level data used during the search for the serial plan. The
+	 * item with index <i>k</i> belongs to the level <i>k</i> of the planning
+	 * graph.
+	 * 
+	 *	@see BiLayer
+	 *	@see #graph
+	 */
+	private ArrayList<BiLayer> layers;
+	
+	/**
+	 * Helper class used to hold data of a single level of the planning graph
+	 * that are used in the search for the serial plan. The facts, actions and
+	 * mutexes of the level are stored in the planning graph.
+	 * 
+	 *	@see PlanningProblem#layers 
+	 */
+	protected class BiLayer {
+		/**
+		 * No-good combinations for this layer.
+		 *	
+		 *	@see #addNoGood(PredicateSet)
+		 *	@see #isNoGood(PredicateSet)
+		 */
+		private NoGoodStore noGoods;
+		
+		/**
+		 * Adds a new no-good combination of predicates to the list.
+		 * 
+		 *	@param _no_good new no-good combination of predicates.
+		 */
+		public void addNoGood(PredicateSet _no_good) {
+			noGoods.add(_no_good);
+		}
+		
+		/**
+		 * Returns the store of no-good combinations of this layer. The plan
+		 * extraction adds the no-goods it finds directly to the store.
+		 * 
+		 *	@return the store of no-good combinations.
+		 *	@see PlanExtractor
+		 */
+		public NoGoodStore getNoGoods() {
+			return noGoods;
+		}
+		
+		/**
+		 * Returns number of no-good combinations in this layer.
+		 * 
+		 *	@return number of no-good combinations in this layer.
+		 */
+		public int getNoGoodSize() {
+			return noGoods.getSize();
+		}
+		
+		/**
+		 * Finds out whether the given set of predicates is a no-good
+		 * combination (a combination of predicates that was not solved in this
+		 * layer before).
+		 * 
+		 * This method does not test <i>_predicates</i> for equality, but for
+		 * inclusion of a no-good combination
+		 * 
+		 *	@param _predicates combination of predicates that is tested for
+		 * 		no-good.
+		 *	@return true if the set contains a no-good combination, false
+		 *		otherwise.
+		 *	@see NoGoodStore#containsSubsetOf(PredicateSet)
+		 */
+		public boolean isNoGood(PredicateSet _predicates) {
+			return noGoods.containsSubsetOf(_predicates);
+		}
+		
+		/**
+		 * Constructor. Creates a new instance of BiLayer with no no-good
+		 * combinations.
+		 */
+		public BiLayer() {
+			noGoods = new NoGoodStore();
+		}
+	}
+	
+	/**
+	 * Selects an action sequence from each action layer in the graph that
+	 * solves the planning problem. 
+	 * 
+	 *	@return a serial plan that solves the planning problem or null if no
+	 * 		such plan exists.
+	 */
+	public ActionList findSerialPlan() {
+		if(!isGoalsFulfilled()) {
+			// TODO: hodit nejakou vyjimku a nepatlat se s tim
+			return null;
+		}
+		ArrayList<NoGoodStore> no_goods = new ArrayList<NoGoodStore>();
+		for(BiLayer layer : layers)
+			no_goods.add(layer.getNoGoods());
+		ActionList result;
+		if(portfolioPool != null)
+			result = findSerialPlanPortfolio(no_goods);
+		else if(searchPool != null)
+			result = findSerialPlanSplit(no_goods);
+		else {
+			PlanExtractor extractor = new PlanExtractor(graph, no_goods, goalOrder, supporterOrder);
+			extractor.start(layers.size() - 1, goals.freeze());
+			extractor.search(Long.MAX_VALUE);
+			supporterTrials += extractor.getSupporterTrials();
+			backtrackCount += extractor.getBacktrackCount();
+			result = extractor.getPlan();
+		}
+		if(result != null) {
+			for(int i = 0; i < result.size(); i++) {
+				Action original = originalActions.get(result.get(i));
+				if(original != null)
+					result.set(i, original);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Extracts the plan by a portfolio of extractors running in parallel. The
+	 * first extractor uses the selected goal and supporter orders, the other
+	 * extractors use the other combinations of the orders, and if there are
+	 * more extractors than combinations, the remaining ones try the
+	 * supporters in random orders with different seeds.
+	 * 
+	 *	@param _no_goods the shared no-good stores of the layers.
+	 *	@return a serial plan, or null if there is no plan at the last layer.
+	 *	@see PortfolioTask
+	 */
+	private ActionList findSerialPlanPortfolio(List<NoGoodStore> _no_goods) {
+		ArrayList<GoalOrder> goal_orders = new ArrayList<GoalOrder>();
+		ArrayList<SupporterOrder> supporter_orders = new ArrayList<SupporterOrder>();
+		goal_orders.add(goalOrder);
+		supporter_orders.add(supporterOrder);
+		for(GoalOrder goal_order : GoalOrder.values()) {
+			for(SupporterOrder supporter_order : SupporterOrder.values()) {
+				if(supporter_order == SupporterOrder.RANDOM
+						|| (goal_order == goalOrder && supporter_order == supporterOrder))
+					continue;
+				goal_orders.add(goal_order);
+				supporter_orders.add(supporter_order);
+			}
+		}
+		
+		PlanExtractor[] extractors = new PlanExtractor[portfolioSize];
+		PredicateSet frozen_goals = goals.freeze();
+		for(int i = 0; i < extractors.length; i++) {
+			if(i < goal_orders.size())
+				extractors[i] = new PlanExtractor(graph, _no_goods, goal_orders.get(i), supporter_orders.get(i));
+			else {
+				GoalOrder goal_order = GoalOrder.values()[i % GoalOrder.values().length];
+				extractors[i] = new PlanExtractor(graph, _no_goods, goal_order, SupporterOrder.RANDOM);
+				extractors[i].setSeed(i);
+			}
+			extractors[i].start(layers.size() - 1, frozen_goals);
+		}
+		PortfolioTask task = new PortfolioTask(extractors);
+		portfolioPool.invoke(task);
+		for(PlanExtractor extractor : extractors) {
+			supporterTrials += extractor.getSupporterTrials();
+			backtrackCount += extractor.getBacktrackCount();
+		}
+		PlanExtractor finished = task.getFinishedExtractor();
+		if(verboseOutput && finished != null)
+			System.out.println("Extractor #" + Arrays.asList(extractors).indexOf(finished) + " finished first.");
+		return finished != null ? finished.getPlan() : null;
+	}
+	
+	/**
+	 * Extracts the plan by fork/join tasks that split the search among the
+	 * threads of the search pool.
+	 * 
+	 *	@param _no_goods the shared no-good stores of the layers.
+	 *	@return a serial plan, or null if there is no plan at the last layer.
+	 *	@see SearchTask
+	 */
+	private ActionList findSerialPlanSplit(List<NoGoodStore> _no_goods) {
+		SearchTask task = new SearchTask(graph, _no_goods, goalOrder, supporterOrder,
+				layers.size() - 1, goals.freeze());
+		searchPool.invoke(task);
+		supporterTrials += task.getSupporterTrials();
+		backtrackCount += task.getBacktrackCount();
+		if(verboseOutput)
+			System.out.println("Split search skipped " + task.getMemoHitCount() + " repeated subgoal sets.");
+		return task.getPlan();
+	}
+	
+	/**
+	 * Returns number of selected supporters that were later withdrawn during
+	 * the extraction of the plan, since the problem was initialized.
+	 * 
+	 *	@return number of the backtracking steps.
+	 */
+	public long getBacktrackCount() {
+		return backtrackCount;
+	}
+	
+	/**
+	 * Returns the last action layer from the planning graph.
+	 * 
+	 *	@return last action layer from the planning graph.
+	 *	@see #graph
+	 *	@see #getLastPredicateLayer()
+	 */
+	public ActionLayer getLastActionLayer() {
+		return graph.getLastActionLayer();
+	}
+	
+	/**
+	 * Returns BiLayer class holding data of the last level of the planning
+	 * graph.
+	 * 
+	 *	@return BiLayer class for the last level of the planning graph.
+	 *	@see #layers
+	 */
+	public BiLayer getLastLayers() {
+		return layers.get(layers.size() - 1);
+	}
+	
+	/**
+	 * Returns the last predicate layer from the planning graph.
+	 * 
+	 *	@return last predicate layer from the planning graph.
+	 *	@see #graph
+	 *	@see #getLastActionLayer()
+	 */
+	public PredicateLayer getLastPredicateLayer() {
+		return graph.getLastPredicateLayer();
+	}
+	
+	/**
+	 * Returns the planning graph of the problem.
+	 * 
+	 *	@return the planning graph.
+	 */
+	public PlanningGraph getPlanningGraph() {
+		return graph;
+	}
+	
+	/**
+	 * Returns number of supporters (actions and no-ops) that were selected
+	 * during the extraction of the plan, since the problem was initialized.
+	 * 
+	 *	@return number of the selected supporters.
+	 */
+	public long getSupporterTrials() {
+		return supporterTrials;
+	}
+	
+	/**
+	 * Returns the symbol table of the problem. Actions and predicates that
+	 * are passed to the problem must use this symbol table.
+	 * 
+	 *	@return the symbol table of the problem.
+	 */
+	public SymbolTable getSymbolTable() {
+		return symbols;
+	}
+	
+	/**
+	 * Initializes internal structures in the class.
+	 *	
+	 *	@see #PlanningProblem(boolean)
+	 */
+	private void initialize() {
+		layers = new ArrayList<BiLayer>();
+		possibleActions = new ArrayList<Action>();
+		goals = new PredicateSet();
+	}
+	
+	/**
+	 * Initializes the planning problem for a specified input data. The
+	 * planning problem specification is read from a string variable.
+	 * 
+	 *	@param _input string containing the specification of the planning
+	 * 		problem.
+	 *	@throws IOException on input/output error while reading the planning
+	 *		problem specification.
+	 *	@throws TokenException on invalid input data format.
+	 *	@see #initialize(Reader)
+	 */
+	public void initialize(String _input) throws IOException, TokenException {
+		initialize(new StringReader(_input));
+	}
+	
+	/**
+	 * Initializes the planning problem for a specified input data. The
+	 * planning problem specification is read from an input stream represented
+	 * by a reader.
+	 *  
+	 *	@param _input_reader input stream reader.
+	 *	@throws IOException on input/output error while reading the planning
+	 * 		problem specification from the input stream.
+	 *	@throws TokenException on invalid input data format.
+	 *	@see #initialize(String)
+	 */
+	public void initialize(Reader _input_reader) throws IOException, TokenException {
+		PredicateParser parser = new PredicateParser(_input_reader, symbols);
+		PredicateSet initial_state = new PredicateSet();
+		boolean read_goals = false;
+		
+		goals.clear();
+		possibleActions.clear();
+		layers.clear();
+		 
+		PredicateParser.Token current = parser.nextToken();
+		while(current != null) {
+			boolean current_is_goal = read_goals;
+			if(current.getTokenType() == PredicateParser.Token.Type.IDENTIFIER
+					&& current.getTokenText().equals(GOAL_STRING)) {
+				current_is_goal = true;
+				
+				current = parser.nextToken();
+			}
+			else if(current.getTokenType() == PredicateParser.Token.Type.IDENTIFIER
+										&& current.getTokenText().equals(GOALS_STRING)) {
+				read_goals = true;
+				current_is_goal = true;
+				
+				current = parser.nextToken();
+			}
+			parser.pushToken(current);
+			
+			if(current.getTokenType() != PredicateParser.Token.Type.IDENTIFIER)
+				throw parser.new UnexpectedTokenException(current, "Identifier expected");
+
+			Object current_object = parser.parse();
+			if(current_object instanceof Action)
+				possibleActions.add((Action)current_object);
+			else if(current_object instanceof Predicate) {
+				if(current_is_goal)
+					goals.add((Predicate)current_object);
+				else
+					initial_state.add((Predicate)current_object);
+			}
+			else if(current_object instanceof ObjectType) {
+				// types are kept by the parser and they are linked to the
+				// variables that use them
+			}
+			else
+				break;
+			
+			current = parser.nextToken();
+		}
+		
+		prepare(initial_state);
+	}
+	
+	/**
+	 * Initializes the planning problem for a set of possible actions, set of
+	 * predicates specifying the initial state of the system and set of goal
+	 * predicates.
+	 * 
+	 *	@param _actions list of possible actions.
+	 *	@param _initiali_state list of predicates describing the initial state
+	 *		of the system.
+	 *	@param _goals list of goal predicates.
+	 */
+	public void initialize(Iterable<Action> _actions, PredicateSet _initiali_state,
+							PredicateSet _goals) {
+		possibleActions.clear();
+		for(Action action : _actions)
+			possibleActions.add(action);
+		
+		goals.clear();
+		goals.add(_goals);
+		
+		layers.clear();
+		prepare(_initiali_state);
+	}
+	
+	/**
+	 * Finds out whether all goal predicates are present and no mutex is
+	 * between any two of them in the last predicate layer in the planning
+	 * graph. This method only works with the <i>goalsFulfiled</i> cache, to
+	 * calculate this value again one needs to call the <i>verifyGoals</i>
+	 * method.
+	 * 
+	 *	@return true if all goal predicates were fulfulled when the 
+	 * 		<i>singleStep</i> method was called for the last time.
+	 *	@see #goalsFulfiled
+	 *	@see #singleStep()
+	 *	@see #verifyGoals()
+	 */
+	public boolean isGoalsFulfilled() {
+		return goalsFulfiled;
+	}
+	
+	/**
+	 * Prepares the planning problem after the actions, the initial state and
+	 * the goals were loaded. Finds the static predicates, grounds the actions
+	 * and creates the first level of the planning graph.
+	 * 
+	 * Static goals that are in the initial state are removed from the goals,
+	 * static goals that are not in the initial state are kept, so that the
+	 * goals are never fulfilled.
+	 * 
+	 *	@param _initial_state predicates describing the initial state of the
+	 *		system.
+	 */
+	private void prepare(PredicateSet _initial_state) {
+		AtomTable atoms = symbols.getAtomTable();
+		staticPredicates = new StaticPredicates(possibleActions, _initial_state, atoms);
+		originalActions = new HashMap<Action, Action>();
+		groundActions = new ActionList();
+		for(Action action : Grounder.ground(possibleActions, _initial_state, atoms, pool)) {
+			Action compiled = staticPredicates.removeStatic(action);
+			if(compiled != action)
+				originalActions.put(compiled, action);
+			groundActions.add(compiled);
+		}
+		
+		PredicateSet fluent_goals = new PredicateSet();
+		for(Predicate goal : goals)
+			if(!staticPredicates.isStatic(goal) || !staticPredicates.getFacts().contains(goal))
+				fluent_goals.add(goal);
+		goals = fluent_goals;
+		
+		graph = new PlanningGraph(staticPredicates.removeStatic(_initial_state), atoms);
+		layers.add(new BiLayer());
+		
+		goalsFulfiled = false;
+		fixedPoint = null;
+		supporterTrials = 0;
+		backtrackCount = 0;
+	}
+	
+	/**
+	 * Replaces a thread pool by a pool with a given number of threads. The
+	 * old pool is kept if it already has the number of threads, otherwise it
+	 * is shut down.
+	 * 
+	 *	@param _old the old pool, or null if there is no pool.
+	 *	@param _threads the number of threads. If it is 1, no pool is needed.
+	 *	@return the new pool, or null if <i>_threads</i> is 1.
+	 */
+	private static ForkJoinPool replacePool(ForkJoinPool _old, int _threads) {
+		if(_old != null && _old.getParallelism() == _threads)
+			return _old;
+		if(_old != null)
+			_old.shutdown();
+		return _threads > 1 ? new ForkJoinPool(_threads) : null;
+	}
+	
+	/**
+	 * Sets the order in which the goals of a layer are resolved during the
+	 * extraction of the plan. By default, the goals are resolved in their
+	 * natural order.
+	 * 
+	 *	@param _order the goal order.
+	 */
+	public void setGoalOrder(GoalOrder _order) {
+		if(_order == null)
+			throw new NullPointerException("_order must not be null");
+		goalOrder = _order;
+	}
+	
+	/**
+	 * Sets the order in which the supporters of a goal are tried during the
+	 * extraction of the plan. By default, the no-op is tried first.
+	 * 
+	 *	@param _order the supporter order.
+	 */
+	public void setSupporterOrder(SupporterOrder _order) {
+		if(_order == null)
+			throw new NullPointerException("_order must not be null");
+		supporterOrder = _order;
+	}
+	
+	/**
+	 * Sets the number of extractors that search for the plan in parallel.
+	 * The extractors use different orders of goals and supporters and share
+	 * the no-goods they find; the first extractor that finishes stops the
+	 * others. This helps when the time of the extraction depends heavily on
+	 * the order of the search.
+	 * 
+	 *	@param _size the number of extractors, each of them runs in its own
+	 *		thread. If it is 1, the plan is extracted by a single extractor in
+	 *		the calling thread.
+	 *	@throws IllegalArgumentException if <i>_size</i> is not positive.
+	 *	@see PortfolioTask
+	 */
+	public void setPortfolioSize(int _size) {
+		if(_size < 1)
+			throw new IllegalArgumentException("_size must be positive");
+		portfolioSize = _size;
+		portfolioPool = replacePool(portfolioPool, _size);
+	}
+	
+	/**
+	 * Sets the number of threads that share a single extraction of the plan.
+	 * The supporters selected at a layer split the search into tasks for the
+	 * preceding layers, which are stolen by idle threads. This helps at the
+	 * layers where there is no plan and the whole search space must be
+	 * explored. The split search is not used while the portfolio of
+	 * extractors is enabled; the portfolio takes precedence.
+	 * 
+	 *	@param _threads the number of threads. If it is 1, the extraction is
+	 *		not split.
+	 *	@throws IllegalArgumentException if <i>_threads</i> is not positive.
+	 *	@see SearchTask
+	 *	@see #setPortfolioSize(int)
+	 */
+	public void setSearchThreadCount(int _threads) {
+		if(_threads < 1)
+			throw new IllegalArgumentException("_threads must be positive");
+		searchPool = replacePool(searchPool, _threads);
+	}
+	
+	/**
+	 * Sets the number of threads used to ground the actions and to build the
+	 * layers of the planning graph. The number must be set before the
+	 * problem is initialized, so that it is also used for the grounding.
+	 * 
+	 *	@param _threads the number of threads. If it is 1, everything is
+	 *		computed in the calling thread.
+	 *	@throws IllegalArgumentException if <i>_threads</i> is not positive.
+	 *	@see InstantiationTask
+	 */
+	public void setThreadCount(int _threads) {
+		if(_threads < 1)
+			throw new IllegalArgumentException("_threads must be positive");
+		pool = replacePool(pool, _threads);
+	}
+	
+	/**
+	 * Shuts down the thread pools of the problem. Everything is computed in
+	 * the calling thread afterwards, unless the numbers of threads are set
+	 * again.
+	 * 
+	 *	@see #setThreadCount(int)
+	 *	@see #setPortfolioSize(int)
+	 *	@see #setSearchThreadCount(int)
+	 */
+	public void shutdown() {
+		setThreadCount(1);
+		setPortfolioSize(1);
+		setSearchThreadCount(1);
+	}
+	
+	/**
+	 * Performs a single step of the planning graphs extension. Uses last
+	 * predicate layer to build a succeeding action layer and builds next
+	 * predicate layer upon it.
+	 * 
+	 *	@return false if the termination condition was reached, true otherwise.
+	 *	@see PlanningGraph#expand(Iterable)
+	 *	@see #fixedPoint
+	 *	@see #verifyGoals()
+	 */
+	public boolean singleStep() {
+		if(graph == null)
+			throw new RuntimeException("Planning problem was not initialized yet.");
+		PredicateLayer previous = getLastPredicateLayer();
+		graph.expand(groundActions, pool);
+		BiLayer next_bi = new BiLayer();
+		layers.add(next_bi);
+		if(fixedPoint == null && graph.isLevelledOff())
+			fixedPoint = next_bi;
+		// the structural comparison of the layers is only done when
+		// assertions are enabled.
+		assert(graph.isLevelledOff() == previous.equals(getLastPredicateLayer()));
+		if(verifyGoals()) {
+			goalsFulfiled = true;
+			if(verboseOutput)
+				System.out.println("All goals are contained in predicate layer and there are no mutexes among them.");
+			return true;
+		}
+		else if(fixedPoint != null)
+			return false;
+		return true;
+	}
+	
+	/**
+	 * Solves the planning problem or finds out that no solution exists.
+	 *	@return true if serial plan was found, false if no solution exists.
+	 */
+	public ActionList solve() {
+		int counter = 0;
+		while(singleStep()) {
+			System.out.println("Layer #" + ++counter + " built.");
+			if(isGoalsFulfilled()) {
+				if(verboseOutput)
+					System.out.println("Layered plan was found.");
+				int old_no_good = fixedPoint != null ? fixedPoint.getNoGoodSize() : 0;
+				ActionList plan = findSerialPlan();
+				if(plan != null) {
+					if(verboseOutput)
+						System.out.println("Serial plan was found");
+					return plan.getPureList();
+				}
+				else {
+					if(fixedPoint == null) {
+						if(verboseOutput)
+							System.out.println("Fixed point not reached yet - resuming");
+						continue;
+					}
+					else if(fixedPoint.getNoGoodSize() != old_no_good) {
+						if(verboseOutput)
+							System.out.println("New no-good combination found at fixed point - resuming");
+						continue;
+					}
+					return null;
+				}
+			}
+		}
+		if(verboseOutput)
+			System.out.println("Termination condition reached.");
+		return null;
+	}
+	
+	/**
+	 * Tests if all goals are contained in the last predicate layer and that no
+	 * mutex is between them.
+	 * 
+	 *	@return if all goals are contained in the last predicate layer and if
+	 *		no mutex is between them.
+	 *	@see #goals
+	 *	@see #goalsFulfiled
+	 *	@see #isGoalsFulfilled()
+	 */
+	protected boolean verifyGoals() {
+		PredicateLayer last = getLastPredicateLayer();
+		assert(last != null);
+		
+		return last.contains(goals);
+	}
+	
+	/**
+	 * Constructor. Initializes an empty planning problem with its own symbol
+	 * table.
+	 * 
+	 *	@see #initialize()
+	 */
+	public PlanningProblem(boolean _verbose) {
+		this(_verbose, new SymbolTable());
+	}
+	
+	/**
+	 * Constructor. Initializes an empty planning problem that uses a given
+	 * symbol table. This is used when the actions and predicates of the
+	 * problem are created before the problem itself.
+	 * 
+	 *	@param _verbose true if the problem should print progress messages.
+	 *	@param _symbols the symbol table of the problem.
+	 *	@see #initialize()
+	 */
+	public PlanningProblem(boolean _verbose, SymbolTable _symbols) {
+		if(_symbols == null)
+			throw new NullPointerException("_symbols parameter must not be null");
+		verboseOutput = _verbose;
+		symbols = _symbols;
+		goalOrder = GoalOrder.NATURAL;
+		supporterOrder = SupporterOrder.NO_OP_FIRST;
+		portfolioSize = 1;
+		initialize();
+	}
+}
@@ -0,0 +1,126 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.concurrent.*;
+
+/**
+ * Fork/join task that runs a portfolio of plan extractors in parallel. The
+ * extractors differ in the order of goals and supporters, and they share the
+ * stores of no-goods, so that a no-good found by one extractor prunes the
+ * search of the others. The array of extractors is split into halves until
+ * each task runs a single extractor.
+ * 
+ * The first extractor that finishes its search cancels all the others. The
+ * search of a single extractor is complete, so its result is the result of
+ * the whole portfolio: either a plan, or the proof that there is no plan at
+ * the layer.
+ * 
+ * The planning graph is only read by the extractors, so it must not be
+ * modified until the task completes.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#setPortfolioSize(int)
+ */
+public class PortfolioTask extends RecursiveAction {
+	/**
+	 * Version of the serialized form of the task.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The extractors of the portfolio. The searches of the extractors must be
+	 * started before the task is run.
+	 */
+	private PlanExtractor[] extractors;
+	
+	/**
+	 * Index of the first extractor run by this task.
+	 */
+	private int from;
+	
+	/**
+	 * Index of the first extractor after the extractors run by this task.
+	 */
+	private int to;
+	
+	/**
+	 * Runs the extractors of this task.
+	 */
+	protected void compute() {
+		if(to - from > 1) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new PortfolioTask(extractors, from, middle),
+					new PortfolioTask(extractors, middle, to));
+			return;
+		}
+		PlanExtractor extractor = extractors[from];
+		if(!extractor.search(Long.MAX_VALUE))
+			return;
+		for(PlanExtractor other : extractors)
+			if(other != extractor)
+				other.cancel();
+	}
+	
+	/**
+	 * Returns the extractor that finished its search. This method may only be
+	 * called after the task completes.
+	 * 
+	 *	@return the extractor that finished its search, or null if no
+	 *		extractor finished.
+	 */
+	public PlanExtractor getFinishedExtractor() {
+		PlanExtractor result = null;
+		for(int i = from; i < to; i++) {
+			if(!extractors[i].isFinished())
+				continue;
+			// prefer a plan, if multiple extractors finished at once
+			if(result == null || extractors[i].getPlan() != null)
+				result = extractors[i];
+			if(result.getPlan() != null)
+				break;
+		}
+		return result;
+	}
+	
+	/**
+	 * Constructor. Creates a task that runs all extractors of a portfolio.
+	 * 
+	 *	@param _extractors the extractors. Their searches must be started.
+	 */
+	public PortfolioTask(PlanExtractor[] _extractors) {
+		this(_extractors, 0, _extractors.length);
+	}
+	
+	/**
+	 * Constructor. Creates a task that runs a part of a portfolio.
+	 * 
+	 *	@param _extractors the extractors.
+	 *	@param _from index of the first extractor run by the task.
+	 *	@param _to index of the first extractor after the extractors run by
+	 *		the task.
+	 */
+	private PortfolioTask(PlanExtractor[] _extractors, int _from, int _to) {
+		if(_extractors == null)
+			throw new NullPointerException("_extractors must not be null");
+		extractors = _extractors;
+		from = _from;
+		to = _to;
+	}
+}
@@ -0,0 +1,503 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.*;
+
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Finds instances of an action schema on a predicate layer. The matcher
+ * compiles the schema to a form where variables of the schema are slots in
+ * an array of symbol ids, and predicates of the schema refer either to these
+ * slots or to constants. Values bound during the search are recorded on a
+ * preallocated trail and undone by rewinding it, and the "distinct" and type
+ * constraints of the variables are checked by slot indices. Thanks to this,
+ * the search does not allocate any objects except for the instances of the
+ * action it finds.
+ * 
+ * The matcher keeps the state of the search, so a single matcher must not be
+ * used by multiple threads at the same time.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see Action#findPossibleInstances(PredicateLayer, Set, Map)
+ */
+public class SchemaMatcher {
+	/**
+	 * Compiled form of a predicate from the action schema.
+	 */
+	private static class Template {
+		/**
+		 * Id of the symbol with the name of the predicate.
+		 */
+		private int symbol;
+		
+		/**
+		 * Slots of variables at the parameter positions, or -1 for constants.
+		 */
+		private int[] slots;
+		
+		/**
+		 * Symbols of the constants at the parameter positions. Only valid for
+		 * the positions that have slot -1.
+		 */
+		private int[] constants;
+		
+		/**
+		 * Values of the parameters under the current bindings. This is used
+		 * to look up candidates in the predicate layer.
+		 */
+		private int[] probe;
+		
+		/**
+		 * Fills <i>probe</i> with the values of the parameters.
+		 *
+		 *	@param _values values of the slots.
+		 *	@return the filled array.
+		 */
+		public int[] fillProbe(int[] _values) {
+			for(int i = 0; i < slots.length; i++)
+				probe[i] = slots[i] < 0 ? constants[i] : _values[slots[i]];
+			return probe;
+		}
+		
+		/**
+		 * Constructor. Creates an empty template for a predicate.
+		 *
+		 *	@param _symbol id of the symbol with the name of the predicate.
+		 *	@param _arity number of parameters of the predicate.
+		 */
+		public Template(int _symbol, int _arity) {
+			symbol = _symbol;
+			slots = new int[_arity];
+			constants = new int[_arity];
+			probe = new int[_arity];
+		}
+	}
+	
+	/**
+	 * The action schema.
+	 */
+	private Action schema;
+	
+	/**
+	 * Compiled preconditions of the schema, in the order of declaration.
+	 */
+	private Template[] preconditions;
+	
+	/**
+	 * Compiled positive effects of the schema.
+	 */
+	private Template[] positiveEffects;
+	
+	/**
+	 * Compiled negative effects of the schema.
+	 */
+	private Template[] negativeEffects;
+	
+	/**
+	 * Types of the variables, indexed by slots. Null for variables without
+	 * a type.
+	 */
+	private ObjectType[] types;
+	
+	/**
+	 * Slots of variables that must have values distinct from each variable,
+	 * indexed by slots.
+	 */
+	private int[][] distinct;
+	
+	/**
+	 * Values of the variables, indexed by slots. Unbound variables have value
+	 * <i>SymbolTable.NO_SYMBOL</i>.
+	 */
+	private int[] values;
+	
+	/**
+	 * Trail of slots bound during the search, in the order of binding.
+	 */
+	private int[] trail;
+	
+	/**
+	 * Number of items on the trail.
+	 */
+	private int trailSize;
+	
+	/**
+	 * Flags of preconditions that are matched to facts on the current search
+	 * path.
+	 */
+	private boolean[] matched;
+	
+	/**
+	 * Facts matched to the preconditions on the current search path, in the
+	 * order in which they were matched.
+	 */
+	private Predicate[] fulfillers;
+	
+	/**
+	 * Indices of the facts from <i>fulfillers</i> in the predicate layer.
+	 */
+	private int[] fulfillerIndices;
+	
+	/**
+	 * The predicate layer of the current search.
+	 */
+	private PredicateLayer layer;
+	
+	/**
+	 * Set used to store instances found by the current search.
+	 */
+	private Set<Action> output;
+	
+	/**
+	 * Map of predicate-action dependencies of the current search, or null.
+	 */
+	private Map<Predicate, ActionList> dependencies;
+	
+	/**
+	 * Index of the first candidate of the first matched precondition that is
+	 * used by the current search.
+	 */
+	private int firstFrom;
+	
+	/**
+	 * Index of the first candidate of the first matched precondition after
+	 * the range used by the current search.
+	 */
+	private int firstTo;
+	
+	/**
+	 * Compiles a predicate of the schema.
+	 *
+	 *	@param _predicate the predicate.
+	 *	@param _variables list of variables of the schema, indexed by slots.
+	 *		Variables that are not in the list yet are added to it.
+	 *	@return compiled form of the predicate.
+	 */
+	private static Template compile(Predicate _predicate, ArrayList<ValueBinding> _variables) {
+		Template template = new Template(_predicate.getPredicateSymbol(), _predicate.getParameterCount());
+		for(int i = 0; i < _predicate.getParameterCount(); i++) {
+			ValueBinding parameter = _predicate.getParameter(i);
+			if(parameter.isBound()) {
+				template.slots[i] = -1;
+				template.constants[i] = parameter.getSymbol();
+				continue;
+			}
+			int slot = -1;
+			for(int variable = 0; variable < _variables.size(); variable++)
+				if(_variables.get(variable) == parameter) {
+					slot = variable;
+					break;
+				}
+			if(slot < 0) {
+				slot = _variables.size();
+				_variables.add(parameter);
+			}
+			template.slots[i] = slot;
+			template.constants[i] = SymbolTable.NO_SYMBOL;
+		}
+		return template;
+	}
+	
+	/**
+	 * Compiles a set of predicates of the schema.
+	 *
+	 *	@param _predicates the predicates.
+	 *	@param _variables list of variables of the schema.
+	 *	@return compiled forms of the predicates.
+	 */
+	private static Template[] compile(PredicateSet _predicates, ArrayList<ValueBinding> _variables) {
+		Template[] templates = new Template[_predicates.getPredicateCount()];
+		for(int i = 0; i < templates.length; i++)
+			templates[i] = compile(_predicates.getPredicate(i), _variables);
+		return templates;
+	}
+	
+	/**
+	 * Creates an instance of the action from the current values of the
+	 * variables and adds it to the output.
+	 */
+	private void emit() {
+		PredicateSet instance_preconditions = instantiate(preconditions);
+		PredicateSet instance_negative_effects = instantiate(negativeEffects);
+		PredicateSet instance_positive_effects = instantiate(positiveEffects);
+		Action instance = new Action(schema.getSymbolTable(), schema.getActionSymbol(), instance_preconditions.freeze(),
+				instance_negative_effects.freeze(), instance_positive_effects.freeze());
+		if(!output.contains(instance))
+			output.add(instance);
+		if(dependencies != null) {
+			// mark the instance dependent on its preconditions. This is used
+			// later to recognize mutexes in actions.
+			for(int i = 0; i < preconditions.length; i++) {
+				ActionList list = dependencies.get(fulfillers[i]);
+				if(list == null) {
+					list = new ActionList();
+					dependencies.put(fulfillers[i], list);
+				}
+				list.add(instance);
+			}
+		}
+	}
+	
+	/**
+	 * Finds all instances of the action schema on a predicate layer.
+	 *
+	 *	@param _layer the predicate layer.
+	 *	@param _output set used to store the instances.
+	 *	@param _dependencies map of predicate-action dependencies that is used
+	 *		to map predicates to actions they support, or null.
+	 */
+	public void findInstances(PredicateLayer _layer, Set<Action> _output,
+			Map<Predicate, ActionList> _dependencies) {
+		findInstances(_layer, _output, _dependencies, 0, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Finds instances of the action schema on a predicate layer, where the
+	 * precondition that is matched first is only matched to a range of its
+	 * candidates. The first precondition and its candidates depend only on the
+	 * schema and on the layer, so the ranges split the instances into disjoint
+	 * parts that can be searched independently, each by its own matcher.
+	 *
+	 *	@param _layer the predicate layer.
+	 *	@param _output set used to store the instances.
+	 *	@param _dependencies map of predicate-action dependencies that is used
+	 *		to map predicates to actions they support, or null.
+	 *	@param _from index of the first candidate of the range.
+	 *	@param _to index of the first candidate after the range.
+	 *	@see #getFirstCandidateCount(PredicateLayer)
+	 */
+	public void findInstances(PredicateLayer _layer, Set<Action> _output,
+			Map<Predicate, ActionList> _dependencies, int _from, int _to) {
+		layer = _layer;
+		output = _output;
+		dependencies = _dependencies;
+		firstFrom = _from;
+		firstTo = _to;
+		try {
+			match(0);
+		}
+		finally {
+			rewind(0);
+			Arrays.fill(matched, false);
+			layer = null;
+			output = null;
+			dependencies = null;
+		}
+	}
+	
+	/**
+	 * Returns the number of candidates of the precondition that is matched
+	 * first on a predicate layer.
+	 *
+	 *	@param _layer the predicate layer.
+	 *	@return number of candidates of the first matched precondition. If the
+	 *		schema has no preconditions, returns 1.
+	 *	@see #findInstances(PredicateLayer, Set, Map, int, int)
+	 */
+	public int getFirstCandidateCount(PredicateLayer _layer) {
+		if(preconditions.length == 0)
+			return 1;
+		layer = _layer;
+		try {
+			int first = selectPrecondition();
+			if(first < 0)
+				return 0;
+			Template template = preconditions[first];
+			return layer.getCandidates(template.symbol, template.fillProbe(values)).size();
+		}
+		finally {
+			layer = null;
+		}
+	}
+	
+	/**
+	 * Creates atoms for a set of compiled predicates using the current values
+	 * of the variables.
+	 *
+	 *	@param _templates the compiled predicates.
+	 *	@return set of the atoms.
+	 */
+	private PredicateSet instantiate(Template[] _templates) {
+		PredicateSet result = new PredicateSet();
+		for(Template template : _templates) {
+			int[] parameters = template.fillProbe(values);
+			for(int parameter : parameters)
+				if(parameter == SymbolTable.NO_SYMBOL)
+					throw new IllegalStateException("All variables of action " + schema.getActionName()
+							+ " must appear in its preconditions");
+			result.add(layer.getAtomTable().intern(template.symbol, parameters));
+		}
+		return result;
+	}
+	
+	/**
+	 * Matches the remaining preconditions of the schema. In each step, the
+	 * precondition with the fewest candidate facts under the current bindings
+	 * is matched.
+	 *
+	 *	@param _depth number of preconditions that are already matched.
+	 */
+	private void match(int _depth) {
+		if(_depth == preconditions.length) {
+			emit();
+			return;
+		}
+		
+		int current = selectPrecondition();
+		if(current < 0)
+			return;
+		Template template = preconditions[current];
+		List<Predicate> candidates = layer.getCandidates(template.symbol, template.fillProbe(values));
+		int from = 0;
+		int to = candidates.size();
+		if(_depth == 0) {
+			from = firstFrom;
+			to = Math.min(to, firstTo);
+		}
+		
+		int mark = trailSize;
+		matched[current] = true;
+		candidates:
+		for(int candidate = from; candidate < to; candidate++) {
+			Predicate fact = candidates.get(candidate);
+			if(unify(template, fact)) {
+				int index = layer.getIndex(fact);
+				for(int i = 0; i < _depth; i++)
+					if(layer.isMutex(fulfillerIndices[i], index)) {
+						rewind(mark);
+						continue candidates;
+					}
+				fulfillers[_depth] = fact;
+				fulfillerIndices[_depth] = index;
+				match(_depth + 1);
+			}
+			rewind(mark);
+		}
+		matched[current] = false;
+	}
+	
+	/**
+	 * Selects the precondition that is matched next. This is the unmatched
+	 * precondition with the fewest candidate facts under the current bindings.
+	 *
+	 *	@return index of the precondition, or -1 if some of the unmatched
+	 *		preconditions has no candidates.
+	 */
+	private int selectPrecondition() {
+		int current = -1;
+		int current_size = 0;
+		for(int i = 0; i < preconditions.length; i++) {
+			if(matched[i])
+				continue;
+			Template template = preconditions[i];
+			int size = layer.getCandidates(template.symbol, template.fillProbe(values)).size();
+			if(current < 0 || size < current_size) {
+				current = i;
+				current_size = size;
+				if(size == 0)
+					return -1;
+			}
+		}
+		return current;
+	}
+	
+	/**
+	 * Unbinds variables bound after a given point of the search.
+	 *
+	 *	@param _mark size of the trail at that point.
+	 */
+	private void rewind(int _mark) {
+		while(trailSize > _mark)
+			values[trail[--trailSize]] = SymbolTable.NO_SYMBOL;
+	}
+	
+	/**
+	 * Unifies a compiled predicate with a fact. Variables bound by the
+	 * unification are recorded on the trail; if the unification fails, some
+	 * of them may remain bound and the caller must rewind the trail.
+	 *
+	 *	@param _template the compiled predicate.
+	 *	@param _fact the fact.
+	 *	@return true if the unification succeeded.
+	 */
+	private boolean unify(Template _template, Predicate _fact) {
+		for(int i = 0; i < _template.slots.length; i++) {
+			int value = _fact.getParameter(i).getSymbol();
+			if(value == SymbolTable.NO_SYMBOL)
+				return false;
+			int slot = _template.slots[i];
+			if(slot < 0) {
+				if(_template.constants[i] != value)
+					return false;
+				continue;
+			}
+			if(values[slot] != SymbolTable.NO_SYMBOL) {
+				if(values[slot] != value)
+					return false;
+				continue;
+			}
+			if(types[slot] != null && !types[slot].contains(value))
+				return false;
+			for(int other : distinct[slot])
+				if(values[other] == value)
+					return false;
+			values[slot] = value;
+			trail[trailSize++] = slot;
+		}
+		return true;
+	}
+	
+	/**
+	 * Constructor. Compiles an action schema. Variables of the schema that
+	 * are bound at this time are treated as constants.
+	 *
+	 *	@param _schema the action schema.
+	 */
+	public SchemaMatcher(Action _schema) {
+		schema = _schema;
+		ArrayList<ValueBinding> variables = new ArrayList<ValueBinding>();
+		preconditions = compile(_schema.getPreconditions(), variables);
+		positiveEffects = compile(_schema.getPositiveEffects(), variables);
+		negativeEffects = compile(_schema.getNegativeEffects(), variables);
+		
+		int variable_count = variables.size();
+		types = new ObjectType[variable_count];
+		distinct = new int[variable_count][];
+		for(int slot = 0; slot < variable_count; slot++) {
+			types[slot] = variables.get(slot).getType();
+			int distinct_count = 0;
+			int[] distinct_slots = new int[variable_count];
+			for(int other = 0; other < variable_count; other++)
+				if(other != slot && variables.get(slot).isDistinctFrom(variables.get(other)))
+					distinct_slots[distinct_count++] = other;
+			distinct[slot] = Arrays.copyOf(distinct_slots, distinct_count);
+		}
+		
+		values = new int[variable_count];
+		Arrays.fill(values, SymbolTable.NO_SYMBOL);
+		trail = new int[variable_count];
+		trailSize = 0;
+		matched = new boolean[preconditions.length];
+		fulfillers = new Predicate[preconditions.length];
+		fulfillerIndices = new int[preconditions.length];
+	}
+}
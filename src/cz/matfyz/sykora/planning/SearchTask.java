@@ -0,0 +1,313 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Fork/join task that splits a single extraction of the plan among multiple
+ * threads. A task resolves a set of goals at a layer: it enumerates the
+ * selections of supporters of the goals at the layer, and for each selection,
+ * it creates a subtask for the subgoals at the preceding layer. The subtasks
+ * are forked, so that idle threads can steal them, unless there are already
+ * enough queued tasks; in that case, the subgoals are searched by a
+ * sequential extractor in the current thread.
+ * 
+ * All tasks share the no-good stores of the layers. The goals of a task are
+ * recorded as a no-good once all the selections and their subtasks failed,
+ * so no set of goals is searched again after it failed. Different selections
+ * often lead to the same subgoals; each layer has a memo of the subgoal sets
+ * that were handed to a task, so a repeated subgoal set is not searched again
+ * while its first task is still running. This helps most at
+ * the layers where there is no plan and the whole search space must be
+ * explored; a portfolio of extractors does not help there.
+ * 
+ * The first plan found by any task stops all the others. The planning graph
+ * is only read by the tasks, so it must not be modified until the task
+ * completes.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#setSearchThreadCount(int)
+ *	@see PlanExtractor#startSelections(int, PredicateSet)
+ */
+public class SearchTask extends RecursiveAction {
+	/**
+	 * Version of the serialized form of the task.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Number of queued tasks, above which the subgoals are searched in the
+	 * current thread instead of forking a new task.
+	 */
+	private static final int SURPLUS_LIMIT = 2;
+	
+	/**
+	 * Number of supporters selected by a sequential extractor, after which it
+	 * checks whether a plan was found by another task.
+	 */
+	private static final long TRIAL_SLICE = 4096;
+	
+	/**
+	 * Maximal number of subgoal sets remembered at a single layer.
+	 */
+	private static final int MEMO_CAPACITY = 4096;
+	
+	/**
+	 * The planning graph.
+	 */
+	private PlanningGraph graph;
+	
+	/**
+	 * The shared no-good stores of the layers.
+	 */
+	private List<NoGoodStore> noGoods;
+	
+	/**
+	 * Memos of the subgoal sets handed to tasks, indexed by the layers. They
+	 * are shared by all tasks.
+	 */
+	private List<SubgoalMemo<SearchTask>> memos;
+	
+	/**
+	 * Order in which the goals of a layer are resolved.
+	 */
+	private GoalOrder goalOrder;
+	
+	/**
+	 * Order in which the supporters of a goal are tried.
+	 */
+	private SupporterOrder supporterOrder;
+	
+	/**
+	 * The plan found by some of the tasks, shared by all tasks.
+	 */
+	private AtomicReference<ActionList> plan;
+	
+	/**
+	 * Number of supporters selected by all tasks.
+	 */
+	private AtomicLong supporterTrials;
+	
+	/**
+	 * Number of supporters withdrawn by all tasks.
+	 */
+	private AtomicLong backtrackCount;
+	
+	/**
+	 * Index of the layer of this task.
+	 */
+	private int layer;
+	
+	/**
+	 * The goals resolved by this task.
+	 */
+	private PredicateSet goals;
+	
+	/**
+	 * Actions selected at the following layers, in the order of the plan.
+	 */
+	private ActionList suffix;
+	
+	/**
+	 * Resolves the goals of this task.
+	 */
+	protected void compute() {
+		if(plan.get() != null)
+			return;
+		PlanExtractor selections = createExtractor();
+		selections.startSelections(layer, goals);
+		ArrayList<SearchTask> forked = new ArrayList<SearchTask>();
+		while(plan.get() == null && selections.nextSelection()) {
+			ActionList actions = selections.getSelection();
+			actions.addAll(suffix);
+			if(layer <= 1) {
+				plan.compareAndSet(null, actions);
+				break;
+			}
+			PredicateSet subgoals = selections.getSelectionSubgoals();
+			if(noGoods.get(layer - 1).containsSubsetOf(subgoals))
+				continue;
+			SearchTask subtask = new SearchTask(this, layer - 1, subgoals, actions);
+			// another task already resolves the same subgoals; it either finds
+			// the plan, or the subgoals become a no-good
+			if(memos.get(layer - 1).putIfAbsent(subgoals, subtask) != null)
+				continue;
+			if(getSurplusQueuedTaskCount() < SURPLUS_LIMIT) {
+				subtask.fork();
+				forked.add(subtask);
+			}
+			else
+				subtask.searchSequentially();
+		}
+		addStatistics(selections);
+		for(int i = forked.size() - 1; i >= 0; i--)
+			forked.get(i).join();
+		// all selections were tried and none of them leads to a plan
+		if(plan.get() == null && selections.isFinished())
+			noGoods.get(layer).add(goals);
+	}
+	
+	/**
+	 * Adds the statistics of an extractor to the shared statistics.
+	 * 
+	 *	@param _extractor the extractor.
+	 */
+	private void addStatistics(PlanExtractor _extractor) {
+		supporterTrials.addAndGet(_extractor.getSupporterTrials());
+		backtrackCount.addAndGet(_extractor.getBacktrackCount());
+	}
+	
+	/**
+	 * Creates an extractor with the orders of this task.
+	 * 
+	 *	@return the extractor.
+	 */
+	private PlanExtractor createExtractor() {
+		return new PlanExtractor(graph, noGoods, goalOrder, supporterOrder);
+	}
+	
+	/**
+	 * Returns number of supporters withdrawn by all tasks. This method may
+	 * only be called after the task completes.
+	 * 
+	 *	@return number of the backtracking steps.
+	 */
+	public long getBacktrackCount() {
+		return backtrackCount.get();
+	}
+	
+	/**
+	 * Returns number of subgoal sets that were not searched, because they
+	 * were already handed to another task. This method may only be called
+	 * after the task completes.
+	 * 
+	 *	@return number of the repeated subgoal sets.
+	 */
+	public long getMemoHitCount() {
+		long hits = 0;
+		for(SubgoalMemo<SearchTask> memo : memos)
+			hits += memo.getHitCount();
+		return hits;
+	}
+	
+	/**
+	 * Returns the plan found by the tasks. This method may only be called
+	 * after the task completes.
+	 * 
+	 *	@return the plan, or null if there is no plan.
+	 */
+	public ActionList getPlan() {
+		return plan.get();
+	}
+	
+	/**
+	 * Returns number of supporters selected by all tasks. This method may
+	 * only be called after the task completes.
+	 * 
+	 *	@return number of the selected supporters.
+	 */
+	public long getSupporterTrials() {
+		return supporterTrials.get();
+	}
+	
+	/**
+	 * Resolves the goals of this task by a sequential extractor in the current
+	 * thread. The extractor records the no-goods itself.
+	 */
+	private void searchSequentially() {
+		PlanExtractor extractor = createExtractor();
+		extractor.start(layer, goals);
+		while(!extractor.search(TRIAL_SLICE)) {
+			if(plan.get() != null)
+				break;
+		}
+		addStatistics(extractor);
+		ActionList result = extractor.getPlan();
+		if(result != null) {
+			result.addAll(suffix);
+			plan.compareAndSet(null, result);
+		}
+	}
+	
+	/**
+	 * Constructor. Creates a task that extracts a plan for goals at a layer
+	 * of the graph.
+	 * 
+	 *	@param _graph the planning graph.
+	 *	@param _no_goods no-good combinations of the layers of the graph,
+	 *		indexed by the layers. They are shared by all tasks.
+	 *	@param _goal_order order in which the goals of a layer are resolved.
+	 *	@param _supporter_order order in which the supporters of a goal are
+	 *		tried.
+	 *	@param _layer index of the layer.
+	 *	@param _goals the goals.
+	 */
+	public SearchTask(PlanningGraph _graph, List<NoGoodStore> _no_goods,
+			GoalOrder _goal_order, SupporterOrder _supporter_order,
+			int _layer, PredicateSet _goals) {
+		if(_graph == null)
+			throw new NullPointerException("_graph must not be null");
+		if(_no_goods == null)
+			throw new NullPointerException("_no_goods must not be null");
+		if(_goals == null)
+			throw new NullPointerException("_goals must not be null");
+		graph = _graph;
+		noGoods = _no_goods;
+		memos = new ArrayList<SubgoalMemo<SearchTask>>();
+		for(int i = 0; i <= _layer; i++)
+			memos.add(new SubgoalMemo<SearchTask>(MEMO_CAPACITY));
+		goalOrder = _goal_order;
+		supporterOrder = _supporter_order;
+		plan = new AtomicReference<ActionList>();
+		supporterTrials = new AtomicLong();
+		backtrackCount = new AtomicLong();
+		layer = _layer;
+		goals = _goals;
+		suffix = new ActionList();
+	}
+	
+	/**
+	 * Constructor. Creates a subtask for the subgoals of a selection.
+	 * 
+	 *	@param _parent the task that found the selection.
+	 *	@param _layer index of the layer of the subgoals.
+	 *	@param _goals the subgoals.
+	 *	@param _suffix actions selected at the following layers, in the order
+	 *		of the plan.
+	 */
+	private SearchTask(SearchTask _parent, int _layer, PredicateSet _goals, ActionList _suffix) {
+		graph = _parent.graph;
+		noGoods = _parent.noGoods;
+		memos = _parent.memos;
+		goalOrder = _parent.goalOrder;
+		supporterOrder = _parent.supporterOrder;
+		plan = _parent.plan;
+		supporterTrials = _parent.supporterTrials;
+		backtrackCount = _parent.backtrackCount;
+		layer = _layer;
+		goals = _goals;
+		suffix = _suffix;
+	}
+}
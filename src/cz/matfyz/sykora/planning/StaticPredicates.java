@@ -0,0 +1,144 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.io.Reader;
+import java.util.*;
+
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Static predicates of a planning problem. A predicate is static, if it does
+ * not appear in positive or negative effects of any action; such predicates
+ * describe properties of the problem domain that are never changed (e.g. which
+ * disk is bigger than another one).
+ * 
+ * Static facts from the initial state are stored once in this class instead
+ * of the planning graph. Static preconditions are only evaluated when the
+ * actions are grounded, and they are removed from the grounded actions, so
+ * static facts do not appear in layers, no-op actions, support lists and the
+ * computation of mutexes.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#initialize(Reader)
+ */
+public class StaticPredicates {
+	/**
+	 * Keys of the predicates that appear in effects of some action. Keys are
+	 * created by the method <i>predicateKey</i>.
+	 * 
+	 *	@see #isStatic(Predicate)
+	 */
+	private HashSet<Long> fluentPredicates;
+	
+	/**
+	 * Static facts of the initial state. The predicate layer is used for its
+	 * indices, there are no mutexes between static facts.
+	 * 
+	 *	@see #getFacts()
+	 */
+	private PredicateLayer facts;
+	
+	/**
+	 * Returns the static facts of the initial state.
+	 * 
+	 *	@return the static facts.
+	 */
+	public PredicateLayer getFacts() {
+		return facts;
+	}
+	
+	/**
+	 * Tests whether a predicate is static.
+	 * 
+	 *	@param _predicate the predicate.
+	 *	@return true if predicates with the same name and number of parameters
+	 *		as <i>_predicate</i> are not changed by any action.
+	 */
+	public boolean isStatic(Predicate _predicate) {
+		return !fluentPredicates.contains(predicateKey(_predicate));
+	}
+	
+	/**
+	 * Creates a key for the name and number of parameters of a predicate.
+	 * 
+	 *	@param _predicate the predicate.
+	 *	@return key used in <i>fluentPredicates</i>.
+	 */
+	private static Long predicateKey(Predicate _predicate) {
+		return Long.valueOf(((long)_predicate.getPredicateSymbol() << 32)
+				| (_predicate.getParameterCount() & 0xFFFFFFFFL));
+	}
+	
+	/**
+	 * Removes static preconditions from a grounded action. The static
+	 * preconditions must be verified before (this is done when the action is
+	 * grounded).
+	 * 
+	 *	@param _action the grounded action.
+	 *	@return a new action with the same name and effects as <i>_action</i>
+	 *		and without the static preconditions, or <i>_action</i> itself if it
+	 *		has no static preconditions.
+	 */
+	public Action removeStatic(Action _action) {
+		PredicateSet preconditions = removeStatic(_action.getPreconditions());
+		if(preconditions.getPredicateCount() == _action.getPreconditions().getPredicateCount())
+			return _action;
+		return new Action(_action.getSymbolTable(), _action.getActionSymbol(), preconditions.freeze(),
+				_action.getNegativeEffects(), _action.getPositiveEffects());
+	}
+	
+	/**
+	 * Removes static predicates from a set of predicates.
+	 * 
+	 *	@param _predicates the set of predicates.
+	 *	@return a new set with predicates from <i>_predicates</i> that are not
+	 *		static.
+	 */
+	public PredicateSet removeStatic(PredicateSet _predicates) {
+		PredicateSet result = new PredicateSet();
+		for(Predicate predicate : _predicates)
+			if(!isStatic(predicate))
+				result.add(predicate);
+		return result;
+	}
+	
+	/**
+	 * Constructor. Finds the static predicates of a planning problem.
+	 * 
+	 *	@param _actions list of action schemas of the problem.
+	 *	@param _initial_state facts describing the initial state.
+	 *	@param _atoms the atom table of the planning problem.
+	 */
+	public StaticPredicates(Iterable<Action> _actions, PredicateSet _initial_state, AtomTable _atoms) {
+		fluentPredicates = new HashSet<Long>();
+		for(Action action : _actions) {
+			for(Predicate effect : action.getPositiveEffects())
+				fluentPredicates.add(predicateKey(effect));
+			for(Predicate effect : action.getNegativeEffects())
+				fluentPredicates.add(predicateKey(effect));
+		}
+		
+		facts = new PredicateLayer(_atoms);
+		for(Predicate fact : _initial_state)
+			if(isStatic(fact) && !facts.contains(fact))
+				facts.add(fact);
+	}
+}
@@ -0,0 +1,171 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Bounded memo of goal sets of a single layer of the planning graph. Each goal
+ * set is mapped to a value that describes how the set is resolved, e.g. the
+ * task that searches for its sub-plan. A repeated request for a goal set then
+ * gets the stored value instead of starting the search again.
+ * 
+ * Goal sets are keyed by the sorted arrays of ids of their atoms, so the keys
+ * do not depend on the order in which the goals were collected. When the memo
+ * is full, the least recently used goal set is evicted; an evicted goal set is
+ * only searched again, so the capacity limits the memory, not the results.
+ * 
+ * The memo may be shared by tasks running in parallel; all operations are
+ * exclusive.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see SearchTask
+ */
+public class SubgoalMemo<T> {
+	/**
+	 * The stored goal sets and their values, in the order of their last use.
+	 */
+	private LinkedHashMap<AtomKey, T> entries;
+	
+	/**
+	 * Maximal number of goal sets in the memo.
+	 */
+	private int capacity;
+	
+	/**
+	 * Number of requests that found their goal set in the memo.
+	 */
+	private long hitCount;
+	
+	/**
+	 * Lock guarding the entries and the statistics.
+	 */
+	private Lock lock;
+	
+	/**
+	 * Returns the value stored for a goal set.
+	 * 
+	 *	@param _goals the goal set. All predicates must be grounded.
+	 *	@return the stored value, or null if the goal set is not in the memo.
+	 */
+	public T get(PredicateSet _goals) {
+		AtomKey key = new AtomKey(_goals);
+		lock.lock();
+		try {
+			T value = entries.get(key);
+			if(value != null)
+				hitCount++;
+			return value;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns maximal number of goal sets in the memo.
+	 * 
+	 *	@return the capacity of the memo.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Returns number of requests that found their goal set in the memo.
+	 * 
+	 *	@return number of the hits.
+	 */
+	public long getHitCount() {
+		lock.lock();
+		try {
+			return hitCount;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns number of goal sets in the memo.
+	 * 
+	 *	@return number of the goal sets.
+	 */
+	public int getSize() {
+		lock.lock();
+		try {
+			return entries.size();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Stores a value for a goal set, unless the memo already contains the
+	 * goal set. The test and the store are a single atomic operation, so only
+	 * one of concurrent requests for the same goal set stores its value.
+	 * 
+	 *	@param _goals the goal set. All predicates must be grounded.
+	 *	@param _value the value.
+	 *	@return the value that was already stored for the goal set, or null if
+	 *		<i>_value</i> was stored.
+	 */
+	public T putIfAbsent(PredicateSet _goals, T _value) {
+		if(_value == null)
+			throw new NullPointerException("_value must not be null");
+		AtomKey key = new AtomKey(_goals);
+		lock.lock();
+		try {
+			T value = entries.get(key);
+			if(value != null) {
+				hitCount++;
+				return value;
+			}
+			entries.put(key, _value);
+			return null;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Constructor. Creates an empty memo.
+	 * 
+	 *	@param _capacity maximal number of goal sets in the memo.
+	 *	@throws IllegalArgumentException if <i>_capacity</i> is not positive.
+	 */
+	public SubgoalMemo(int _capacity) {
+		if(_capacity < 1)
+			throw new IllegalArgumentException("_capacity must be positive");
+		capacity = _capacity;
+		entries = new LinkedHashMap<AtomKey, T>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			protected boolean removeEldestEntry(Map.Entry<AtomKey, T> _eldest) {
+				return size() > capacity;
+			}
+		};
+		lock = new ReentrantLock();
+	}
+}
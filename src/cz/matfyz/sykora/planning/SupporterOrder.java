@@ -0,0 +1,58 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning;
+
+/**
+ * Order in which the supporters of a goal are tried during the extraction of
+ * the plan.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningProblem#setSupporterOrder(SupporterOrder)
+ *	@see GoalOrder
+ */
+public enum SupporterOrder {
+	/**
+	 * The actions are tried in the order in which they appeared in the
+	 * planning graph, the no-op is tried last.
+	 */
+	NATURAL,
+	/**
+	 * The no-op is tried first, the actions follow in the order in which they
+	 * appeared in the planning graph. The no-op does not add any new subgoal.
+	 */
+	NO_OP_FIRST,
+	/**
+	 * The supporters are ranked by the sum of the first levels of their
+	 * preconditions; supporters with cheaper preconditions are tried first.
+	 * The cost of the no-op is the first level of its fact.
+	 */
+	LEVEL_COST,
+	/**
+	 * Supporters that also achieve the most of the goals that are not
+	 * resolved yet are tried first.
+	 */
+	GOAL_COVER,
+	/**
+	 * The supporters, including the no-op, are tried in a random order. This
+	 * is used to diversify the extractors of a portfolio.
+	 * 
+	 *	@see PlanExtractor#setSeed(long)
+	 */
+	RANDOM
+}
@@ -1,302 +1,799 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package cz.matfyz.sykora.planning.graph;
-
-import java.util.*;
-
-import cz.matfyz.sykora.planning.*;
-import cz.matfyz.sykora.planning.predicate.Predicate;
-
-/**
- * Action layer in the planning graph.
- * 
- *	@author Ondra Sykora [ondrasej@matfyz.cz]
- */
-public class ActionLayer implements Iterable<Action> {
-	
-	/**
-	 * Helper class used to store (ordered) pairs of actions. This is used to
-	 * represent action mutexes.
-	 *	
-	 *	@see ActionLayer#mutexes
-	 */
-	public static class ActionPair implements Comparable<ActionPair> {
-		/**
-		 * First action in the pair.
-		 *
-		 *	@see #getFirst()
-		 */
-		private Action first;
-		/**
-		 * Second action in the pair.
-		 *
-		 *	@see #getSecond()
-		 */
-		private Action second;
-		
-		/**
-		 * Compares this action with another one.
-		 *
-		 *	@param _next the other action.
-		 *	@return -1 if this action is greater than the other, 0 if they are
-		 *		equal and 1 if this action is lower than the other one.
-		 */
-		public int compareTo(ActionPair _next) {
-			ActionPair next = (ActionPair)_next;
-			int res = getFirst().compareTo(next.getFirst());
-			if(res != 0)
-				return res;
-			return getSecond().compareTo(next.getSecond());
-		}
-		
-		/**
-		 * Returns first action in the pair.
-		 *
-		 *	@return first action in the pair.
-		 */
-		public Action getFirst() {
-			return first;
-		}
-		
-		/**
-		 * Returns second action in the pair.
-		 * 
-		 *	@return second action in the pair.
-		 */
-		public Action getSecond() {
-			return second;
-		}
-		
-		/**
-		 * Reinitializes this pair for new actions. This is used as
-		 * optimization for mutex lookup.
-		 * 
-		 *	@param _first new first action for this pair.
-		 *	@param _second new second action for this pair.
-		 *	@see ActionLayer#isMutex(Action, Action)
-		 */
-		public void reset(Action _first, Action _second) {
-			first = _first;
-			second = _second;
-		}
-		
-		/**
-		 * Converts the action pair to string.
-		 *
-		 *	@return string representation of the action pair.
-		 */
-		public String toString() {
-			return getFirst().toString() + " --- " + second.toString() + "\n";
-		}
-		
-		/**
-		 * Creates a new action pair with specified actions.
-		 *
-		 *	@param _first first action.
-		 *	@param _second second action.
-		 */
-		public ActionPair(Action _first, Action _second) {
-			first = _first;
-			second = _second;
-		}
-	}
-	
-	/**
-	 * List of actions in this layer.
-	 *
-	 *	@see #addAction(Action)
-	 */
-	private ArrayList<Action> actions;
-	/**
-	 * List of action mutexes in this layer.
-	 *
-	 *	@see #addMutex(Action, Action)
-	 *	@see #findMutexActions()
-	 *	@see #getMutexPairs()
-	 *	@see #isMutex(Action, Action)
-	 */
-	private TreeSet<ActionPair> mutexes;
-	
-	/**
-	 * Adds an action to this layer.
-	 *
-	 *	@param _action action that is added to the layer.
-	 */
-	public void addAction(Action _action) {
-		actions.add(_action);
-	}
-	
-	/**
-	 * Adds a mutex between two actions.
-	 * 
-	 * @param _first first action in the mutex.
-	 * @param _second second action in the mutex.
-	 */
-	public void addMutex(Action _first, Action _second) {
-		mutexes.add(new ActionPair(_first, _second));
-	}
-	
-	/**
-	 * Builds predicate layer from (positive) effects of actions in this layer.
-	 *
-	 *	@param _support if non-null, this map is used to store mapping from
-	 *		predicates to actions that support them.
-	 *	@return a new predicate layer based on effects of actions in this
-	 *		layer.
-	 */
-	public PredicateLayer buildPredicateLayer(Map<Predicate, ActionList> _support) {
-		TreeSet<Predicate> predicates = new TreeSet<Predicate>();
-		Map<Predicate, ActionList> support = _support != null ? _support : new TreeMap<Predicate, ActionList>();
-		
-		// find all positive effects of actions in this layer
-		for(Action action : this) {
-			for(Predicate predicate : action.getPositiveEffects()) {
-				if(!predicates.contains(predicate))
-					predicates.add(predicate);
-				ActionList list = support.get(predicate);
-				if(list == null) {
-					list = new ActionList();
-					support.put(predicate, list);
-				}
-				list.add(action);
-			}
-		}
-		
-		PredicateLayer result = new PredicateLayer();
-		for(Predicate predicate : predicates)
-			result.add(predicate);
-		
-		// add mutexes for predicate pairs such that all action pairs that
-		// support them are mutex.
-		for(Predicate first : predicates) {
-			for(Predicate second : predicates) {
-				ActionList actions_first = support.get(first);
-				ActionList actions_second = support.get(second);
-				
-				boolean found_support = false;
-				
-				actions:
-				for(Action first_action : actions_first)
-					for(Action second_action : actions_second) {
-						if(!isMutex(first_action, second_action)) {
-							found_support = true;
-							break actions;
-						}
-					}
-				if(!found_support)
-					result.addMutex(first, second);
-			}
-		}
-		
-		return result;
-	}
-	
-	/**
-	 * Finds actions that are mutex because of their effects and preconditions
-	 * (dependent actions).
-	 */
-	public void findMutexActions() {
-		for(Action first : this) {
-			for(Action second : this) {
-				if(first.equals(second))
-					continue;
-				next_action:
-				for(Predicate predicate_first : first.getNegativeEffects()) {
-					for(Predicate predicate_second : second.getPositiveEffects())
-						if(predicate_first.equals(predicate_second)
-								&& !isMutex(first, second)) {
-							addMutex(first, second);
-							break next_action;
-						}
-					for(Predicate predicate_second : second.getPreconditions()) {
-						if(predicate_first.equals(predicate_second)
-								&& !isMutex(first, second)) {
-							addMutex(first, second);
-							break next_action;
-						}
-					}
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Provides access to list of mutex pairs in this layer.
-	 *
-	 *	@return list of mutex pairs in this layer.
-	 */
-	public Set<ActionPair> getMutexPairs() {
-		return mutexes;
-	}
-	
-	/**
-	 * Initializes internal structures of this class.
-	 */
-	private void initialize() {
-		actions = new ArrayList<Action>();
-		mutexes = new TreeSet<ActionPair>();
-	}
-	
-	private ActionPair isMutexHelperPair = new ActionPair(null, null);
-	
-	/**
-	 * Tests if two of the actions in the layer are muex.
-	 *
-	 *	@param _first first tested action.
-	 *	@param _second second tested action.
-	 *	@return true if the two actions are mutex in this layer.
-	 */
-	public boolean isMutex(Action _first, Action _second) {
-		isMutexHelperPair.reset(_first, _second);
-		if(mutexes.contains(isMutexHelperPair))
-			return true;
-		isMutexHelperPair.reset(_second, _first);
-		return mutexes.contains(isMutexHelperPair);
-//		return mutexes.contains(new ActionPair(_first, _second))
-//			|| mutexes.contains(new ActionPair(_second, _first));
-	}
-	
-	/**
-	 * Returns iterator for all actions in this layer.
-	 *
-	 *	@return iterator for all actions in this layer.
-	 */
-	public Iterator<Action> iterator() {
-		return actions.iterator();
-	}
-	
-	/**
-	 * Constructor. Creates a new empty action layer.
-	 *
-	 */
-	public ActionLayer() {
-		initialize();
-	}
-	
-	/**
-	 * Constructor. Creates a new action layer containing specified actions.
-	 * 
-	 *	@param _actions actions for the new action layer.
-	 */
-	public ActionLayer(Iterable<Action> _actions) {
-		initialize();
-		for(Action action : _actions)
-			addAction(action);
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Action layer in the planning graph.
+ * 
+ * Each action in the layer has a dense index (its position in the layer) and
+ * the action mutexes are stored in a symmetric bit matrix over these indices.
+ * 
+ * No-op actions are not stored in the layer. If the layer was built upon a
+ * predicate layer, each fact of that layer is persisted by an implicit no-op
+ * identified by the index of the fact. Mutexes between the actions and the
+ * no-ops are stored as bit sets of the fact indices; mutexes between two
+ * no-ops are the mutexes of their facts in the predicate layer.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ */
+public class ActionLayer implements Iterable<Action> {
+	
+	/**
+	 * Helper class used to store (ordered) pairs of actions. This is used to
+	 * represent action mutexes.
+	 *	
+	 *	@see ActionLayer#getMutexPairs()
+	 */
+	public static class ActionPair implements Comparable<ActionPair> {
+		/**
+		 * First action in the pair.
+		 *
+		 *	@see #getFirst()
+		 */
+		private Action first;
+		/**
+		 * Second action in the pair.
+		 *
+		 *	@see #getSecond()
+		 */
+		private Action second;
+		
+		/**
+		 * Compares this action with another one.
+		 *
+		 *	@param _next the other action.
+		 *	@return -1 if this action is greater than the other, 0 if they are
+		 *		equal and 1 if this action is lower than the other one.
+		 */
+		public int compareTo(ActionPair _next) {
+			ActionPair next = (ActionPair)_next;
+			int res = getFirst().compareTo(next.getFirst());
+			if(res != 0)
+				return res;
+			return getSecond().compareTo(next.getSecond());
+		}
+		
+		/**
+		 * Returns first action in the pair.
+		 *
+		 *	@return first action in the pair.
+		 */
+		public Action getFirst() {
+			return first;
+		}
+		
+		/**
+		 * Returns second action in the pair.
+		 * 
+		 *	@return second action in the pair.
+		 */
+		public Action getSecond() {
+			return second;
+		}
+		
+		/**
+		 * Reinitializes this pair for new actions. This is used as
+		 * optimization for mutex lookup.
+		 * 
+		 *	@param _first new first action for this pair.
+		 *	@param _second new second action for this pair.
+		 *	@see ActionLayer#isMutex(Action, Action)
+		 */
+		public void reset(Action _first, Action _second) {
+			first = _first;
+			second = _second;
+		}
+		
+		/**
+		 * Converts the action pair to string.
+		 *
+		 *	@return string representation of the action pair.
+		 */
+		public String toString() {
+			return getFirst().toString() + " --- " + second.toString() + "\n";
+		}
+		
+		/**
+		 * Creates a new action pair with specified actions.
+		 *
+		 *	@param _first first action.
+		 *	@param _second second action.
+		 */
+		public ActionPair(Action _first, Action _second) {
+			first = _first;
+			second = _second;
+		}
+	}
+	
+	/**
+	 * Fork/join task that finds predicate mutexes for a range of rows of the
+	 * new predicate layer. Each row is only written by one task, so the tasks
+	 * need no synchronization.
+	 *
+	 *	@see ActionLayer#buildPredicateLayer(Map, PredicateLayer, ForkJoinPool)
+	 */
+	private class PredicateMutexTask extends RecursiveAction {
+		/**
+		 * Version of the serialized form of the task.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Maximal number of rows processed by a single task.
+		 */
+		private static final int LEAF_SIZE = 32;
+		
+		/**
+		 * Indices of supporters of the predicates.
+		 */
+		private int[][] supporters;
+		
+		/**
+		 * Indices of the facts persisted to the predicates by no-ops.
+		 */
+		private int[] noOps;
+		
+		/**
+		 * Rows of the predicate mutexes found by the tasks.
+		 */
+		private BitSet[] result;
+		
+		/**
+		 * Index of the first row processed by this task.
+		 */
+		private int from;
+		
+		/**
+		 * Index of the first row after the rows processed by this task.
+		 */
+		private int to;
+		
+		/**
+		 * Finds the predicate mutexes in the rows of this task, or splits the
+		 * rows between two subtasks.
+		 */
+		protected void compute() {
+			if(to - from <= LEAF_SIZE) {
+				findPredicateMutexes(supporters, noOps, result, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new PredicateMutexTask(supporters, noOps, result, from, middle),
+					new PredicateMutexTask(supporters, noOps, result, middle, to));
+		}
+		
+		/**
+		 * Constructor. Creates a task for a range of rows.
+		 *
+		 *	@param _supporters indices of supporters of the predicates.
+		 *	@param _no_ops indices of the facts persisted by no-ops.
+		 *	@param _result rows of the predicate mutexes.
+		 *	@param _from index of the first row.
+		 *	@param _to index of the first row after the range.
+		 */
+		public PredicateMutexTask(int[][] _supporters, int[] _no_ops, BitSet[] _result,
+				int _from, int _to) {
+			supporters = _supporters;
+			noOps = _no_ops;
+			result = _result;
+			from = _from;
+			to = _to;
+		}
+	}
+	
+	/**
+	 * List of actions in this layer.
+	 *
+	 *	@see #addAction(Action)
+	 */
+	private ArrayList<Action> actions;
+	
+	/**
+	 * Mapping from actions to their indices in this layer.
+	 *
+	 *	@see #getIndex(Action)
+	 */
+	private HashMap<Action, Integer> actionIndices;
+	
+	/**
+	 * The atom table of the planning problem. The facts of the predicate
+	 * layer built upon this layer are atoms from this table.
+	 *
+	 *	@see #buildPredicateLayer(Map, PredicateLayer, ForkJoinPool)
+	 *	@see #findMutexActions()
+	 */
+	private AtomTable atoms;
+	
+	/**
+	 * Action mutexes in this layer, stored as a bit matrix over indices of
+	 * the actions.
+	 *
+	 *	@see #addMutex(Action, Action)
+	 *	@see #findMutexActions()
+	 *	@see #getMutexPairs()
+	 *	@see #isMutex(Action, Action)
+	 */
+	private MutexMatrix mutexes;
+	
+	/**
+	 * The predicate layer upon that this layer was built. Its facts are
+	 * persisted by the implicit no-op actions. Null, if the layer has no
+	 * no-ops.
+	 *
+	 *	@see #getPredicateLayer()
+	 */
+	private PredicateLayer predicateLayer;
+	
+	/**
+	 * Mutexes between the actions and the no-ops, indexed by the indices of
+	 * the actions. Each item is the set of indices of facts whose no-ops are
+	 * mutex with the action, or null if there are no such no-ops.
+	 *
+	 *	@see #findMutexActions()
+	 *	@see #getNoOpMutexRow(int)
+	 */
+	private BitSet[] noOpMutexes;
+	
+	/**
+	 * Mutexes between the no-ops and the actions, indexed by the indices of
+	 * the facts persisted by the no-ops. This is the transposition of
+	 * <i>noOpMutexes</i>.
+	 *
+	 *	@see #getNoOpMutexColumn(int)
+	 */
+	private BitSet[] noOpMutexColumns;
+	
+	/**
+	 * Adds an action to this layer.
+	 *
+	 *	@param _action action that is added to the layer.
+	 */
+	public void addAction(Action _action) {
+		if(!actionIndices.containsKey(_action))
+			actionIndices.put(_action, actions.size());
+		actions.add(_action);
+	}
+	
+	/**
+	 * Adds a mutex between two actions.
+	 * 
+	 * @param _first first action in the mutex.
+	 * @param _second second action in the mutex.
+	 * @throws IllegalArgumentException if any of the actions is not in the
+	 * 		layer.
+	 */
+	public void addMutex(Action _first, Action _second) {
+		int first = getIndex(_first);
+		int second = getIndex(_second);
+		if(first < 0 || second < 0)
+			throw new IllegalArgumentException("Mutexes can only be added between actions in the layer");
+		mutexes.add(first, second);
+	}
+	
+	/**
+	 * Adds a mutex between two actions given by their indices.
+	 * 
+	 *	@param _first index of the first action in the mutex.
+	 *	@param _second index of the second action in the mutex.
+	 */
+	public void addMutex(int _first, int _second) {
+		mutexes.add(_first, _second);
+	}
+	
+	/**
+	 * Adds mutexes between an action and all actions from a set. The action
+	 * is never made mutex with itself.
+	 * 
+	 *	@param _index index of the action.
+	 *	@param _others set of indices of the other actions.
+	 *	@see MutexMatrix#addAll(int, BitSet)
+	 */
+	public void addMutexes(int _index, BitSet _others) {
+		mutexes.addAll(_index, _others);
+	}
+	
+	/**
+	 * Builds predicate layer from (positive) effects of actions in this layer.
+	 *
+	 *	@param _support if non-null, this map is used to store mapping from
+	 *		predicates to actions that support them.
+	 *	@return a new predicate layer based on effects of actions in this
+	 *		layer.
+	 *	@see #buildPredicateLayer(Map, PredicateLayer)
+	 */
+	public PredicateLayer buildPredicateLayer(Map<Predicate, ActionList> _support) {
+		return buildPredicateLayer(_support, null);
+	}
+	
+	/**
+	 * Builds predicate layer from (positive) effects of actions in this layer.
+	 * If the previous predicate layer of the planning graph is given, its
+	 * predicates are placed at the beginning of the new layer in the same
+	 * order, so that they keep their indices.
+	 *
+	 * 
+	 * Facts of the predicate layer upon that this layer was built are
+	 * persisted to the new layer by the no-ops.
+	 *
+	 *	@param _support if non-null, this map is used to store mapping from
+	 *		predicates to actions that support them. The no-ops are not
+	 *		included.
+	 *	@param _previous the previous predicate layer in the planning graph or
+	 *		null.
+	 *	@return a new predicate layer based on effects of actions in this
+	 *		layer.
+	 *	@see PlanningGraph#expand(Iterable)
+	 */
+	public PredicateLayer buildPredicateLayer(Map<Predicate, ActionList> _support,
+			PredicateLayer _previous) {
+		return buildPredicateLayer(_support, _previous, null);
+	}
+	
+	/**
+	 * Builds predicate layer from (positive) effects of actions in this layer.
+	 * The mutexes of the predicates are computed in parallel on a fork/join
+	 * pool; the rows of the mutex matrix are split between the tasks.
+	 *
+	 *	@param _support if non-null, this map is used to store mapping from
+	 *		predicates to actions that support them. The no-ops are not
+	 *		included.
+	 *	@param _previous the previous predicate layer in the planning graph or
+	 *		null.
+	 *	@param _pool the pool used to compute the mutexes, or null if they are
+	 *		computed in the calling thread.
+	 *	@return a new predicate layer based on effects of actions in this
+	 *		layer.
+	 *	@see PlanningGraph#expand(Iterable, ForkJoinPool)
+	 */
+	public PredicateLayer buildPredicateLayer(Map<Predicate, ActionList> _support,
+			PredicateLayer _previous, ForkJoinPool _pool) {
+		LinkedHashSet<Predicate> predicates = new LinkedHashSet<Predicate>();
+		Map<Predicate, ActionList> support = _support != null ? _support : new HashMap<Predicate, ActionList>();
+		
+		// find all positive effects of actions in this layer
+		for(Action action : this) {
+			for(Predicate predicate : action.getPositiveEffects()) {
+				if(!predicates.contains(predicate))
+					predicates.add(predicate);
+				ActionList list = support.get(predicate);
+				if(list == null) {
+					list = new ActionList();
+					support.put(predicate, list);
+				}
+				list.add(action);
+			}
+		}
+		if(predicateLayer != null) {
+			for(Predicate predicate : predicateLayer)
+				if(!predicates.contains(predicate))
+					predicates.add(predicate);
+		}
+		
+		ArrayList<Predicate> ordered_predicates = new ArrayList<Predicate>(predicates.size());
+		if(_previous != null) {
+			for(Predicate predicate : _previous)
+				if(predicates.remove(predicate))
+					ordered_predicates.add(predicate);
+		}
+		ordered_predicates.addAll(predicates);
+		
+		PredicateLayer result = new PredicateLayer(atoms);
+		int[][] supporters = new int[ordered_predicates.size()][];
+		int[] no_ops = new int[ordered_predicates.size()];
+		for(Predicate predicate : ordered_predicates) {
+			ActionList list = support.get(predicate);
+			int[] indices = new int[list != null ? list.size() : 0];
+			for(int i = 0; i < indices.length; i++)
+				indices[i] = getIndex(list.get(i));
+			supporters[result.getPredicateCount()] = indices;
+			no_ops[result.getPredicateCount()] = predicateLayer != null ? predicateLayer.getIndex(predicate) : -1;
+			result.add(predicate);
+		}
+		
+		// add mutexes for predicate pairs such that all action pairs that
+		// support them are mutex.
+		BitSet[] predicate_mutexes = new BitSet[supporters.length];
+		if(_pool != null)
+			_pool.invoke(new PredicateMutexTask(supporters, no_ops, predicate_mutexes, 0, supporters.length));
+		else
+			findPredicateMutexes(supporters, no_ops, predicate_mutexes, 0, supporters.length);
+		for(int first = 0; first < predicate_mutexes.length; first++) {
+			BitSet row = predicate_mutexes[first];
+			if(row == null)
+				continue;
+			for(int second = row.nextSetBit(0); second >= 0; second = row.nextSetBit(second + 1))
+				result.addMutex(first, second);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Finds predicate mutexes in a range of rows of a new predicate layer.
+	 * Two predicates are mutex if every supporter of the first one (including
+	 * its no-op) is mutex with every supporter of the second one. For each
+	 * row, the actions and the no-ops that are mutex with all supporters of
+	 * the predicate are computed as intersections of rows of the mutexes; a
+	 * predicate with higher index is then mutex with the predicate if all its
+	 * supporters are in these intersections. The scan of the supporters stops
+	 * at the first one that is not in the intersection.
+	 *
+	 *	@param _supporters indices of supporters of the predicates.
+	 *	@param _no_ops indices of the facts persisted to the predicates by
+	 *		no-ops, or -1 for predicates without a no-op.
+	 *	@param _result rows of the predicate mutexes. Only rows in the range
+	 *		are written, and only with predicates that have higher indices.
+	 *	@param _from index of the first row.
+	 *	@param _to index of the first row after the range.
+	 */
+	private void findPredicateMutexes(int[][] _supporters, int[] _no_ops, BitSet[] _result,
+			int _from, int _to) {
+		BitSet common_actions = new BitSet(actions.size());
+		BitSet common_no_ops = new BitSet();
+		for(int first = _from; first < _to; first++) {
+			int[] first_supporters = _supporters[first];
+			boolean restricted = false;
+			if(_no_ops[first] >= 0) {
+				restrict(common_actions, getNoOpMutexColumn(_no_ops[first]), restricted);
+				restrict(common_no_ops, predicateLayer.getMutexRow(_no_ops[first]), restricted);
+				restricted = true;
+			}
+			for(int i = 0; i < first_supporters.length; i++) {
+				if(restricted && common_actions.isEmpty() && common_no_ops.isEmpty())
+					break;
+				restrict(common_actions, mutexes.getRow(first_supporters[i]), restricted);
+				restrict(common_no_ops, getNoOpMutexRow(first_supporters[i]), restricted);
+				restricted = true;
+			}
+			if(common_actions.isEmpty() && common_no_ops.isEmpty())
+				continue;
+			
+			second:
+			for(int second = first + 1; second < _supporters.length; second++) {
+				if(_no_ops[second] >= 0 && !common_no_ops.get(_no_ops[second]))
+					continue;
+				for(int action : _supporters[second])
+					if(!common_actions.get(action))
+						continue second;
+				if(_result[first] == null)
+					_result[first] = new BitSet();
+				_result[first].set(second);
+			}
+		}
+	}
+	
+	/**
+	 * Intersects a set with a row of mutexes.
+	 *
+	 *	@param _common the set.
+	 *	@param _row the row, or null if the row is empty.
+	 *	@param _restricted if false, the set is replaced by the row.
+	 */
+	private static void restrict(BitSet _common, BitSet _row, boolean _restricted) {
+		if(_row == null)
+			_common.clear();
+		else if(!_restricted) {
+			_common.clear();
+			_common.or(_row);
+		}
+		else
+			_common.and(_row);
+	}
+	
+	/**
+	 * Finds actions that are mutex because of their effects and preconditions
+	 * (dependent actions). An action that deletes an atom is mutex with all
+	 * actions that add or require this atom.
+	 * 
+	 * The actions are indexed by ids of the atoms they add or require, so
+	 * the mutexes of each deleted atom are added as a single bit set and the
+	 * cost is proportional to the number of the dependencies rather than to
+	 * the square of the number of actions. The index is an array sized by the
+	 * atom table of the problem.
+	 * 
+	 * If the layer has no-ops, also finds mutexes between the actions and the
+	 * no-ops. An action is mutex with the no-op of a fact if it deletes the
+	 * fact or if some of its preconditions is mutex with the fact.
+	 */
+	public void findMutexActions() {
+		BitSet[] users = new BitSet[atoms.getAtomCount()];
+		for(int index = 0; index < actions.size(); index++) {
+			Action action = actions.get(index);
+			users = addUser(users, action.getPreconditions(), index);
+			users = addUser(users, action.getPositiveEffects(), index);
+		}
+		for(int index = 0; index < actions.size(); index++) {
+			for(int atom_id : actions.get(index).getNegativeEffects().freeze().getAtomIds()) {
+				BitSet atom_users = atom_id < users.length ? users[atom_id] : null;
+				if(atom_users != null)
+					mutexes.addAll(index, atom_users);
+			}
+		}
+		if(predicateLayer != null)
+			findNoOpMutexes();
+	}
+	
+	/**
+	 * Finds mutexes between the actions and the no-ops of this layer.
+	 *
+	 *	@see #findMutexActions()
+	 */
+	private void findNoOpMutexes() {
+		noOpMutexes = new BitSet[actions.size()];
+		noOpMutexColumns = new BitSet[predicateLayer.getPredicateCount()];
+		for(int index = 0; index < actions.size(); index++) {
+			Action action = actions.get(index);
+			BitSet row = new BitSet();
+			for(Predicate deleted : action.getNegativeEffects()) {
+				int fact = predicateLayer.getIndex(deleted);
+				if(fact >= 0)
+					row.set(fact);
+			}
+			for(Predicate precondition : action.getPreconditions()) {
+				int fact = predicateLayer.getIndex(precondition);
+				BitSet fact_mutexes = fact >= 0 ? predicateLayer.getMutexRow(fact) : null;
+				if(fact_mutexes != null)
+					row.or(fact_mutexes);
+			}
+			if(row.isEmpty())
+				continue;
+			noOpMutexes[index] = row;
+			for(int fact = row.nextSetBit(0); fact >= 0; fact = row.nextSetBit(fact + 1)) {
+				if(noOpMutexColumns[fact] == null)
+					noOpMutexColumns[fact] = new BitSet();
+				noOpMutexColumns[fact].set(index);
+			}
+		}
+	}
+	
+	/**
+	 * Adds an action to the index of actions that use atoms.
+	 * 
+	 *	@param _users the index; it maps ids of atoms to the sets of indices of
+	 *		actions that add or require the atoms. The item is null for atoms
+	 *		that are not used by the actions of this layer.
+	 *	@param _atoms the atoms used by the action.
+	 *	@param _index index of the action.
+	 *	@return the index; it is a larger copy of <i>_users</i> if the action
+	 *		uses atoms that were added to the atom table after the index was
+	 *		created.
+	 *	@see #findMutexActions()
+	 */
+	private BitSet[] addUser(BitSet[] _users, PredicateSet _atoms, int _index) {
+		for(int atom_id : _atoms.freeze().getAtomIds()) {
+			if(atom_id >= _users.length)
+				_users = Arrays.copyOf(_users, atoms.getAtomCount());
+			if(_users[atom_id] == null)
+				_users[atom_id] = new BitSet();
+			_users[atom_id].set(_index);
+		}
+		return _users;
+	}
+	
+	/**
+	 * Returns action with a given index.
+	 *
+	 *	@param _index index of the action.
+	 *	@return action with index <i>_index</i>.
+	 */
+	public Action getAction(int _index) {
+		return actions.get(_index);
+	}
+	
+	/**
+	 * Returns number of actions in this layer.
+	 *
+	 *	@return number of actions in this layer.
+	 */
+	public int getActionCount() {
+		return actions.size();
+	}
+	
+	/**
+	 * Returns index of an action in this layer.
+	 *
+	 *	@param _action the action.
+	 *	@return index of the action in this layer or -1 if the action is not
+	 *		in the layer.
+	 */
+	public int getIndex(Action _action) {
+		Integer index = actionIndices.get(_action);
+		return index != null ? index : -1;
+	}
+	
+	/**
+	 * Provides access to list of mutex pairs in this layer. The list is
+	 * created from the mutex matrix on each call, each mutex is listed once.
+	 *
+	 *	@return list of mutex pairs in this layer.
+	 */
+	public List<ActionPair> getMutexPairs() {
+		ArrayList<ActionPair> pairs = new ArrayList<ActionPair>(mutexes.getPairCount());
+		for(int first = 0; first < actions.size(); first++) {
+			BitSet row = mutexes.getRow(first);
+			if(row == null)
+				continue;
+			for(int second = row.nextSetBit(first); second >= 0; second = row.nextSetBit(second + 1))
+				pairs.add(new ActionPair(actions.get(first), actions.get(second)));
+		}
+		return pairs;
+	}
+	
+	/**
+	 * Returns set of indices of actions that are mutex with an action. The
+	 * returned bit set must not be modified.
+	 *
+	 *	@param _index index of the action.
+	 *	@return bit set with indices of actions that are mutex with the action
+	 *		<i>_index</i> or null if there are no such actions.
+	 */
+	public BitSet getMutexRow(int _index) {
+		return mutexes.getRow(_index);
+	}
+	
+	/**
+	 * Returns set of indices of actions that are mutex with the no-op of a
+	 * fact. The returned bit set must not be modified.
+	 *
+	 *	@param _fact index of the fact in the predicate layer upon that this
+	 *		layer was built.
+	 *	@return bit set with indices of actions that are mutex with the no-op
+	 *		of the fact, or null if there are no such actions.
+	 */
+	public BitSet getNoOpMutexColumn(int _fact) {
+		if(noOpMutexColumns == null || _fact >= noOpMutexColumns.length)
+			return null;
+		return noOpMutexColumns[_fact];
+	}
+	
+	/**
+	 * Returns set of indices of facts whose no-ops are mutex with an action.
+	 * The returned bit set must not be modified.
+	 *
+	 *	@param _index index of the action.
+	 *	@return bit set with indices of facts in the predicate layer upon that
+	 *		this layer was built, or null if the action is not mutex with any
+	 *		no-op.
+	 */
+	public BitSet getNoOpMutexRow(int _index) {
+		if(noOpMutexes == null || _index >= noOpMutexes.length)
+			return null;
+		return noOpMutexes[_index];
+	}
+	
+	/**
+	 * Returns the predicate layer upon that this layer was built. Each fact
+	 * of this predicate layer is persisted by a no-op of this layer.
+	 *
+	 *	@return the predicate layer, or null if the layer has no no-ops.
+	 */
+	public PredicateLayer getPredicateLayer() {
+		return predicateLayer;
+	}
+	
+	/**
+	 * Initializes internal structures of this class.
+	 */
+	private void initialize() {
+		actions = new ArrayList<Action>();
+		actionIndices = new HashMap<Action, Integer>();
+		mutexes = new MutexMatrix();
+	}
+	
+	/**
+	 * Tests if two of the actions in the layer are muex.
+	 *
+	 *	@param _first first tested action.
+	 *	@param _second second tested action.
+	 *	@return true if the two actions are mutex in this layer.
+	 */
+	public boolean isMutex(Action _first, Action _second) {
+		int first = getIndex(_first);
+		int second = getIndex(_second);
+		if(first < 0 || second < 0)
+			return false;
+		return mutexes.contains(first, second);
+	}
+	
+	/**
+	 * Tests if two actions given by their indices are mutex.
+	 *
+	 *	@param _first index of the first action.
+	 *	@param _second index of the second action.
+	 *	@return true if the two actions are mutex in this layer.
+	 */
+	public boolean isMutex(int _first, int _second) {
+		return mutexes.contains(_first, _second);
+	}
+	
+	/**
+	 * Tests if an action is mutex with any action from a set.
+	 *
+	 *	@param _index index of the action.
+	 *	@param _actions set of indices of the other actions.
+	 *	@return true if the action <i>_index</i> is mutex with at least one
+	 *		action from <i>_actions</i>.
+	 */
+	public boolean isMutexWithAny(int _index, BitSet _actions) {
+		return mutexes.intersects(_index, _actions);
+	}
+	
+	/**
+	 * Tests if an action is mutex with the no-op of a fact.
+	 *
+	 *	@param _index index of the action.
+	 *	@param _fact index of the fact in the predicate layer upon that this
+	 *		layer was built.
+	 *	@return true if the action and the no-op are mutex in this layer.
+	 */
+	public boolean isNoOpMutex(int _index, int _fact) {
+		BitSet row = getNoOpMutexRow(_index);
+		return row != null && row.get(_fact);
+	}
+	
+	/**
+	 * Returns iterator for all actions in this layer.
+	 *
+	 *	@return iterator for all actions in this layer.
+	 */
+	public Iterator<Action> iterator() {
+		return actions.iterator();
+	}
+	
+	/**
+	 * Constructor. Creates a new empty action layer.
+	 *
+	 *	@param _atoms the atom table of the planning problem.
+	 */
+	public ActionLayer(AtomTable _atoms) {
+		initialize();
+		atoms = _atoms;
+	}
+	
+	/**
+	 * Constructor. Creates a new empty action layer with no-ops for facts of
+	 * a predicate layer.
+	 * 
+	 *	@param _predicates the predicate layer upon that the layer is built.
+	 */
+	public ActionLayer(PredicateLayer _predicates) {
+		initialize();
+		predicateLayer = _predicates;
+		atoms = _predicates.getAtomTable();
+	}
+	
+	/**
+	 * Constructor. Creates a new action layer containing specified actions.
+	 * 
+	 *	@param _actions actions for the new action layer.
+	 *	@param _atoms the atom table of the planning problem.
+	 */
+	public ActionLayer(Iterable<Action> _actions, AtomTable _atoms) {
+		initialize();
+		atoms = _atoms;
+		for(Action action : _actions)
+			addAction(action);
+	}
+}
@@ -0,0 +1,251 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Fork/join task that finds instances of a list of actions on a predicate
+ * layer. The list is split into halves until each part contains a single
+ * action schema or a small number of grounded actions. Instances of a single
+ * schema are further split by ranges of candidate facts for the precondition
+ * that is matched first.
+ * 
+ * Each task collects the instances and the predicate-action dependencies in
+ * its own collections, and a task merges the results of its subtasks in the
+ * order of the subtasks. The results are therefore the same as the results
+ * of the sequential instantiation, independently of the scheduling of the
+ * tasks.
+ * 
+ * The predicate layer is only read by the tasks, so it must not be modified
+ * until the task completes.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PredicateLayer#buildActionLayer(Iterable, ActionLayer, ForkJoinPool)
+ *	@see SchemaMatcher#findInstances(PredicateLayer, Set, Map, int, int)
+ */
+public class InstantiationTask extends RecursiveAction {
+	/**
+	 * Version of the serialized form of the task.
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Maximal number of grounded actions that are tested by a single task.
+	 */
+	private static final int GROUND_LEAF_SIZE = 256;
+	
+	/**
+	 * Maximal number of candidates of the first precondition of an action
+	 * schema that are tried by a single task.
+	 */
+	private static final int CANDIDATE_LEAF_SIZE = 32;
+	
+	/**
+	 * List of all actions that are instantiated.
+	 */
+	private List<Action> actions;
+	
+	/**
+	 * Index of the first action instantiated by this task.
+	 */
+	private int from;
+	
+	/**
+	 * Index of the first action after the actions instantiated by this task.
+	 */
+	private int to;
+	
+	/**
+	 * Index of the first candidate of the first precondition, if this task
+	 * only instantiates a part of a single action schema. Otherwise, it is
+	 * set to -1.
+	 */
+	private int candidateFrom;
+	
+	/**
+	 * Index of the first candidate after the candidates tried by this task,
+	 * if this task only instantiates a part of a single action schema.
+	 */
+	private int candidateTo;
+	
+	/**
+	 * The predicate layer on that the actions are instantiated.
+	 */
+	private PredicateLayer layer;
+	
+	/**
+	 * Instances found by this task.
+	 */
+	private TreeSet<Action> instances;
+	
+	/**
+	 * Predicate-action dependencies of the instances found by this task, or
+	 * null if the dependencies are not collected.
+	 */
+	private HashMap<Predicate, ActionList> dependencies;
+	
+	/**
+	 * Instantiates the actions of this task. If there are too many of them,
+	 * the work is split between two subtasks.
+	 */
+	protected void compute() {
+		int count = to - from;
+		if(count > 1 && (count > GROUND_LEAF_SIZE || containsSchema())) {
+			int middle = (from + to) >>> 1;
+			InstantiationTask left = new InstantiationTask(this, from, middle, -1, -1);
+			InstantiationTask right = new InstantiationTask(this, middle, to, -1, -1);
+			invokeAll(left, right);
+			merge(left);
+			merge(right);
+			return;
+		}
+		if(count == 1 && !actions.get(from).isGrounded()) {
+			instantiateSchema(actions.get(from));
+			return;
+		}
+		for(int i = from; i < to; i++)
+			actions.get(i).findPossibleInstances(layer, instances, dependencies);
+	}
+	
+	/**
+	 * Tests if there is an action schema among actions of this task.
+	 * 
+	 *	@return true if some of the actions of this task is not grounded.
+	 */
+	private boolean containsSchema() {
+		for(int i = from; i < to; i++)
+			if(!actions.get(i).isGrounded())
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Returns predicate-action dependencies of the instances. Each predicate
+	 * is mapped to the list of instances that have it among preconditions.
+	 * 
+	 *	@return the dependencies, or null if they were not collected.
+	 */
+	public HashMap<Predicate, ActionList> getDependencies() {
+		return dependencies;
+	}
+	
+	/**
+	 * Returns the instances found by this task.
+	 * 
+	 *	@return set of the instances.
+	 */
+	public TreeSet<Action> getInstances() {
+		return instances;
+	}
+	
+	/**
+	 * Finds instances of a single action schema. The candidates of the first
+	 * precondition of the schema are split between two subtasks, if there are
+	 * too many of them. Each task uses its own matcher, because the matchers
+	 * keep the state of the search.
+	 * 
+	 *	@param _schema the action schema.
+	 */
+	private void instantiateSchema(Action _schema) {
+		SchemaMatcher matcher = new SchemaMatcher(_schema);
+		if(candidateFrom < 0) {
+			candidateFrom = 0;
+			candidateTo = matcher.getFirstCandidateCount(layer);
+		}
+		if(candidateTo - candidateFrom > CANDIDATE_LEAF_SIZE) {
+			int middle = (candidateFrom + candidateTo) >>> 1;
+			InstantiationTask left = new InstantiationTask(this, from, to, candidateFrom, middle);
+			InstantiationTask right = new InstantiationTask(this, from, to, middle, candidateTo);
+			invokeAll(left, right);
+			merge(left);
+			merge(right);
+			return;
+		}
+		matcher.findInstances(layer, instances, dependencies, candidateFrom, candidateTo);
+	}
+	
+	/**
+	 * Adds results of a subtask to the results of this task.
+	 * 
+	 *	@param _subtask the subtask.
+	 */
+	private void merge(InstantiationTask _subtask) {
+		instances.addAll(_subtask.instances);
+		if(dependencies == null)
+			return;
+		for(Map.Entry<Predicate, ActionList> entry : _subtask.dependencies.entrySet()) {
+			ActionList list = dependencies.get(entry.getKey());
+			if(list == null)
+				dependencies.put(entry.getKey(), entry.getValue());
+			else
+				list.addAll(entry.getValue());
+		}
+	}
+	
+	/**
+	 * Constructor. Creates a task that instantiates a list of actions.
+	 * 
+	 *	@param _actions the actions (either grounded actions or action
+	 *		schemas).
+	 *	@param _layer the predicate layer on that the actions are instantiated.
+	 *	@param _dependencies if true, the task also collects the
+	 *		predicate-action dependencies of the instances.
+	 */
+	public InstantiationTask(Iterable<Action> _actions, PredicateLayer _layer, boolean _dependencies) {
+		actions = new ArrayList<Action>();
+		for(Action action : _actions)
+			actions.add(action);
+		from = 0;
+		to = actions.size();
+		candidateFrom = -1;
+		candidateTo = -1;
+		layer = _layer;
+		instances = new TreeSet<Action>();
+		if(_dependencies)
+			dependencies = new HashMap<Predicate, ActionList>();
+	}
+	
+	/**
+	 * Constructor. Creates a subtask of a task.
+	 * 
+	 *	@param _parent the parent task.
+	 *	@param _from index of the first action of the subtask.
+	 *	@param _to index of the first action after the actions of the subtask.
+	 *	@param _candidate_from index of the first candidate of the first
+	 *		precondition, or -1 if all candidates are used.
+	 *	@param _candidate_to index of the first candidate after the range.
+	 */
+	private InstantiationTask(InstantiationTask _parent, int _from, int _to,
+			int _candidate_from, int _candidate_to) {
+		actions = _parent.actions;
+		from = _from;
+		to = _to;
+		candidateFrom = _candidate_from;
+		candidateTo = _candidate_to;
+		layer = _parent.layer;
+		instances = new TreeSet<Action>();
+		if(_parent.dependencies != null)
+			dependencies = new HashMap<Predicate, ActionList>();
+	}
+}
@@ -0,0 +1,190 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.graph;
+
+import java.util.*;
+
+/**
+ * Record of mutexes that disappeared from the planning graph. For each pair
+ * of items (facts or actions) that were mutex at some level and are not mutex
+ * at the last level of the graph, it stores the last level at which the pair
+ * was still mutex.
+ * 
+ * Mutexes in the planning graph only disappear as the graph grows, so the
+ * mutexes of the last level together with this record describe mutexes at
+ * all levels of the graph.
+ * 
+ * Each row of the record is a small open-addressing hash table that maps
+ * indices of the other items to the levels.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PlanningGraph
+ */
+public class MutexHistory {
+	/**
+	 * Keys of the hash tables of the rows. The keys are indices of the other
+	 * items increased by one, zero marks an empty slot.
+	 */
+	private int[][] keys;
+	
+	/**
+	 * Values of the hash tables of the rows - the last levels at which the
+	 * pairs were mutex.
+	 */
+	private int[][] levels;
+	
+	/**
+	 * Number of entries in each of the rows.
+	 */
+	private int[] sizes;
+	
+	/**
+	 * Adds to a bit set the items that were mutex with an item at a given
+	 * level or later, i.e. the items whose last recorded mutex level with the
+	 * item is at least <i>_level</i>.
+	 *
+	 *	@param _item index of the item.
+	 *	@param _level the level.
+	 *	@param _result the bit set, where the indices of the items are added.
+	 */
+	public void collectMutexes(int _item, int _level, BitSet _result) {
+		if(_item >= keys.length || keys[_item] == null)
+			return;
+		int[] row_keys = keys[_item];
+		int[] row_levels = levels[_item];
+		for(int slot = 0; slot < row_keys.length; slot++)
+			if(row_keys[slot] != 0 && row_levels[slot] >= _level)
+				_result.set(row_keys[slot] - 1);
+	}
+	
+	/**
+	 * Returns the last level at which two items were mutex.
+	 *
+	 *	@param _first index of the first item.
+	 *	@param _second index of the second item.
+	 *	@return the last level at which the items were mutex or -1 if there is
+	 *		no record for the pair.
+	 */
+	public int getLastLevel(int _first, int _second) {
+		if(_first >= keys.length)
+			return -1;
+		int[] row_keys = keys[_first];
+		if(row_keys == null)
+			return -1;
+		int mask = row_keys.length - 1;
+		int key = _second + 1;
+		for(int slot = hash(key) & mask; row_keys[slot] != 0; slot = (slot + 1) & mask)
+			if(row_keys[slot] == key)
+				return levels[_first][slot];
+		return -1;
+	}
+	
+	/**
+	 * Scrambles bits of a key before it is used as an index to a hash table.
+	 *
+	 *	@param _key the key.
+	 *	@return hash of the key.
+	 */
+	private static int hash(int _key) {
+		int h = _key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Records that two items were mutex for the last time at a given level.
+	 * The record is symmetric.
+	 *
+	 *	@param _first index of the first item.
+	 *	@param _second index of the second item.
+	 *	@param _level the last level at which the items were mutex.
+	 */
+	public void record(int _first, int _second, int _level) {
+		put(_first, _second, _level);
+		if(_first != _second)
+			put(_second, _first, _level);
+	}
+	
+	/**
+	 * Inserts a single entry to a row of the record.
+	 *
+	 *	@param _row index of the row.
+	 *	@param _other index of the other item.
+	 *	@param _level the level stored for the pair.
+	 */
+	private void put(int _row, int _other, int _level) {
+		if(_row >= keys.length) {
+			int new_length = Math.max(_row + 1, 2 * keys.length);
+			keys = Arrays.copyOf(keys, new_length);
+			levels = Arrays.copyOf(levels, new_length);
+			sizes = Arrays.copyOf(sizes, new_length);
+		}
+		if(keys[_row] == null) {
+			keys[_row] = new int[4];
+			levels[_row] = new int[4];
+		}
+		else if(2 * (sizes[_row] + 1) > keys[_row].length)
+			rehash(_row, 2 * keys[_row].length);
+		
+		int[] row_keys = keys[_row];
+		int mask = row_keys.length - 1;
+		int key = _other + 1;
+		int slot = hash(key) & mask;
+		while(row_keys[slot] != 0 && row_keys[slot] != key)
+			slot = (slot + 1) & mask;
+		if(row_keys[slot] == 0) {
+			row_keys[slot] = key;
+			sizes[_row]++;
+		}
+		levels[_row][slot] = _level;
+	}
+	
+	/**
+	 * Moves a row of the record to a bigger hash table.
+	 *
+	 *	@param _row index of the row.
+	 *	@param _capacity new capacity of the row, a power of two.
+	 */
+	private void rehash(int _row, int _capacity) {
+		int[] old_keys = keys[_row];
+		int[] old_levels = levels[_row];
+		int[] new_keys = new int[_capacity];
+		int[] new_levels = new int[_capacity];
+		int mask = _capacity - 1;
+		for(int i = 0; i < old_keys.length; i++) {
+			if(old_keys[i] == 0)
+				continue;
+			int slot = hash(old_keys[i]) & mask;
+			while(new_keys[slot] != 0)
+				slot = (slot + 1) & mask;
+			new_keys[slot] = old_keys[i];
+			new_levels[slot] = old_levels[i];
+		}
+		keys[_row] = new_keys;
+		levels[_row] = new_levels;
+	}
+	
+	/**
+	 * Constructor. Creates an empty record.
+	 */
+	public MutexHistory() {
+		keys = new int[0][];
+		levels = new int[0][];
+		sizes = new int[0];
+	}
+}
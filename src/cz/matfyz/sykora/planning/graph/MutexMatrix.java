@@ -0,0 +1,241 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.graph;
+
+import java.util.*;
+
+/**
+ * Symmetric bit matrix used to store mutexes between items of a layer in the
+ * planning graph. The items are identified by their (dense) indices in the
+ * layer.
+ * 
+ * Each row of the matrix is a bit set that is allocated only when the first
+ * mutex is added to the row, so rows of items without mutexes take no
+ * memory. Both halves of the matrix are stored, so that a whole row can be
+ * used in bulk operations.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PredicateLayer
+ */
+public class MutexMatrix {
+	/**
+	 * Rows of the matrix. Rows that do not contain any mutex are set to null.
+	 *
+	 *	@see #getRow(int)
+	 */
+	private BitSet[] rows;
+	
+	/**
+	 * Number of (unordered) pairs in the matrix.
+	 *
+	 *	@see #getPairCount()
+	 */
+	private int pairCount;
+	
+	/**
+	 * Adds a mutex between two items. Mutexes are symmetric, so the order of
+	 * the items does not matter.
+	 *
+	 *	@param _first index of the first item.
+	 *	@param _second index of the second item.
+	 *	@return true if the mutex was added, false if the items were already
+	 *		mutex.
+	 */
+	public boolean add(int _first, int _second) {
+		if(contains(_first, _second))
+			return false;
+		getOrCreateRow(_first).set(_second);
+		getOrCreateRow(_second).set(_first);
+		pairCount++;
+		return true;
+	}
+	
+	/**
+	 * Adds mutexes between an item and all items from a set. The item itself
+	 * is skipped if it is in the set. The cost is proportional to the number
+	 * of mutexes that are new in the matrix.
+	 *
+	 *	@param _index index of the item.
+	 *	@param _items set of indices of the other items.
+	 *	@return number of mutexes that were added.
+	 */
+	public int addAll(int _index, BitSet _items) {
+		BitSet row = getOrCreateRow(_index);
+		int added = 0;
+		for(int item = _items.nextSetBit(0); item >= 0; item = _items.nextSetBit(item + 1)) {
+			if(item == _index || row.get(item))
+				continue;
+			row.set(item);
+			getOrCreateRow(item).set(_index);
+			added++;
+		}
+		pairCount += added;
+		return added;
+	}
+	
+	/**
+	 * Tests if there is a mutex between two items.
+	 *
+	 *	@param _first index of the first item.
+	 *	@param _second index of the second item.
+	 *	@return true if the items are mutex, false otherwise.
+	 */
+	public boolean contains(int _first, int _second) {
+		if(_first >= rows.length)
+			return false;
+		BitSet row = rows[_first];
+		return row != null && row.get(_second);
+	}
+	
+	/**
+	 * Tests two matrices for equality. The matrices are equal if they contain
+	 * mutexes between the same pairs of indices.
+	 *
+	 *	@param _other the other matrix.
+	 *	@return true if the matrices are equal, false otherwise.
+	 */
+	public boolean equals(Object _other) {
+		if(!(_other instanceof MutexMatrix))
+			return false;
+		MutexMatrix other = (MutexMatrix)_other;
+		if(pairCount != other.pairCount)
+			return false;
+		int row_count = Math.max(rows.length, other.rows.length);
+		for(int row = 0; row < row_count; row++) {
+			BitSet first = row < rows.length ? rows[row] : null;
+			BitSet second = row < other.rows.length ? other.rows[row] : null;
+			boolean first_empty = first == null || first.isEmpty();
+			boolean second_empty = second == null || second.isEmpty();
+			if(first_empty != second_empty)
+				return false;
+			if(!first_empty && !first.equals(second))
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns number of (unordered) pairs of items that are mutex.
+	 *
+	 *	@return number of mutex pairs.
+	 */
+	public int getPairCount() {
+		return pairCount;
+	}
+	
+	/**
+	 * Returns a row of the matrix. The returned bit set must not be modified.
+	 *
+	 *	@param _index index of the item.
+	 *	@return bit set with indices of items that are mutex with the item
+	 *		<i>_index</i>, or null if there is no such item.
+	 */
+	public BitSet getRow(int _index) {
+		if(_index >= rows.length)
+			return null;
+		return rows[_index];
+	}
+	
+	/**
+	 * Returns a row of the matrix, creating it if it does not exist yet.
+	 *
+	 *	@param _index index of the item.
+	 *	@return the row for the item <i>_index</i>.
+	 */
+	private BitSet getOrCreateRow(int _index) {
+		if(_index >= rows.length)
+			rows = Arrays.copyOf(rows, Math.max(_index + 1, 2 * rows.length));
+		BitSet row = rows[_index];
+		if(row == null) {
+			row = new BitSet();
+			rows[_index] = row;
+		}
+		return row;
+	}
+	
+	/**
+	 * Returns hash code of the matrix.
+	 *
+	 *	@return hash code of the matrix.
+	 */
+	public int hashCode() {
+		return pairCount;
+	}
+	
+	/**
+	 * Tests if an item is mutex with any item from a set.
+	 *
+	 *	@param _index index of the item.
+	 *	@param _items set of indices of the other items.
+	 *	@return true if the item <i>_index</i> is mutex with at least one item
+	 *		from <i>_items</i>.
+	 */
+	public boolean intersects(int _index, BitSet _items) {
+		BitSet row = getRow(_index);
+		return row != null && row.intersects(_items);
+	}
+	
+	/**
+	 * Removes an item from the matrix together with all its mutexes. Items
+	 * with higher indices are moved to the previous index, so that the
+	 * matrix follows removal of an item from the (dense) list of items in
+	 * the layer.
+	 *
+	 *	@param _index index of the removed item.
+	 */
+	public void remove(int _index) {
+		BitSet removed = getRow(_index);
+		if(removed != null) {
+			for(int item = removed.nextSetBit(0); item >= 0; item = removed.nextSetBit(item + 1))
+				if(item != _index)
+					rows[item].clear(_index);
+			pairCount -= removed.cardinality();
+		}
+		if(_index < rows.length) {
+			System.arraycopy(rows, _index + 1, rows, _index, rows.length - _index - 1);
+			rows[rows.length - 1] = null;
+		}
+		for(BitSet row : rows) {
+			if(row == null || row.length() <= _index)
+				continue;
+			// move the bits above the removed item one position down
+			BitSet shifted = row.get(_index + 1, row.length());
+			row.clear(_index, row.length());
+			for(int item = shifted.nextSetBit(0); item >= 0; item = shifted.nextSetBit(item + 1))
+				row.set(_index + item);
+		}
+	}
+	
+	/**
+	 * Constructor. Creates an empty matrix.
+	 */
+	public MutexMatrix() {
+		rows = new BitSet[0];
+	}
+	
+	/**
+	 * Constructor. Creates an empty matrix with space for a given number of
+	 * rows.
+	 *
+	 *	@param _size expected number of items.
+	 */
+	public MutexMatrix(int _size) {
+		rows = new BitSet[_size];
+	}
+}
@@ -0,0 +1,729 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Levelled representation of the planning graph. Instead of keeping a copy of
+ * all facts, actions and mutexes for each level, the graph only keeps the last
+ * predicate and action layers. Facts and actions keep their indices as the
+ * graph grows and for each of them, the graph records the first level at which
+ * it appeared. Mutexes only disappear as the graph grows, so for each pair of
+ * items that stopped being mutex, the last level at which the pair was mutex
+ * is recorded in a <i>MutexHistory</i>.
+ * 
+ * Levels are numbered from zero. Predicate level 0 contains the initial state,
+ * action level <i>k</i> contains the actions whose effects form predicate
+ * level <i>k</i>. Action level 0 is empty.
+ * 
+ * No-op actions are implicit. The no-op of a fact is at every action level
+ * after the first level of the fact, and its mutexes are derived from the
+ * fact mutexes of the preceding predicate level.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see MutexHistory
+ */
+public class PlanningGraph {
+	/**
+	 * The last predicate layer of the graph.
+	 * 
+	 *	@see #getLastPredicateLayer()
+	 */
+	private PredicateLayer lastPredicates;
+	
+	/**
+	 * The last action layer of the graph. Null, if the graph was not expanded
+	 * yet.
+	 * 
+	 *	@see #getLastActionLayer()
+	 */
+	private ActionLayer lastActions;
+	
+	/**
+	 * Index of the last level of the graph.
+	 * 
+	 *	@see #getLastLevel()
+	 */
+	private int lastLevel;
+	
+	/**
+	 * First levels of facts in the graph, indexed by the indices of the facts.
+	 * 
+	 *	@see #getFactLevel(int)
+	 */
+	private int[] factLevels;
+	
+	/**
+	 * First levels of actions in the graph, indexed by the indices of the
+	 * actions.
+	 * 
+	 *	@see #getActionLevel(int)
+	 */
+	private int[] actionLevels;
+	
+	/**
+	 * Number of facts at each level of the graph.
+	 * 
+	 *	@see #getFactCount(int)
+	 */
+	private int[] factCounts;
+	
+	/**
+	 * Number of actions at each level of the graph.
+	 * 
+	 *	@see #getActionCount(int)
+	 */
+	private int[] actionCounts;
+	
+	/**
+	 * Indices of actions that have a fact as a positive effect, indexed by the
+	 * indices of the facts. Actions are appended as they appear in the graph,
+	 * so each list is sorted by the first levels of the actions.
+	 * 
+	 *	@see #getSupporter(int, int)
+	 *	@see #getSupporterCount(int, int)
+	 */
+	private int[][] supporters;
+	
+	/**
+	 * Number of used items in the lists in <i>supporters</i>.
+	 */
+	private int[] supporterCounts;
+	
+	/**
+	 * Indices of the preconditions of actions, indexed by the indices of the
+	 * actions. These are used to derive mutexes between actions and no-ops.
+	 * 
+	 *	@see #isNoOpMutex(int, int, int)
+	 */
+	private int[][] actionPreconditions;
+	
+	/**
+	 * Sorted indices of the positive effects of actions, indexed by the
+	 * indices of the actions.
+	 * 
+	 *	@see #getActionEffects(int)
+	 */
+	private int[][] actionEffects;
+	
+	/**
+	 * Sums of the first levels of preconditions of actions, indexed by the
+	 * indices of the actions.
+	 * 
+	 *	@see #getActionCost(int)
+	 */
+	private int[] actionCosts;
+	
+	/**
+	 * Cache of the action mutex rows at the levels of the graph, indexed by
+	 * the levels and the indices of the actions. Mutexes at a level do not
+	 * change as the graph grows, so the rows are computed once. The array of
+	 * a level is created when the level is added to the graph, and the rows
+	 * are filled in lazily; the atomic arrays let multiple threads extract
+	 * plans from the graph at once.
+	 * 
+	 *	@see #getActionMutexRow(int, int)
+	 */
+	private ArrayList<AtomicReferenceArray<BitSet>> actionMutexRows;
+	
+	/**
+	 * Cache of the sets of actions mutex with the no-ops at the levels of the
+	 * graph, indexed by the levels and the indices of the facts.
+	 * 
+	 *	@see #getNoOpMutexColumn(int, int)
+	 */
+	private ArrayList<AtomicReferenceArray<BitSet>> noOpMutexColumns;
+	
+	/**
+	 * Record of mutexes between facts that disappeared from the graph.
+	 */
+	private MutexHistory factMutexHistory;
+	
+	/**
+	 * Record of mutexes between actions that disappeared from the graph.
+	 */
+	private MutexHistory actionMutexHistory;
+	
+	/**
+	 * Number of facts that were added to the graph by the last expansion.
+	 * 
+	 *	@see #getAddedFactCount()
+	 *	@see #isLevelledOff()
+	 */
+	private int addedFactCount;
+	
+	/**
+	 * Number of fact mutexes that were removed from the graph by the last
+	 * expansion.
+	 * 
+	 *	@see #getRemovedFactMutexCount()
+	 *	@see #isLevelledOff()
+	 */
+	private int removedFactMutexCount;
+	
+	/**
+	 * Adds an action to the list of supporters of a fact.
+	 *
+	 *	@param _fact index of the fact.
+	 *	@param _action index of the action.
+	 */
+	private void addSupporter(int _fact, int _action) {
+		if(_fact >= supporters.length) {
+			int new_length = Math.max(_fact + 1, 2 * supporters.length);
+			supporters = Arrays.copyOf(supporters, new_length);
+			supporterCounts = Arrays.copyOf(supporterCounts, new_length);
+		}
+		int[] list = supporters[_fact];
+		if(list == null)
+			list = supporters[_fact] = new int[4];
+		else if(supporterCounts[_fact] == list.length)
+			list = supporters[_fact] = Arrays.copyOf(list, 2 * list.length);
+		list[supporterCounts[_fact]++] = _action;
+	}
+	
+	/**
+	 * Tests whether a set of facts is present at a level of the graph and
+	 * there are no mutexes among them at this level.
+	 *
+	 *	@param _facts the tested set of facts.
+	 *	@param _level the level of the graph.
+	 *	@return true if all facts from <i>_facts</i> are present at level
+	 *		<i>_level</i> and no two of them are mutex.
+	 */
+	public boolean containsFacts(PredicateSet _facts, int _level) {
+		if(_level == lastLevel)
+			return lastPredicates.contains(_facts);
+		int[] indices = new int[_facts.getPredicateCount()];
+		for(int i = 0; i < indices.length; i++) {
+			indices[i] = lastPredicates.getIndex(_facts.getPredicate(i));
+			if(indices[i] < 0 || factLevels[indices[i]] > _level)
+				return false;
+		}
+		for(int i = 0; i < indices.length; i++)
+			for(int j = i; j < indices.length; j++)
+				if(isFactMutex(indices[i], indices[j], _level))
+					return false;
+		return true;
+	}
+	
+	/**
+	 * Expands the graph by one level. Builds a new action layer upon the last
+	 * predicate layer and a new predicate layer from effects of its actions.
+	 *
+	 *	@param _actions list of action schemas from that action instances are
+	 *		generated.
+	 */
+	public void expand(Iterable<Action> _actions) {
+		expand(_actions, null);
+	}
+	
+	/**
+	 * Expands the graph by one level. The actions of the new action layer are
+	 * instantiated and the mutexes of the new predicate layer are computed in
+	 * parallel on a fork/join pool.
+	 *
+	 *	@param _actions list of action schemas from that action instances are
+	 *		generated.
+	 *	@param _pool the pool used to instantiate the actions, or null if the
+	 *		actions are instantiated in the calling thread.
+	 *	@see PredicateLayer#buildActionLayer(Iterable, ActionLayer, ForkJoinPool)
+	 */
+	public void expand(Iterable<Action> _actions, ForkJoinPool _pool) {
+		ActionLayer actions = lastPredicates.buildActionLayer(_actions, lastActions, _pool);
+		PredicateLayer predicates = actions.buildPredicateLayer(null, lastPredicates, _pool);
+		int level = lastLevel + 1;
+		
+		if(lastActions != null)
+			recordEndedActionMutexes(actions);
+		removedFactMutexCount = recordEndedFactMutexes(predicates);
+		
+		int old_action_count = lastActions != null ? lastActions.getActionCount() : 0;
+		if(actions.getActionCount() > actionLevels.length) {
+			int new_length = Math.max(actions.getActionCount(), 2 * actionLevels.length);
+			actionLevels = Arrays.copyOf(actionLevels, new_length);
+			actionPreconditions = Arrays.copyOf(actionPreconditions, new_length);
+			actionEffects = Arrays.copyOf(actionEffects, new_length);
+			actionCosts = Arrays.copyOf(actionCosts, new_length);
+		}
+		for(int action = old_action_count; action < actions.getActionCount(); action++) {
+			actionLevels[action] = level;
+			PredicateSet preconditions = actions.getAction(action).getPreconditions();
+			int[] precondition_indices = new int[preconditions.getPredicateCount()];
+			int cost = 0;
+			for(int i = 0; i < precondition_indices.length; i++) {
+				precondition_indices[i] = predicates.getIndex(preconditions.getPredicate(i));
+				cost += factLevels[precondition_indices[i]];
+			}
+			actionPreconditions[action] = precondition_indices;
+			actionCosts[action] = cost;
+			PredicateSet effects = actions.getAction(action).getPositiveEffects();
+			int[] effect_indices = new int[effects.getPredicateCount()];
+			for(int i = 0; i < effect_indices.length; i++) {
+				effect_indices[i] = predicates.getIndex(effects.getPredicate(i));
+				addSupporter(effect_indices[i], action);
+			}
+			Arrays.sort(effect_indices);
+			actionEffects[action] = effect_indices;
+		}
+		
+		int old_fact_count = lastPredicates.getPredicateCount();
+		if(predicates.getPredicateCount() > factLevels.length)
+			factLevels = Arrays.copyOf(factLevels,
+					Math.max(predicates.getPredicateCount(), 2 * factLevels.length));
+		for(int fact = old_fact_count; fact < predicates.getPredicateCount(); fact++)
+			factLevels[fact] = level;
+		addedFactCount = predicates.getPredicateCount() - old_fact_count;
+		
+		if(level >= factCounts.length) {
+			factCounts = Arrays.copyOf(factCounts, 2 * factCounts.length);
+			actionCounts = Arrays.copyOf(actionCounts, 2 * actionCounts.length);
+		}
+		factCounts[level] = predicates.getPredicateCount();
+		actionCounts[level] = actions.getActionCount();
+		actionMutexRows.add(new AtomicReferenceArray<BitSet>(actions.getActionCount()));
+		noOpMutexColumns.add(new AtomicReferenceArray<BitSet>(old_fact_count));
+		
+		lastPredicates = predicates;
+		lastActions = actions;
+		lastLevel = level;
+	}
+	
+	/**
+	 * Returns number of facts that were added to the graph by the last
+	 * expansion.
+	 *
+	 *	@return number of facts at the last level that were not at the level
+	 *		before it, or 0 if the graph was not expanded yet.
+	 */
+	public int getAddedFactCount() {
+		return addedFactCount;
+	}
+	
+	/**
+	 * Returns an action from the graph.
+	 *
+	 *	@param _action index of the action.
+	 *	@return the action with index <i>_action</i>.
+	 */
+	public Action getAction(int _action) {
+		return lastActions.getAction(_action);
+	}
+	
+	/**
+	 * Returns indices of the facts that are positive effects of an action.
+	 * The returned array must not be modified.
+	 *
+	 *	@param _action index of the action.
+	 *	@return indices of the positive effects, sorted in ascending order.
+	 */
+	public int[] getActionEffects(int _action) {
+		return actionEffects[_action];
+	}
+	
+	/**
+	 * Returns the cost of an action, estimated as the sum of the first levels
+	 * of its preconditions. This is used to order the supporters during the
+	 * extraction of the plan.
+	 *
+	 *	@param _action index of the action.
+	 *	@return the sum of the first levels of the preconditions of the action.
+	 */
+	public int getActionCost(int _action) {
+		return actionCosts[_action];
+	}
+	
+	/**
+	 * Returns set of indices of actions that are mutex with an action at a
+	 * level of the graph. The rows are cached, the returned bit set must not
+	 * be modified.
+	 *
+	 *	@param _action index of the action.
+	 *	@param _level the level of the graph.
+	 *	@return bit set with indices of actions that are mutex with
+	 *		<i>_action</i> at level <i>_level</i>.
+	 *	@see #isActionMutex(int, int, int)
+	 */
+	public BitSet getActionMutexRow(int _action, int _level) {
+		AtomicReferenceArray<BitSet> rows = actionMutexRows.get(_level);
+		BitSet row = rows.get(_action);
+		if(row == null) {
+			// two threads may compute the same row, they both get equal rows
+			row = new BitSet();
+			BitSet last_row = lastActions.getMutexRow(_action);
+			if(last_row != null)
+				row.or(last_row);
+			if(_level < lastLevel) {
+				actionMutexHistory.collectMutexes(_action, _level, row);
+				// actions added after the level are not at the level
+				row.clear(getActionCount(_level), Math.max(row.length(), getActionCount(_level)));
+			}
+			rows.set(_action, row);
+		}
+		return row;
+	}
+	
+	/**
+	 * Returns number of actions at a level of the graph. Actions at this level
+	 * have indices from zero to this number (exclusive).
+	 *
+	 *	@param _level the level of the graph.
+	 *	@return number of actions at level <i>_level</i>.
+	 */
+	public int getActionCount(int _level) {
+		return actionCounts[_level];
+	}
+	
+	/**
+	 * Returns the first level at which an action appeared in the graph.
+	 *
+	 *	@param _action index of the action.
+	 *	@return the first level of the action.
+	 */
+	public int getActionLevel(int _action) {
+		return actionLevels[_action];
+	}
+	
+	/**
+	 * Returns a fact from the graph.
+	 *
+	 *	@param _fact index of the fact.
+	 *	@return the fact with index <i>_fact</i>.
+	 */
+	public Predicate getFact(int _fact) {
+		return lastPredicates.getPredicate(_fact);
+	}
+	
+	/**
+	 * Returns number of facts at a level of the graph. Facts at this level
+	 * have indices from zero to this number (exclusive).
+	 *
+	 *	@param _level the level of the graph.
+	 *	@return number of facts at level <i>_level</i>.
+	 */
+	public int getFactCount(int _level) {
+		return factCounts[_level];
+	}
+	
+	/**
+	 * Returns index of a fact in the graph.
+	 *
+	 *	@param _fact the fact.
+	 *	@return index of the fact or -1 if the fact is not in the graph.
+	 */
+	public int getFactIndex(Predicate _fact) {
+		return lastPredicates.getIndex(_fact);
+	}
+	
+	/**
+	 * Returns the first level at which a fact appeared in the graph.
+	 *
+	 *	@param _fact index of the fact.
+	 *	@return the first level of the fact.
+	 */
+	public int getFactLevel(int _fact) {
+		return factLevels[_fact];
+	}
+	
+	/**
+	 * Returns the last action layer of the graph.
+	 *
+	 *	@return the last action layer or null if the graph was not expanded yet.
+	 */
+	public ActionLayer getLastActionLayer() {
+		return lastActions;
+	}
+	
+	/**
+	 * Returns index of the last level of the graph.
+	 *
+	 *	@return index of the last level of the graph.
+	 */
+	public int getLastLevel() {
+		return lastLevel;
+	}
+	
+	/**
+	 * Returns the last predicate layer of the graph.
+	 *
+	 *	@return the last predicate layer of the graph.
+	 */
+	public PredicateLayer getLastPredicateLayer() {
+		return lastPredicates;
+	}
+	
+	/**
+	 * Returns set of indices of actions that are mutex with the no-op of a
+	 * fact at an action level of the graph. The sets are cached, the returned
+	 * bit set must not be modified.
+	 *
+	 *	@param _fact index of the fact persisted by the no-op.
+	 *	@param _level the action level.
+	 *	@return bit set with indices of actions that are mutex with the no-op
+	 *		at level <i>_level</i>.
+	 *	@see #isNoOpMutex(int, int, int)
+	 */
+	public BitSet getNoOpMutexColumn(int _fact, int _level) {
+		AtomicReferenceArray<BitSet> columns = noOpMutexColumns.get(_level);
+		BitSet column = columns.get(_fact);
+		if(column == null) {
+			column = new BitSet();
+			if(_level == lastLevel) {
+				BitSet last_column = lastActions.getNoOpMutexColumn(_fact);
+				if(last_column != null)
+					column.or(last_column);
+			}
+			else {
+				for(int action = 0; action < getActionCount(_level); action++)
+					if(isNoOpMutex(_fact, action, _level))
+						column.set(action);
+			}
+			columns.set(_fact, column);
+		}
+		return column;
+	}
+	
+	/**
+	 * Returns number of fact mutexes that were removed from the graph by the
+	 * last expansion.
+	 *
+	 *	@return number of pairs of facts that were mutex at the level before
+	 *		the last level and are not mutex at the last level.
+	 */
+	public int getRemovedFactMutexCount() {
+		return removedFactMutexCount;
+	}
+	
+	/**
+	 * Returns an action that has a fact as a positive effect. Supporters are
+	 * sorted by the level at which they appeared in the graph.
+	 *
+	 *	@param _fact index of the fact.
+	 *	@param _index index of the supporter.
+	 *	@return index of the action.
+	 *	@see #getSupporterCount(int, int)
+	 */
+	public int getSupporter(int _fact, int _index) {
+		return supporters[_fact][_index];
+	}
+	
+	/**
+	 * Returns number of actions at a level that have a fact as a positive
+	 * effect. These actions are the first supporters of the fact.
+	 *
+	 *	@param _fact index of the fact.
+	 *	@param _level the level of the graph.
+	 *	@return number of supporters of the fact at level <i>_level</i>.
+	 *	@see #getSupporter(int, int)
+	 */
+	public int getSupporterCount(int _fact, int _level) {
+		if(_fact >= supporters.length || supporters[_fact] == null)
+			return 0;
+		int[] list = supporters[_fact];
+		int limit = actionCounts[_level];
+		int low = 0;
+		int high = supporterCounts[_fact];
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(list[middle] < limit)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+	
+	/**
+	 * Tests whether two actions are mutex at a level of the graph.
+	 *
+	 *	@param _first index of the first action.
+	 *	@param _second index of the second action.
+	 *	@param _level the level of the graph.
+	 *	@return true if the actions are mutex at level <i>_level</i>.
+	 */
+	public boolean isActionMutex(int _first, int _second, int _level) {
+		if(lastActions.isMutex(_first, _second))
+			return true;
+		return _level < lastLevel && actionMutexHistory.getLastLevel(_first, _second) >= _level;
+	}
+	
+	/**
+	 * Tests whether two facts are mutex at a level of the graph.
+	 *
+	 *	@param _first index of the first fact.
+	 *	@param _second index of the second fact.
+	 *	@param _level the level of the graph.
+	 *	@return true if the facts are mutex at level <i>_level</i>.
+	 */
+	public boolean isFactMutex(int _first, int _second, int _level) {
+		if(lastPredicates.isMutex(_first, _second))
+			return true;
+		return _level < lastLevel && factMutexHistory.getLastLevel(_first, _second) >= _level;
+	}
+	
+	/**
+	 * Tests if there is a no-op of a fact at an action level of the graph.
+	 * This is the case if the fact is present at the preceding predicate
+	 * level.
+	 *
+	 *	@param _fact index of the fact.
+	 *	@param _level the action level.
+	 *	@return true if the fact can be persisted to the predicate level
+	 *		<i>_level</i> by a no-op.
+	 */
+	public boolean hasNoOp(int _fact, int _level) {
+		return _level > 0 && factLevels[_fact] < _level;
+	}
+	
+	/**
+	 * Tests if an action is mutex with the no-op of a fact at an action level
+	 * of the graph. They are mutex if the action deletes the fact, or if a
+	 * precondition of the action is mutex with the fact at the preceding
+	 * predicate level.
+	 *
+	 *	@param _fact index of the fact persisted by the no-op.
+	 *	@param _action index of the action.
+	 *	@param _level the action level.
+	 *	@return true if the action and the no-op are mutex at level
+	 *		<i>_level</i>.
+	 */
+	public boolean isNoOpMutex(int _fact, int _action, int _level) {
+		if(_level == lastLevel)
+			return lastActions.isNoOpMutex(_action, _fact);
+		if(getAction(_action).getNegativeEffects().contains(getFact(_fact)))
+			return true;
+		for(int precondition : actionPreconditions[_action])
+			if(isFactMutex(precondition, _fact, _level - 1))
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Tests if the graph has levelled off, i.e. if the last two predicate
+	 * layers contain the same facts and the same mutexes. Facts are only
+	 * added and mutexes are only removed as the graph grows, so it is enough
+	 * to test that the last expansion did not add any fact and did not remove
+	 * any mutex. This takes constant time.
+	 *
+	 *	@return true if the last expansion did not change the predicate layer.
+	 *	@see PredicateLayer#equals(Object)
+	 */
+	public boolean isLevelledOff() {
+		return lastLevel > 0 && addedFactCount == 0 && removedFactMutexCount == 0;
+	}
+	
+	/**
+	 * Records mutexes between actions of the last action layer that are not
+	 * mutex in the new action layer.
+	 *
+	 *	@param _actions the new action layer.
+	 */
+	private void recordEndedActionMutexes(ActionLayer _actions) {
+		for(int action = 0; action < lastActions.getActionCount(); action++) {
+			BitSet ended = endedMutexes(lastActions.getMutexRow(action),
+					_actions.getMutexRow(action), action);
+			if(ended == null)
+				continue;
+			for(int other = ended.nextSetBit(0); other >= 0; other = ended.nextSetBit(other + 1))
+				actionMutexHistory.record(action, other, lastLevel);
+		}
+	}
+	
+	/**
+	 * Records mutexes between facts of the last predicate layer that are not
+	 * mutex in the new predicate layer.
+	 *
+	 *	@param _predicates the new predicate layer.
+	 *	@return number of the mutexes that are not in the new layer.
+	 */
+	private int recordEndedFactMutexes(PredicateLayer _predicates) {
+		int count = 0;
+		for(int fact = 0; fact < lastPredicates.getPredicateCount(); fact++) {
+			BitSet ended = endedMutexes(lastPredicates.getMutexRow(fact),
+					_predicates.getMutexRow(fact), fact);
+			if(ended == null)
+				continue;
+			for(int other = ended.nextSetBit(0); other >= 0; other = ended.nextSetBit(other + 1)) {
+				factMutexHistory.record(fact, other, lastLevel);
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Finds mutexes of an item that disappeared between two levels. Only
+	 * pairs with the other item having index at least <i>_index</i> are
+	 * returned, so that each pair is found only once.
+	 *
+	 *	@param _old_row mutexes of the item at the old level.
+	 *	@param _new_row mutexes of the item at the new level.
+	 *	@param _index index of the item.
+	 *	@return indices of items that are no longer mutex with the item, or
+	 *		null if there are no such items.
+	 */
+	private static BitSet endedMutexes(BitSet _old_row, BitSet _new_row, int _index) {
+		if(_old_row == null)
+			return null;
+		BitSet ended = (BitSet)_old_row.clone();
+		if(_new_row != null)
+			ended.andNot(_new_row);
+		if(_index > 0)
+			ended.clear(0, _index);
+		return ended.isEmpty() ? null : ended;
+	}
+	
+	/**
+	 * Constructor. Creates a graph with a single predicate level that contains
+	 * the initial state.
+	 *
+	 *	@param _initial_state facts describing the initial state.
+	 *	@param _atoms the atom table of the planning problem.
+	 */
+	public PlanningGraph(PredicateSet _initial_state, AtomTable _atoms) {
+		lastPredicates = new PredicateLayer(_atoms);
+		lastPredicates.add(_initial_state);
+		lastActions = null;
+		lastLevel = 0;
+		
+		factLevels = new int[lastPredicates.getPredicateCount()];
+		actionLevels = new int[0];
+		factCounts = new int[8];
+		actionCounts = new int[8];
+		factCounts[0] = lastPredicates.getPredicateCount();
+		actionCounts[0] = 0;
+		
+		supporters = new int[0][];
+		supporterCounts = new int[0];
+		actionPreconditions = new int[0][];
+		actionEffects = new int[0][];
+		actionCosts = new int[0];
+		factMutexHistory = new MutexHistory();
+		actionMutexHistory = new MutexHistory();
+		actionMutexRows = new ArrayList<AtomicReferenceArray<BitSet>>();
+		actionMutexRows.add(new AtomicReferenceArray<BitSet>(0));
+		noOpMutexColumns = new ArrayList<AtomicReferenceArray<BitSet>>();
+		noOpMutexColumns.add(new AtomicReferenceArray<BitSet>(0));
+	}
+}
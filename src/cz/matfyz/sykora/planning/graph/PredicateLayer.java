@@ -1,304 +1,843 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package cz.matfyz.sykora.planning.graph;
-
-import java.util.*;
-
-import cz.matfyz.sykora.planning.*;
-import cz.matfyz.sykora.planning.predicate.*;
-
-/**
- * Representation of predicate layer in the planning graph.
- * 
- * The layer is implemented as a set of predicates with added support for
- * predicate mutexes.
- * 
- * @author Ondra Sykora [ondrasej@matfyz.cz]
- */
-public class PredicateLayer extends PredicateSet {
-	
-	/**
-	 * Helper class that holds predicate pairs.
-	 *
-	 *	@see PredicateLayer#mutexes
-	 */
-	public static class PredicatePair implements Comparable<PredicatePair> {
-		/**
-		 * Firs predicate in the pair.
-		 *
-		 *	@see #getFirst()
-		 */
-		private Predicate first;
-		/**
-		 * Second predicate in the pair.
-		 *
-		 *	@see #getSecond()
-		 */
-		private Predicate second;
-		
-		/**
-		 * Compares two predicate pairs. The comparsion is done
-		 * "lexicographically" - first predicates at first, second predicates
-		 * later.
-		 * 
-		 *	@param _next the other predicate pair.
-		 *	@return -1 if this predicate pair is lower than the other, 0 if
-		 *		they are equal and 1 if the other predicate is greater.
-		 *	@see Predicate#compareTo(Object)
-		 */
-		public int compareTo(PredicatePair _next) {
-			if(!(_next instanceof PredicatePair))
-				throw new ClassCastException("PredicatePair can only be compared to a PredicatePair");
-			
-			PredicatePair next_pair = (PredicatePair)_next;
-			int tmp = first.compareTo(next_pair.getFirst());
-			if(tmp != 0)
-				return tmp;
-			return second.compareTo(next_pair.getSecond());
-		}
-		
-		/**
-		 * Tests this predicate pair with an other object for equality.
-		 * Predicate pairs are equal if and only if both their first and second
-		 * predicates are equal.
-		 *
-		 *	@param _next the other predicate pair.
-		 *	@return true if the other predicate pair is equal to this one,
-		 *		false is equal to this one.
-		 * 	@see Predicate#equals(Object)
-		 */
-		public boolean equals(Object _next) {
-			if(!(_next instanceof PredicatePair))
-				return false;
-			return compareTo((PredicatePair)_next) == 0;
-		}
-		
-		/**
-		 * Returns first predicate in the pair.
-		 *
-		 *	@return first predicate in the pair.
-		 * 	@see #first
-		 */
-		public final Predicate getFirst() {
-			return first;
-		}
-		
-		/**
-		 * Returns second predicate in the pair.
-		 *	
-		 *	@return second predicate in the pair.
-		 *	@see #second
-		 */
-		public final Predicate getSecond() {
-			return second;
-		}
-		
-		/**
-		 * Resets this predicate to specified predicates. This is used as
-		 * optimization to prevent unnecessary allocaions in the <i>isMutex</i>
-		 * method.
-		 * 
-		 *	@param _first new first predicate for this pair.
-		 *	@param _second new second predicate for this pair.
-		 */
-		public void reset(Predicate _first, Predicate _second) {
-			first = _first;
-			second = _second;
-		}
-		
-		/**
-		 * Converts the predicate pair to it's string representation.
-		 *
-		 *	@return string retpresentation of the predicate pair.
-		 *	@see Predicate#toString()
-		 */
-		public String toString() {
-			return first.toString() + " - " + second.toString();
-		}
-		
-		/**
-		 * Constructor. Creates a new instance of the predicate pair.
-		 *
-		 *	@param _first first predicate in the pair.
-		 *	@param _second second predicate in the pair.
-		 */
-		public PredicatePair(Predicate _first, Predicate _second) {
-			first = _first;
-			second = _second;
-		}
-	}
-	
-	/**
-	 * List of mutexes in this layer.
-	 * 
-	 * The list is implemented as binary tree to enable fast searches.
-	 * 
-	 *	@see #addMutex(Predicate, Predicate)
-	 *	@see #isMutex(Predicate, Predicate)
-	 *	@see #getMutexPairs()
-	 */
-	public TreeSet<PredicatePair> mutexes;
-	
-	/**
-	 * Adds a new mutex to the list.
-	 * 
-	 *	@param _first first predicate in the mutex.
-	 *	@param _second second predicate in the mutex.
-	 */
-	public void addMutex(Predicate _first, Predicate _second) {
-		if(isMutex(_first, _second))
-			return;
-		mutexes.add(new PredicatePair(_first, _second));
-	}
-	
-	/**
-	 * Builds action layer upon this predicate layer.
-	 * 
-	 *	@param _actions list of action schemas from that action instances are
-	 *		generated.
-	 *	@return a new action layer based on predicates in this layer
-	 *	@see PlanningProblem#buildNextLayer()
-	 */
-	public ActionLayer buildActionLayer(Iterable<Action> _actions) {
-		TreeSet<Action> res_actions = new TreeSet<Action>();
-		TreeMap<Predicate, ActionList> dependencies = new TreeMap<Predicate, ActionList>();
-		
-		for(Action action : _actions)
-			action.findPossibleInstances(this, res_actions, dependencies);
-		for(Predicate predicate : this) {
-			Action no_op = Action.noOpAction(predicate);
-			if(!res_actions.contains(no_op))
-				res_actions.add(no_op);
-			ActionList support = dependencies.get(predicate);
-			if(support == null) {
-				support = new ActionList();
-				dependencies.put(predicate, support);
-			}
-			support.add(no_op);
-		}
-	
-		ActionLayer res_layer = new ActionLayer(res_actions);
-
-		for(PredicatePair mutex : mutexes) {
-			ActionList first_list = dependencies.get(mutex.getFirst());
-			ActionList second_list = dependencies.get(mutex.getSecond());
-			
-			if(first_list == null || second_list == null)
-				continue;
-			for(Action first_action : first_list)
-				for(Action second_action : second_list)
-					res_layer.addMutex(first_action, second_action);
-		}
-		
-		res_layer.findMutexActions();
-		return res_layer;
-	}
-	
-	/**
-	 * Tests if the predicate layer contains specified set of predicates and
-	 * that there is no mutex between any two of them.
-	 *
-	 *	@param _predicate_set tested predicate set.
-	 *	@return true if all predicates from <i>_predicate_set</i> are contained
-	 *		in this layer and there is no mutex between ano two of them, false
-	 *		otherwise.
-	 */
-	public boolean contains(PredicateSet _predicate_set) {
-		if(!super.contains(_predicate_set))
-			return false;
-		for(Predicate first : _predicate_set)
-			for(Predicate second : _predicate_set)
-				if(isMutex(first, second))
-					return false;
-		return true;
-	}
-	
-	/**
-	 * Tests two predicate layers for equality. Two layers are equal if they
-	 * have the same predicates and mutexes betwen the same pairs of
-	 * predicates.
-	 * 
-	 *	@param _other the other predicate layer.
-	 *	@return true if the other predicate layer is equal to this one as
-	 *		described above.
-	 *	@see PlanningProblem#singleStep()
-	 */
-	public boolean equals(Object _other) {
-		if(!(_other instanceof PredicateLayer))
-			return false;
-		PredicateLayer other = (PredicateLayer)_other;
-		if(getPredicateCount() != other.getPredicateCount())
-			return false;
-		if(getMutexPairs().size() != other.getMutexPairs().size())
-			return false;
-		for(Predicate predicate : this)
-			if(!other.contains(predicate))
-				return false;
-		for(PredicatePair pair : mutexes)
-			if(!other.isMutex(pair.first, pair.second))
-				return false;
-		for(PredicatePair pair : other.getMutexPairs())
-			if(!isMutex(pair.getFirst(), pair.getSecond()))
-				return false;
-		return true;
-	}
-	
-	/**
-	 * Provides access to set of mutexes in this predicate layer.
-	 * 
-	 *	@return list of mutexes in this predicate layer.
-	 */
-	public Set<PredicatePair> getMutexPairs() {
-		return mutexes;
-	}
-	
-	/**
-	 * Initializes internal structures of this layer.
-	 */
-	private void initialize() {
-		mutexes = new TreeSet<PredicatePair>();
-	}
-	
-	private PredicatePair isMutexHelperPair = new PredicatePair(null, null);
-	
-	/**
-	 * Tests if there is mutex between two predicates in this predicate layer.
-	 * 
-	 *	@param _first first predicate.
-	 *	@param _second second predicate.
-	 *	@return true if there is mutex between <i>_first</i> and
-	 *		<i>_second</i>, false otherwise.
-	 */
-	public boolean isMutex(Predicate _first, Predicate _second) {
-		isMutexHelperPair.reset(_first, _second);
-		if(mutexes.contains(isMutexHelperPair))
-			return true;
-		isMutexHelperPair.reset(_second, _first);
-		return mutexes.contains(isMutexHelperPair);
-	}
-	
-	/**
-	 * Constructor. Creates an empty predicate layer.
-	 *
-	 *	@see #initialize()
-	 */
-	public PredicateLayer() {
-		initialize();
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+/**
+ * Representation of predicate layer in the planning graph.
+ * 
+ * The layer is implemented as a set of predicates with added support for
+ * predicate mutexes. Each atom in the layer has an index (its position in
+ * the set), and the mutexes are stored in a bit matrix over these indices.
+ * 
+ * @author Ondra Sykora [ondrasej@matfyz.cz]
+ */
+public class PredicateLayer extends PredicateSet {
+	
+	/**
+	 * Helper class that holds predicate pairs.
+	 *
+	 *	@see PredicateLayer#getMutexPairs()
+	 */
+	public static class PredicatePair implements Comparable<PredicatePair> {
+		/**
+		 * Firs predicate in the pair.
+		 *
+		 *	@see #getFirst()
+		 */
+		private Predicate first;
+		/**
+		 * Second predicate in the pair.
+		 *
+		 *	@see #getSecond()
+		 */
+		private Predicate second;
+		
+		/**
+		 * Compares two predicate pairs. The comparsion is done
+		 * "lexicographically" - first predicates at first, second predicates
+		 * later.
+		 * 
+		 *	@param _next the other predicate pair.
+		 *	@return -1 if this predicate pair is lower than the other, 0 if
+		 *		they are equal and 1 if the other predicate is greater.
+		 *	@see Predicate#compareTo(Object)
+		 */
+		public int compareTo(PredicatePair _next) {
+			if(!(_next instanceof PredicatePair))
+				throw new ClassCastException("PredicatePair can only be compared to a PredicatePair");
+			
+			PredicatePair next_pair = (PredicatePair)_next;
+			int tmp = first.compareTo(next_pair.getFirst());
+			if(tmp != 0)
+				return tmp;
+			return second.compareTo(next_pair.getSecond());
+		}
+		
+		/**
+		 * Tests this predicate pair with an other object for equality.
+		 * Predicate pairs are equal if and only if both their first and second
+		 * predicates are equal.
+		 *
+		 *	@param _next the other predicate pair.
+		 *	@return true if the other predicate pair is equal to this one,
+		 *		false is equal to this one.
+		 * 	@see Predicate#equals(Object)
+		 */
+		public boolean equals(Object _next) {
+			if(!(_next instanceof PredicatePair))
+				return false;
+			return compareTo((PredicatePair)_next) == 0;
+		}
+		
+		/**
+		 * Returns first predicate in the pair.
+		 *
+		 *	@return first predicate in the pair.
+		 * 	@see #first
+		 */
+		public final Predicate getFirst() {
+			return first;
+		}
+		
+		/**
+		 * Returns second predicate in the pair.
+		 *	
+		 *	@return second predicate in the pair.
+		 *	@see #second
+		 */
+		public final Predicate getSecond() {
+			return second;
+		}
+		
+		/**
+		 * Resets this predicate to specified predicates. This is used as
+		 * optimization to prevent unnecessary allocaions in the <i>isMutex</i>
+		 * method.
+		 * 
+		 *	@param _first new first predicate for this pair.
+		 *	@param _second new second predicate for this pair.
+		 */
+		public void reset(Predicate _first, Predicate _second) {
+			first = _first;
+			second = _second;
+		}
+		
+		/**
+		 * Converts the predicate pair to it's string representation.
+		 *
+		 *	@return string retpresentation of the predicate pair.
+		 *	@see Predicate#toString()
+		 */
+		public String toString() {
+			return first.toString() + " - " + second.toString();
+		}
+		
+		/**
+		 * Constructor. Creates a new instance of the predicate pair.
+		 *
+		 *	@param _first first predicate in the pair.
+		 *	@param _second second predicate in the pair.
+		 */
+		public PredicatePair(Predicate _first, Predicate _second) {
+			first = _first;
+			second = _second;
+		}
+	}
+	
+	/**
+	 * Predicates of the layer with the same name and number of parameters.
+	 * Besides the list of the predicates, the partition keeps an index for
+	 * each parameter position that maps the values of the parameter to the
+	 * predicates that have this value at this position. The indices are lists
+	 * indexed by the symbols of the values, so that lookups do not allocate
+	 * any objects.
+	 *
+	 *	@see PredicateLayer#getCandidates(Predicate)
+	 */
+	private static class Partition {
+		/**
+		 * List of all predicates in the partition.
+		 */
+		private ArrayList<Predicate> predicates;
+		
+		/**
+		 * Indices of the parameter positions. Item with index <i>i</i> maps
+		 * symbols of the values of the <i>i</i>-th parameter to the lists of
+		 * predicates; it is indexed by the symbols and contains null for
+		 * values that do not appear at this position.
+		 */
+		private ArrayList<ArrayList<ArrayList<Predicate>>> arguments;
+		
+		/**
+		 * Set to false when a predicate that is not grounded is added to the
+		 * partition. The indices of parameters can not be used in such case.
+		 */
+		private boolean grounded;
+		
+		/**
+		 * Adds a predicate to the partition.
+		 *
+		 *	@param _predicate the predicate.
+		 */
+		public void add(Predicate _predicate) {
+			predicates.add(_predicate);
+			if(!_predicate.isGrounded()) {
+				grounded = false;
+				return;
+			}
+			for(int i = 0; i < arguments.size(); i++) {
+				ArrayList<ArrayList<Predicate>> argument = arguments.get(i);
+				int value = _predicate.getParameter(i).getSymbol();
+				while(argument.size() <= value)
+					argument.add(null);
+				ArrayList<Predicate> list = argument.get(value);
+				if(list == null) {
+					list = new ArrayList<Predicate>();
+					argument.set(value, list);
+				}
+				list.add(_predicate);
+			}
+		}
+		
+		/**
+		 * Returns predicates with a given value at a parameter position.
+		 *
+		 *	@param _position the parameter position.
+		 *	@param _value symbol of the value.
+		 *	@return list of predicates with value <i>_value</i> at position
+		 *		<i>_position</i> or null if there are no such predicates.
+		 */
+		private ArrayList<Predicate> getArgumentList(int _position, int _value) {
+			ArrayList<ArrayList<Predicate>> argument = arguments.get(_position);
+			return _value < argument.size() ? argument.get(_value) : null;
+		}
+		
+		/**
+		 * Finds predicates from the partition that can be unified with a
+		 * pattern. The shortest list from indices of the bound parameters
+		 * of the pattern is used.
+		 *
+		 *	@param _pattern the pattern.
+		 *	@return list of candidates for unification with the pattern.
+		 */
+		public List<Predicate> getCandidates(Predicate _pattern) {
+			List<Predicate> best = predicates;
+			if(!grounded)
+				return best;
+			for(int i = 0; i < arguments.size(); i++) {
+				ValueBinding parameter = _pattern.getParameter(i);
+				if(!parameter.isBound())
+					continue;
+				ArrayList<Predicate> list = getArgumentList(i, parameter.getSymbol());
+				if(list == null)
+					return Collections.emptyList();
+				if(list.size() < best.size())
+					best = list;
+			}
+			return best;
+		}
+		
+		/**
+		 * Finds predicates from the partition that have given values at
+		 * given parameter positions.
+		 *
+		 *	@param _arguments symbols of the values of the parameters, or
+		 *		<i>SymbolTable.NO_SYMBOL</i> for parameters with any value.
+		 *	@return list of candidates for unification.
+		 */
+		public List<Predicate> getCandidates(int[] _arguments) {
+			List<Predicate> best = predicates;
+			if(!grounded)
+				return best;
+			for(int i = 0; i < arguments.size(); i++) {
+				if(_arguments[i] == SymbolTable.NO_SYMBOL)
+					continue;
+				ArrayList<Predicate> list = getArgumentList(i, _arguments[i]);
+				if(list == null)
+					return Collections.emptyList();
+				if(list.size() < best.size())
+					best = list;
+			}
+			return best;
+		}
+		
+		/**
+		 * Removes a predicate from the partition. When the last predicate
+		 * that is not grounded is removed, the indices of parameters can be
+		 * used again.
+		 *
+		 *	@param _predicate the predicate.
+		 */
+		public void remove(Predicate _predicate) {
+			if(!predicates.remove(_predicate))
+				return;
+			if(!_predicate.isGrounded()) {
+				grounded = true;
+				for(Predicate predicate : predicates)
+					grounded &= predicate.isGrounded();
+				return;
+			}
+			for(int i = 0; i < arguments.size(); i++) {
+				ArrayList<Predicate> list = getArgumentList(i, _predicate.getParameter(i).getSymbol());
+				if(list != null)
+					list.remove(_predicate);
+			}
+		}
+		
+		/**
+		 * Constructor. Creates an empty partition.
+		 *
+		 *	@param _arity number of parameters of predicates in the
+		 *		partition.
+		 */
+		public Partition(int _arity) {
+			predicates = new ArrayList<Predicate>();
+			arguments = new ArrayList<ArrayList<ArrayList<Predicate>>>(_arity);
+			for(int i = 0; i < _arity; i++)
+				arguments.add(new ArrayList<ArrayList<Predicate>>());
+			grounded = true;
+		}
+	}
+	
+	/**
+	 * Mapping from ids of atoms to their indices in this layer. Atoms that
+	 * are not in the layer (or that are beyond the end of the array) have
+	 * index -1. The array is sized by the number of atoms in the atom table
+	 * of the layer.
+	 * 
+	 *	@see #getIndex(Predicate)
+	 */
+	private int[] atomIndices;
+	
+	/**
+	 * The atom table of the planning problem. Grounded predicates added to
+	 * the layer are replaced by atoms from this table.
+	 * 
+	 *	@see #getAtomTable()
+	 */
+	private AtomTable atoms;
+	
+	/**
+	 * Mutexes in this layer, stored as a bit matrix over indices of the atoms
+	 * in the layer.
+	 * 
+	 *	@see #addMutex(Predicate, Predicate)
+	 *	@see #isMutex(Predicate, Predicate)
+	 *	@see #getMutexPairs()
+	 */
+	private MutexMatrix mutexes;
+	
+	/**
+	 * Predicates of this layer partitioned by their names and numbers of
+	 * parameters. The list is indexed by symbols of the names and then by
+	 * the numbers of parameters; it contains null for missing partitions.
+	 * 
+	 *	@see #getCandidates(Predicate)
+	 *	@see #getPartition(int, int)
+	 *	@see #getPredicates(int, int)
+	 */
+	private ArrayList<ArrayList<Partition>> partitions;
+	
+	/**
+	 * Adds a single predicate to the layer. Grounded predicates are replaced
+	 * by the atoms that represent them, so that all predicates in the layer
+	 * are shared with the other layers. A grounded predicate that is already
+	 * in the layer is not added again, so the indices of the facts do not
+	 * depend on repeated facts.
+	 *
+	 *	@param _predicate predicate that should be added to the layer.
+	 *	@see AtomTable#intern(Predicate)
+	 */
+	public void add(Predicate _predicate) {
+		if(_predicate == null)
+			throw new NullPointerException();
+		if(_predicate.isGrounded())
+			_predicate = atoms.intern(_predicate);
+		int atom_id = _predicate.getAtomId();
+		if(atom_id != Predicate.NO_ATOM) {
+			if(atom_id >= atomIndices.length) {
+				int old_length = atomIndices.length;
+				atomIndices = Arrays.copyOf(atomIndices,
+						Math.max(atom_id + 1, atoms.getAtomCount()));
+				Arrays.fill(atomIndices, old_length, atomIndices.length, -1);
+			}
+			if(atomIndices[atom_id] >= 0)
+				return;
+			atomIndices[atom_id] = getPredicateCount();
+		}
+		super.add(_predicate);
+		
+		int symbol = _predicate.getPredicateSymbol();
+		int arity = _predicate.getParameterCount();
+		while(partitions.size() <= symbol)
+			partitions.add(null);
+		ArrayList<Partition> symbol_partitions = partitions.get(symbol);
+		if(symbol_partitions == null) {
+			symbol_partitions = new ArrayList<Partition>();
+			partitions.set(symbol, symbol_partitions);
+		}
+		while(symbol_partitions.size() <= arity)
+			symbol_partitions.add(null);
+		Partition partition = symbol_partitions.get(arity);
+		if(partition == null) {
+			partition = new Partition(arity);
+			symbol_partitions.set(arity, partition);
+		}
+		partition.add(_predicate);
+	}
+	
+	/**
+	 * Adds a new mutex to the list.
+	 * 
+	 *	@param _first first predicate in the mutex.
+	 *	@param _second second predicate in the mutex.
+	 *	@throws IllegalArgumentException if any of the predicates is not
+	 *		in the layer.
+	 */
+	public void addMutex(Predicate _first, Predicate _second) {
+		int first = getIndex(_first);
+		int second = getIndex(_second);
+		if(first < 0 || second < 0)
+			throw new IllegalArgumentException("Mutexes can only be added between predicates in the layer");
+		mutexes.add(first, second);
+	}
+	
+	/**
+	 * Adds a new mutex between two predicates given by their indices in the
+	 * layer.
+	 * 
+	 *	@param _first index of the first predicate in the mutex.
+	 *	@param _second index of the second predicate in the mutex.
+	 *	@see #addMutex(Predicate, Predicate)
+	 */
+	public void addMutex(int _first, int _second) {
+		mutexes.add(_first, _second);
+	}
+	
+	/**
+	 * Removes all predicates and mutexes from the layer.
+	 */
+	public void clear() {
+		super.clear();
+		Arrays.fill(atomIndices, -1);
+		mutexes = new MutexMatrix();
+		partitions.clear();
+	}
+	
+	/**
+	 * Builds action layer upon this predicate layer.
+	 * 
+	 *	@param _actions list of action schemas from that action instances are
+	 *		generated.
+	 *	@return a new action layer based on predicates in this layer
+	 *	@see #buildActionLayer(Iterable, ActionLayer)
+	 */
+	public ActionLayer buildActionLayer(Iterable<Action> _actions) {
+		return buildActionLayer(_actions, null);
+	}
+	
+	/**
+	 * Builds action layer upon this predicate layer. If the previous action
+	 * layer of the planning graph is given, its actions are placed at the
+	 * beginning of the new layer in the same order, so that they keep their
+	 * indices. Actions that were not in the previous layer follow them.
+	 * 
+	 * No-op actions are not created; the facts of this layer are persisted by
+	 * the implicit no-ops of the new layer.
+	 * 
+	 *	@param _actions list of action schemas from that action instances are
+	 *		generated.
+	 *	@param _previous the previous action layer in the planning graph or
+	 *		null if this is the first action layer.
+	 *	@return a new action layer based on predicates in this layer
+	 *	@see PlanningGraph#expand(Iterable)
+	 *	@see ActionLayer#getPredicateLayer()
+	 */
+	public ActionLayer buildActionLayer(Iterable<Action> _actions, ActionLayer _previous) {
+		return buildActionLayer(_actions, _previous, null);
+	}
+	
+	/**
+	 * Builds action layer upon this predicate layer. The actions are
+	 * instantiated in parallel by tasks running on a fork/join pool; the
+	 * resulting layer is the same as the layer built sequentially.
+	 * 
+	 *	@param _actions list of action schemas from that action instances are
+	 *		generated.
+	 *	@param _previous the previous action layer in the planning graph or
+	 *		null if this is the first action layer.
+	 *	@param _pool the pool used to instantiate the actions, or null if the
+	 *		actions are instantiated in the calling thread.
+	 *	@return a new action layer based on predicates in this layer
+	 *	@see InstantiationTask
+	 */
+	public ActionLayer buildActionLayer(Iterable<Action> _actions, ActionLayer _previous, ForkJoinPool _pool) {
+		TreeSet<Action> res_actions;
+		HashMap<Predicate, ActionList> dependencies;
+		
+		if(_pool != null) {
+			InstantiationTask task = new InstantiationTask(_actions, this, true);
+			_pool.invoke(task);
+			res_actions = task.getInstances();
+			dependencies = task.getDependencies();
+		}
+		else {
+			res_actions = new TreeSet<Action>();
+			dependencies = new HashMap<Predicate, ActionList>();
+			for(Action action : _actions)
+				action.findPossibleInstances(this, res_actions, dependencies);
+		}
+	
+		// no-ops are implicit; the layer derives their mutexes from the
+		// mutexes of this layer
+		ActionLayer res_layer = new ActionLayer(this);
+		if(_previous != null) {
+			for(Action action : _previous)
+				res_layer.addAction(action);
+		}
+		for(Action action : res_actions)
+			if(res_layer.getIndex(action) < 0)
+				res_layer.addAction(action);
+
+		// competing needs: actions requiring two mutex predicates are mutex.
+		// The actions requiring each predicate are collected in a bit set, so
+		// that the mutexes of an action are added as a union of these sets.
+		BitSet[] requirers = new BitSet[getPredicateCount()];
+		for(int index = 0; index < requirers.length; index++) {
+			ActionList list = dependencies.get(getPredicate(index));
+			if(list == null || mutexes.getRow(index) == null)
+				continue;
+			requirers[index] = new BitSet(res_layer.getActionCount());
+			for(Action action : list)
+				requirers[index].set(res_layer.getIndex(action));
+		}
+		BitSet competing = new BitSet(res_layer.getActionCount());
+		for(int first = 0; first < requirers.length; first++) {
+			if(requirers[first] == null)
+				continue;
+			competing.clear();
+			BitSet row = mutexes.getRow(first);
+			for(int second = row.nextSetBit(first); second >= 0; second = row.nextSetBit(second + 1))
+				if(requirers[second] != null)
+					competing.or(requirers[second]);
+			if(competing.isEmpty())
+				continue;
+			for(int action = requirers[first].nextSetBit(0); action >= 0; action = requirers[first].nextSetBit(action + 1))
+				res_layer.addMutexes(action, competing);
+		}
+		
+		res_layer.findMutexActions();
+		return res_layer;
+	}
+	
+	/**
+	 * Tests if the predicate layer contains specified set of predicates and
+	 * that there is no mutex between any two of them.
+	 *
+	 *	@param _predicate_set tested predicate set.
+	 *	@return true if all predicates from <i>_predicate_set</i> are contained
+	 *		in this layer and there is no mutex between ano two of them, false
+	 *		otherwise.
+	 */
+	public boolean contains(PredicateSet _predicate_set) {
+		BitSet indices = new BitSet(getPredicateCount());
+		for(Predicate predicate : _predicate_set) {
+			int index = getIndex(predicate);
+			if(index < 0)
+				return false;
+			indices.set(index);
+		}
+		for(int index = indices.nextSetBit(0); index >= 0; index = indices.nextSetBit(index + 1))
+			if(mutexes.intersects(index, indices))
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Tests if this layer contains a specified predicate. The predicate is
+	 * looked up through its atom id, so this takes constant time.
+	 * 
+	 *	@param _predicate tested predicate.
+	 *	@return true if the layer contains the predicate <i>_predicate</i>.
+	 */
+	public boolean contains(Predicate _predicate) {
+		return getIndex(_predicate) >= 0;
+	}
+	
+	/**
+	 * Tests two predicate layers for equality. Two layers are equal if they
+	 * have the same predicates and mutexes betwen the same pairs of
+	 * predicates.
+	 * 
+	 *	@param _other the other predicate layer.
+	 *	@return true if the other predicate layer is equal to this one as
+	 *		described above.
+	 *	@see PlanningProblem#singleStep()
+	 */
+	public boolean equals(Object _other) {
+		if(!(_other instanceof PredicateLayer))
+			return false;
+		PredicateLayer other = (PredicateLayer)_other;
+		if(getPredicateCount() != other.getPredicateCount())
+			return false;
+		if(getMutexCount() != other.getMutexCount())
+			return false;
+		// both layers have the same number of predicates, so it is enough to
+		// check the mapping from indices of this layer to the other layer
+		int[] other_indices = new int[getPredicateCount()];
+		boolean same_indices = true;
+		for(int index = 0; index < getPredicateCount(); index++) {
+			other_indices[index] = other.getIndex(getPredicate(index));
+			if(other_indices[index] < 0)
+				return false;
+			same_indices &= other_indices[index] == index;
+		}
+		if(same_indices)
+			return mutexes.equals(other.mutexes);
+		for(int first = 0; first < getPredicateCount(); first++) {
+			BitSet row = mutexes.getRow(first);
+			if(row == null)
+				continue;
+			for(int second = row.nextSetBit(first); second >= 0; second = row.nextSetBit(second + 1))
+				if(!other.mutexes.contains(other_indices[first], other_indices[second]))
+					return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the atom table of the planning problem that is used by this
+	 * layer.
+	 * 
+	 *	@return the atom table of the layer.
+	 */
+	public AtomTable getAtomTable() {
+		return atoms;
+	}
+	
+	/**
+	 * Returns index of a predicate in this layer.
+	 * 
+	 *	@param _predicate the predicate.
+	 *	@return index of the predicate in this layer, or -1 if the predicate
+	 *		is not in the layer.
+	 */
+	public int getIndex(Predicate _predicate) {
+		int atom_id = _predicate.getAtomId();
+		if(atom_id == Predicate.NO_ATOM) {
+			Predicate atom = atoms.find(_predicate);
+			if(atom == null)
+				return -1;
+			atom_id = atom.getAtomId();
+		}
+		return atom_id < atomIndices.length ? atomIndices[atom_id] : -1;
+	}
+	
+	/**
+	 * Returns predicates of this layer that may be unified with a predicate.
+	 * These predicates have the same name and number of parameters as the
+	 * predicate, and if some parameters of the predicate are bound, the
+	 * candidates are looked up in the index of the most selective of these
+	 * parameters.
+	 *
+	 *	@param _pattern the predicate (usually a precondition of an action
+	 *		schema).
+	 *	@return list of predicates that may unify with <i>_pattern</i>. The
+	 *		list must not be modified.
+	 *	@see #getPredicates(int, int)
+	 */
+	public List<Predicate> getCandidates(Predicate _pattern) {
+		Partition partition = getPartition(_pattern.getPredicateSymbol(), _pattern.getParameterCount());
+		if(partition == null)
+			return Collections.emptyList();
+		return partition.getCandidates(_pattern);
+	}
+	
+	/**
+	 * Returns predicates of this layer that may be unified with a predicate
+	 * whose parameters are given as symbols. This method does not allocate
+	 * any objects.
+	 *
+	 *	@param _symbol id of the symbol with the name of the predicate.
+	 *	@param _arguments symbols of the values of the parameters of the
+	 *		predicate, or <i>SymbolTable.NO_SYMBOL</i> for parameters that are
+	 *		not bound.
+	 *	@return list of predicates that may unify with the predicate. The list
+	 *		must not be modified.
+	 *	@see #getCandidates(Predicate)
+	 */
+	public List<Predicate> getCandidates(int _symbol, int[] _arguments) {
+		Partition partition = getPartition(_symbol, _arguments.length);
+		if(partition == null)
+			return Collections.emptyList();
+		return partition.getCandidates(_arguments);
+	}
+	
+	/**
+	 * Returns predicates of this layer with a given name and number of
+	 * parameters.
+	 *
+	 *	@param _symbol id of the symbol with the name of the predicates.
+	 *	@param _arity number of parameters of the predicates.
+	 *	@return list of predicates with the name <i>_symbol</i> and
+	 *		<i>_arity</i> parameters, in the order in which they were added to
+	 *		the layer. The list must not be modified.
+	 */
+	public List<Predicate> getPredicates(int _symbol, int _arity) {
+		Partition partition = getPartition(_symbol, _arity);
+		if(partition == null)
+			return Collections.emptyList();
+		return partition.predicates;
+	}
+	
+	/**
+	 * Returns the partition of predicates with a given name and number of
+	 * parameters.
+	 *
+	 *	@param _symbol id of the symbol with the name of the predicates.
+	 *	@param _arity number of parameters of the predicates.
+	 *	@return the partition or null if there are no such predicates.
+	 */
+	private Partition getPartition(int _symbol, int _arity) {
+		if(_symbol < 0 || _symbol >= partitions.size())
+			return null;
+		ArrayList<Partition> symbol_partitions = partitions.get(_symbol);
+		if(symbol_partitions == null || _arity >= symbol_partitions.size())
+			return null;
+		return symbol_partitions.get(_arity);
+	}
+	
+	/**
+	 * Returns set of indices of predicates that are mutex with a predicate.
+	 * The returned bit set must not be modified.
+	 * 
+	 *	@param _index index of the predicate.
+	 *	@return bit set with indices of predicates that are mutex with the
+	 *		predicate <i>_index</i> or null if there are no such predicates.
+	 */
+	public BitSet getMutexRow(int _index) {
+		return mutexes.getRow(_index);
+	}
+	
+	/**
+	 * Returns number of (unordered) pairs of predicates that are mutex in
+	 * this layer.
+	 * 
+	 *	@return number of mutexes in this layer.
+	 */
+	public int getMutexCount() {
+		return mutexes.getPairCount();
+	}
+	
+	/**
+	 * Provides access to set of mutexes in this predicate layer. The list is
+	 * created from the mutex matrix on each call, each mutex is listed once.
+	 * 
+	 *	@return list of mutexes in this predicate layer.
+	 */
+	public List<PredicatePair> getMutexPairs() {
+		ArrayList<PredicatePair> pairs = new ArrayList<PredicatePair>(getMutexCount());
+		for(int first = 0; first < getPredicateCount(); first++) {
+			BitSet row = mutexes.getRow(first);
+			if(row == null)
+				continue;
+			for(int second = row.nextSetBit(first); second >= 0; second = row.nextSetBit(second + 1))
+				pairs.add(new PredicatePair(getPredicate(first), getPredicate(second)));
+		}
+		return pairs;
+	}
+	
+	/**
+	 * Initializes internal structures of this layer.
+	 */
+	private void initialize() {
+		atomIndices = new int[atoms.getAtomCount()];
+		Arrays.fill(atomIndices, -1);
+		mutexes = new MutexMatrix();
+		partitions = new ArrayList<ArrayList<Partition>>();
+	}
+	
+	/**
+	 * Tests if there is mutex between two predicates in this predicate layer.
+	 * 
+	 *	@param _first first predicate.
+	 *	@param _second second predicate.
+	 *	@return true if there is mutex between <i>_first</i> and
+	 *		<i>_second</i>, false otherwise.
+	 */
+	public boolean isMutex(Predicate _first, Predicate _second) {
+		int first = getIndex(_first);
+		int second = getIndex(_second);
+		if(first < 0 || second < 0)
+			return false;
+		return mutexes.contains(first, second);
+	}
+	
+	/**
+	 * Tests if there is mutex between two predicates given by their indices
+	 * in this layer.
+	 * 
+	 *	@param _first index of the first predicate.
+	 *	@param _second index of the second predicate.
+	 *	@return true if there is mutex between the two predicates, false
+	 *		otherwise.
+	 */
+	public boolean isMutex(int _first, int _second) {
+		return mutexes.contains(_first, _second);
+	}
+	
+	/**
+	 * Removes a predicate from the layer together with its mutexes. The
+	 * predicates that follow the removed one are moved to the previous index,
+	 * so their indices (and the indices in the mutex rows) decrease by one.
+	 * 
+	 *	@param _predicate predicate that should be removed.
+	 *	@see MutexMatrix#remove(int)
+	 */
+	public void remove(Predicate _predicate) {
+		if(_predicate == null)
+			throw new NullPointerException();
+		int index = getIndex(_predicate);
+		if(index < 0 && !_predicate.isGrounded()) {
+			// predicates that are not grounded do not have atom ids, they
+			// must be looked up in the list
+			for(int i = 0; i < getPredicateCount(); i++) {
+				if(getPredicate(i).equals(_predicate)) {
+					index = i;
+					break;
+				}
+			}
+		}
+		if(index < 0)
+			return;
+		
+		Predicate predicate = getPredicate(index);
+		super.remove(predicate);
+		if(predicate.getAtomId() != Predicate.NO_ATOM)
+			atomIndices[predicate.getAtomId()] = -1;
+		for(int i = index; i < getPredicateCount(); i++) {
+			int atom_id = getPredicate(i).getAtomId();
+			if(atom_id != Predicate.NO_ATOM)
+				atomIndices[atom_id] = i;
+		}
+		mutexes.remove(index);
+		Partition partition = getPartition(predicate.getPredicateSymbol(), predicate.getParameterCount());
+		if(partition != null)
+			partition.remove(predicate);
+	}
+	
+	/**
+	 * Constructor. Creates an empty predicate layer.
+	 *
+	 *	@param _atoms the atom table of the planning problem.
+	 *	@see #initialize()
+	 */
+	public PredicateLayer(AtomTable _atoms) {
+		if(_atoms == null)
+			throw new NullPointerException("_atoms parameter must not be null");
+		atoms = _atoms;
+		initialize();
+	}
+}
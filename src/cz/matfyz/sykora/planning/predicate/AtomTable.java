@@ -0,0 +1,242 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.predicate;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Table of ground atoms. Each distinct grounded predicate is represented by a
+ * single immutable instance of <i>Predicate</i> (a flyweight) that has a
+ * dense integer id assigned. These ids are assigned from zero in the order in
+ * which the atoms are interned, so they can be used as indices to arrays and
+ * bit sets.
+ * 
+ * Parameters of the atoms are shared constant bindings, so an atom only
+ * allocates the array of its parameters.
+ * 
+ * Each symbol table has its own atom table, so the atoms (and their ids)
+ * belong to a single planning problem, and structures of the problem can be
+ * sized by the number of atoms in the table.
+ * 
+ * Atoms can be interned by action layers that are instantiated in parallel.
+ * Most lookups find an atom that is already in the table, so reading the
+ * table does not take any lock; only adding a new atom is synchronized. An
+ * atom is stored to the list of atoms before it is added to the mapping, so
+ * the id of any atom found in the mapping is valid for <i>getAtom</i>.
+ *
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see Predicate#getAtomId()
+ *	@see Predicate#groundedClone()
+ *	@see SymbolTable#getAtomTable()
+ */
+public class AtomTable {
+	/**
+	 * Mapping from grounded predicates to the atoms that represent them.
+	 *
+	 *	@see #intern(Predicate)
+	 */
+	private ConcurrentHashMap<Predicate, Predicate> atoms;
+	
+	/**
+	 * Number of atoms in the table. It is written after the atom is stored to
+	 * <i>atomList</i>, so all atoms with lower ids can be read without a
+	 * lock.
+	 *
+	 *	@see #getAtomCount()
+	 */
+	private volatile int atomCount;
+	
+	/**
+	 * Array of atoms, indexed by their ids. Only the first <i>atomCount</i>
+	 * items are used; when the array is full, it is replaced by a larger copy.
+	 *
+	 *	@see #getAtom(int)
+	 */
+	private volatile Predicate[] atomList;
+	
+	/**
+	 * Constant bindings used as parameters of the atoms, indexed by the ids of
+	 * their symbols. The array is never modified after it is published; a new
+	 * copy is created for each new constant.
+	 *
+	 *	@see #getConstant(int)
+	 */
+	private volatile ValueBinding[] constants;
+	
+	/**
+	 * The symbol table with the names of the atoms.
+	 */
+	private SymbolTable symbols;
+	
+	/**
+	 * Adds a new atom for a grounded predicate to the table. If another thread
+	 * added the atom in the meantime, this atom is returned instead.
+	 *
+	 *	@param _predicate grounded predicate.
+	 *	@return the atom representing the predicate <i>_predicate</i>.
+	 *	@see #intern(Predicate)
+	 */
+	private synchronized Predicate add(Predicate _predicate) {
+		Predicate atom = atoms.get(_predicate);
+		if(atom != null)
+			return atom;
+		
+		ValueBinding[] parameters = new ValueBinding[_predicate.getParameterCount()];
+		for(int param_index = 0; param_index < parameters.length; param_index++)
+			parameters[param_index] = getConstant(_predicate.getParameter(param_index).getSymbol());
+		int atom_id = atomCount;
+		atom = new Predicate(symbols, _predicate.getPredicateSymbol(), parameters, atom_id);
+		
+		Predicate[] list = atomList;
+		if(atom_id == list.length) {
+			list = Arrays.copyOf(list, Math.max(16, 2 * list.length));
+			atomList = list;
+		}
+		list[atom_id] = atom;
+		atomCount = atom_id + 1;
+		atoms.put(atom, atom);
+		return atom;
+	}
+	
+	/**
+	 * Finds the atom that represents a grounded predicate. Unlike
+	 * <i>intern</i>, this method never adds new atoms to the table.
+	 *
+	 *	@param _predicate the predicate.
+	 *	@return the atom representing <i>_predicate</i> or null if there is
+	 *		no such atom.
+	 *	@see #intern(Predicate)
+	 */
+	public Predicate find(Predicate _predicate) {
+		if(_predicate.isAtom())
+			return _predicate;
+		return atoms.get(_predicate);
+	}
+	
+	/**
+	 * Returns an atom with the given id.
+	 *
+	 *	@param _atom_id id of the atom.
+	 *	@return the atom with id <i>_atom_id</i>.
+	 *	@throws IndexOutOfBoundsException if there is no atom with the given
+	 *		id.
+	 */
+	public Predicate getAtom(int _atom_id) {
+		if(_atom_id < 0 || _atom_id >= atomCount)
+			throw new IndexOutOfBoundsException("_atom_id is out of range");
+		return atomList[_atom_id];
+	}
+	
+	/**
+	 * Returns number of atoms in the table. All atoms in the table have ids
+	 * lower than this number.
+	 *
+	 *	@return number of atoms in the table.
+	 */
+	public int getAtomCount() {
+		return atomCount;
+	}
+	
+	/**
+	 * Returns an immutable binding to a constant. The bindings are shared by
+	 * all atoms that use the same constant. This is only called while adding
+	 * an atom, with the lock of the table held.
+	 *
+	 *	@param _symbol id of the symbol of the constant.
+	 *	@return shared binding to the constant <i>_symbol</i>.
+	 */
+	private ValueBinding getConstant(int _symbol) {
+		ValueBinding[] known = constants;
+		if(_symbol < known.length && known[_symbol] != null)
+			return known[_symbol];
+		ValueBinding[] updated = Arrays.copyOf(known, Math.max(_symbol + 1, known.length));
+		updated[_symbol] = ValueBinding.constant(_symbol);
+		constants = updated;
+		return updated[_symbol];
+	}
+	
+	/**
+	 * Returns the atom that represents a grounded predicate. If there is no
+	 * such atom yet, a new atom is created and added to the table. The
+	 * predicate itself is never stored in the table, so it is safe to pass
+	 * action schemas with temporarily bound variables to this method.
+	 *
+	 *	@param _predicate grounded predicate.
+	 *	@return the atom representing the predicate <i>_predicate</i>.
+	 *	@throws IllegalArgumentException if the predicate is not grounded.
+	 */
+	public Predicate intern(Predicate _predicate) {
+		if(_predicate.isAtom())
+			return _predicate;
+		Predicate atom = atoms.get(_predicate);
+		if(atom != null)
+			return atom;
+		if(!_predicate.isGrounded())
+			throw new IllegalArgumentException("Only grounded predicates can be interned");
+		return add(_predicate);
+	}
+	
+	/**
+	 * Returns the atom for a predicate with given name and parameters. If
+	 * there is no such atom yet, a new atom is created and added to the table.
+	 *
+	 *	@param _predicate_symbol id of the symbol with the name of the
+	 *		predicate.
+	 *	@param _parameters symbols of the values of the parameters.
+	 *	@return the atom representing the predicate.
+	 *	@throws IllegalArgumentException if any of the parameters is not a
+	 *		valid symbol.
+	 *	@see #intern(Predicate)
+	 */
+	public Predicate intern(int _predicate_symbol, int[] _parameters) {
+		ValueBinding[] known = constants;
+		ValueBinding[] parameters = new ValueBinding[_parameters.length];
+		for(int param_index = 0; param_index < parameters.length; param_index++) {
+			int symbol = _parameters[param_index];
+			if(symbol < 0)
+				throw new IllegalArgumentException("Only grounded predicates can be interned");
+			// a constant that is not known yet is not used by any atom, the
+			// temporary binding is then only used to add the new atom
+			parameters[param_index] = symbol < known.length && known[symbol] != null
+					? known[symbol] : ValueBinding.constant(symbol);
+		}
+		Predicate predicate = new Predicate(symbols, _predicate_symbol, parameters);
+		Predicate atom = atoms.get(predicate);
+		if(atom != null)
+			return atom;
+		return add(predicate);
+	}
+	
+	/**
+	 * Constructor. Creates a new empty atom table. Atom tables are only
+	 * created by symbol tables, so that there is exactly one atom table for
+	 * each symbol table and the ids of the atoms can be used for identity
+	 * checks.
+	 *
+	 *	@param _symbols the symbol table with the names of the atoms.
+	 *	@see SymbolTable#getAtomTable()
+	 */
+	AtomTable(SymbolTable _symbols) {
+		symbols = _symbols;
+		atoms = new ConcurrentHashMap<Predicate, Predicate>();
+		atomList = new Predicate[16];
+		constants = new ValueBinding[0];
+	}
+}
@@ -0,0 +1,300 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.predicate;
+
+import java.util.*;
+
+/**
+ * Immutable set of grounded predicates. The set is created from a fully built
+ * set of predicates; all the predicates are replaced by the atoms from the
+ * atom table and duplicate atoms are removed.
+ * 
+ * Membership is tested through a small open-addressing hash table over the
+ * ids of the atoms, so it takes constant time. The set also keeps a sorted
+ * array of the ids of its atoms (which is a canonical representation of the
+ * set) and it caches its hash code.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see PredicateSet#freeze()
+ *	@see AtomTable
+ */
+public class FrozenPredicateSet extends PredicateSet {
+	/**
+	 * Marker of an empty slot in the hash table.
+	 */
+	private static final int EMPTY_SLOT = -1;
+	
+	/**
+	 * Sorted array with ids of the atoms in this set.
+	 *
+	 *	@see #getAtomIds()
+	 */
+	private int[] atomIds;
+	
+	/**
+	 * Open-addressing hash table with ids of the atoms in this set. The
+	 * length of the table is a power of two and at least twice the number of
+	 * the atoms in the set.
+	 *
+	 *	@see #containsAtom(int)
+	 */
+	private int[] table;
+	
+	/**
+	 * Cached hash code of the set.
+	 *
+	 *	@see #hashCode()
+	 */
+	private int hash;
+	
+	/**
+	 * Flag set to true when the set is fully built. After that, the set can
+	 * not be modified.
+	 */
+	private boolean frozen;
+	
+	/**
+	 * Adds a predicate to the set. This is only possible while the set is
+	 * being built in the constructor.
+	 *
+	 *	@param _predicate the predicate.
+	 *	@throws UnsupportedOperationException if the set is already frozen.
+	 */
+	public void add(Predicate _predicate) {
+		if(frozen)
+			throw new UnsupportedOperationException("Frozen predicate set can not be modified");
+		super.add(_predicate);
+	}
+	
+	/**
+	 * Frozen predicate set can not be modified.
+	 *
+	 *	@throws UnsupportedOperationException always.
+	 */
+	public void clear() {
+		throw new UnsupportedOperationException("Frozen predicate set can not be modified");
+	}
+	
+	/**
+	 * Compares this set to another set. Two frozen sets are compared by their
+	 * sorted arrays of atom ids, which gives the same result as
+	 * <i>PredicateSet.compareTo</i>.
+	 *
+	 *	@param _other the other set.
+	 *	@return -1 if this set is "lower" than the other one, 0 if they are
+	 *		equal and 1 if this set is "greater" than the other one.
+	 *	@see PredicateSet#compareTo(PredicateSet)
+	 */
+	public int compareTo(PredicateSet _other) {
+		if(!(_other instanceof FrozenPredicateSet))
+			return super.compareTo(_other);
+		int[] other_ids = ((FrozenPredicateSet)_other).atomIds;
+		int count = Math.min(atomIds.length, other_ids.length);
+		for(int i = 0; i < count; i++)
+			if(atomIds[i] != other_ids[i])
+				return atomIds[i] < other_ids[i] ? -1 : 1;
+		if(atomIds.length > count)
+			return -1;
+		else if(other_ids.length > count)
+			return 1;
+		return 0;
+	}
+	
+	/**
+	 * Tests if the set contains an atom with a given id.
+	 *
+	 *	@param _atom_id id of the atom.
+	 *	@return true if the atom is in the set, false otherwise.
+	 */
+	public boolean containsAtom(int _atom_id) {
+		int mask = table.length - 1;
+		for(int slot = mix(_atom_id) & mask; table[slot] != EMPTY_SLOT; slot = (slot + 1) & mask)
+			if(table[slot] == _atom_id)
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Tests if this set contains a specified predicate.
+	 * 
+	 *	@param _predicate tested predicate.
+	 *	@return true if the set contains the predicate <i>_predicate</i>.
+	 */
+	public boolean contains(Predicate _predicate) {
+		int atom_id = _predicate.getAtomId();
+		if(atom_id == Predicate.NO_ATOM) {
+			Predicate atom = _predicate.getSymbolTable().getAtomTable().find(_predicate);
+			if(atom == null)
+				return false;
+			atom_id = atom.getAtomId();
+		}
+		return containsAtom(atom_id);
+	}
+	
+	/**
+	 * Tests if a set of predicates is subset of this set. If the other set is
+	 * frozen, only the ids of its atoms are tested.
+	 * 
+	 * 	@param _predicate_set testes set of predicates.
+	 * 	@return true if all predicates from <i>_predicate_set</i> are contained
+	 * 		in this set.
+	 */
+	public boolean contains(PredicateSet _predicate_set) {
+		if(!(_predicate_set instanceof FrozenPredicateSet))
+			return super.contains(_predicate_set);
+		int[] other_ids = ((FrozenPredicateSet)_predicate_set).atomIds;
+		if(other_ids.length > atomIds.length)
+			return false;
+		for(int atom_id : other_ids)
+			if(!containsAtom(atom_id))
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Tests the set for equality with another set. Two frozen sets are equal
+	 * if they contain the same atoms.
+	 *
+	 *	@param _other the other set.
+	 *	@return true if the sets contain the same predicates.
+	 */
+	public boolean equals(Object _other) {
+		if(_other instanceof FrozenPredicateSet) {
+			FrozenPredicateSet other = (FrozenPredicateSet)_other;
+			return hash == other.hash && Arrays.equals(atomIds, other.atomIds);
+		}
+		return super.equals(_other);
+	}
+	
+	/**
+	 * Returns this set, it is already frozen.
+	 *
+	 *	@return this set.
+	 */
+	public FrozenPredicateSet freeze() {
+		return this;
+	}
+	
+	/**
+	 * Returns sorted array with ids of all atoms in this set. Two frozen sets
+	 * contain the same atoms if and only if these arrays are equal. The
+	 * returned array must not be modified.
+	 *
+	 *	@return sorted array of ids of the atoms in this set.
+	 */
+	public int[] getAtomIds() {
+		return atomIds;
+	}
+	
+	/**
+	 * Returns the cached hash code of the set.
+	 *
+	 *	@return hash code of the set.
+	 *	@see PredicateSet#hashCode()
+	 */
+	public int hashCode() {
+		return hash;
+	}
+	
+	/**
+	 * Tests if all predicates in the set are grounded. This is always true
+	 * for a frozen set.
+	 *
+	 *	@return true.
+	 */
+	public boolean isGrounded() {
+		return true;
+	}
+	
+	/**
+	 * Scrambles bits of an atom id before it is used as an index to the hash
+	 * table.
+	 *
+	 *	@param _atom_id id of the atom.
+	 *	@return hash of the atom id.
+	 */
+	private static int mix(int _atom_id) {
+		int h = _atom_id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Returns the lowest id of an atom of this set that is greater than a
+	 * given id. The id is found in the sorted array of the atom ids.
+	 *
+	 *	@param _previous the previous id, or <i>Predicate.NO_ATOM</i> to get
+	 *		the lowest id.
+	 *	@return the next id of an atom in the set, or <i>Predicate.NO_ATOM</i>
+	 *		if there is no such atom.
+	 */
+	int nextAtomId(int _previous) {
+		int position = Arrays.binarySearch(atomIds, _previous + 1);
+		if(position < 0)
+			position = -position - 1;
+		return position < atomIds.length ? atomIds[position] : Predicate.NO_ATOM;
+	}
+	
+	/**
+	 * Frozen predicate set can not be modified.
+	 *
+	 *	@throws UnsupportedOperationException always.
+	 */
+	public void remove(Predicate _predicate) {
+		throw new UnsupportedOperationException("Frozen predicate set can not be modified");
+	}
+	
+	/**
+	 * Constructor. Creates a frozen set with the given predicates. All the
+	 * predicates must be grounded.
+	 *
+	 *	@param _predicates the predicates for the set.
+	 *	@throws IllegalArgumentException if any of the predicates is not
+	 *		grounded.
+	 */
+	public FrozenPredicateSet(Iterable<Predicate> _predicates) {
+		ArrayList<Predicate> atoms = new ArrayList<Predicate>();
+		for(Predicate predicate : _predicates)
+			atoms.add(predicate.groundedClone());
+		
+		int capacity = 2;
+		while(capacity < 2 * atoms.size())
+			capacity *= 2;
+		table = new int[capacity];
+		Arrays.fill(table, EMPTY_SLOT);
+		
+		int mask = capacity - 1;
+		for(Predicate atom : atoms) {
+			int atom_id = atom.getAtomId();
+			int slot = mix(atom_id) & mask;
+			while(table[slot] != EMPTY_SLOT && table[slot] != atom_id)
+				slot = (slot + 1) & mask;
+			if(table[slot] == atom_id)
+				continue;
+			table[slot] = atom_id;
+			super.add(atom);
+			hash += atom.hashCode();
+		}
+		
+		atomIds = new int[getPredicateCount()];
+		for(int i = 0; i < atomIds.length; i++)
+			atomIds[i] = getPredicate(i).getAtomId();
+		Arrays.sort(atomIds);
+		frozen = true;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.predicate;
+
+import java.util.*;
+
+/**
+ * Type of objects (constants) in the planning problem. The type is a named
+ * set of constants; variables of action schemas that have a type can only be
+ * bound to constants of this type.
+ * 
+ * Types are declared in the input as a name of the type followed by a colon
+ * and a list of the objects, e.g. <i>disc : k1, k2, k3.</i>, and variables
+ * are typed using a colon after the name of the variable, e.g.
+ * <i>on(X:disc, Y)</i>.
+ * 
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see SymbolTable#getType(int)
+ *	@see ValueBinding#setType(ObjectType)
+ *	@see PredicateParser#parseTypeDeclaration(String)
+ */
+public class ObjectType {
+	/**
+	 * Id of the symbol with the name of the type.
+	 * 
+	 *	@see #getTypeSymbol()
+	 */
+	private int typeSymbol;
+	
+	/**
+	 * Symbols of the objects of this type.
+	 * 
+	 *	@see #contains(int)
+	 */
+	private BitSet objects;
+	
+	/**
+	 * The symbol table with the names of the type and of its objects.
+	 */
+	private SymbolTable symbols;
+	
+	/**
+	 * Adds an object to this type.
+	 * 
+	 *	@param _symbol id of the symbol of the object.
+	 */
+	public void addObject(int _symbol) {
+		if(_symbol < 0)
+			throw new IllegalArgumentException("_symbol must be a valid symbol id");
+		objects.set(_symbol);
+	}
+	
+	/**
+	 * Tests whether an object is of this type.
+	 * 
+	 *	@param _symbol id of the symbol of the object.
+	 *	@return true if the object is of this type.
+	 */
+	public boolean contains(int _symbol) {
+		return _symbol >= 0 && objects.get(_symbol);
+	}
+	
+	/**
+	 * Returns number of objects of this type.
+	 * 
+	 *	@return number of objects of this type.
+	 */
+	public int getObjectCount() {
+		return objects.cardinality();
+	}
+	
+	/**
+	 * Returns the name of the type.
+	 * 
+	 *	@return the name of the type.
+	 */
+	public String getTypeName() {
+		return symbols.getName(typeSymbol);
+	}
+	
+	/**
+	 * Returns id of the symbol with the name of the type.
+	 * 
+	 *	@return id of the symbol with the name of the type.
+	 */
+	public int getTypeSymbol() {
+		return typeSymbol;
+	}
+	
+	/**
+	 * Converts the type to its string representation.
+	 * 
+	 *	@return the name of the type.
+	 */
+	public String toString() {
+		return getTypeName();
+	}
+	
+	/**
+	 * Constructor. Creates a new type with no objects. Types are only created
+	 * by the symbol table, so there is a single type with each name in a
+	 * planning problem.
+	 * 
+	 *	@param _symbols the symbol table with the name of the type.
+	 *	@param _type_symbol id of the symbol with the name of the type.
+	 */
+	ObjectType(SymbolTable _symbols, int _type_symbol) {
+		symbols = _symbols;
+		typeSymbol = _type_symbol;
+		objects = new BitSet();
+	}
+}
@@ -1,204 +1,370 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package cz.matfyz.sykora.planning.predicate;
-
-import java.util.*;
-
-/**
- * Class used for storing set of predicates.
- *
- *	@author Ondra Sykora [ondrasej@matfyz.cz]
- */
-public class PredicateSet implements Comparable<PredicateSet>, Iterable<Predicate> {
-	/**
-	 * List of predicates in the set.
-	 */
-	private ArrayList<Predicate> predicates;
-	
-	/**
-	 * Adds a single predicate to the set.
-	 *
-	 *	@param _predicate predicate that should be added to the set.
-	 *	@see #add(Iterable)
-	 */
-	public void add(Predicate _predicate) {
-		if(_predicate == null)
-			throw new NullPointerException();
-		predicates.add(_predicate);
-	}
-	
-	/**
-	 * Adds a collection of predicates to the set.
-	 *
-	 *	@param _predicates collection of predicates that should be added to
-	 *		the set.
-	 *	@see #add(Predicate)
-	 */
-	public void add(Iterable<Predicate> _predicates) {
-		for(Predicate predicate : _predicates)
-			add(predicate);
-	}
-	
-	/**
-	 * Removes all predicates from the set.
-	 */
-	public void clear() {
-		predicates.clear();
-	}
-	
-	/**
-	 * Clears variable bindings in all predicates in the set.
-	 * 
-	 *	@see Predicate#clearBindings()
-	 */
-	public void clearBindings() {
-		for(Predicate predicate : predicates)
-			predicate.clearBindings();
-	}
-	
-	public int compareTo(PredicateSet _other) {
-		if(!(_other instanceof PredicateSet))
-			throw new ClassCastException("PredicateSet can only be compared to an other PredicateSet.");
-		
-		int tmp = 0;
-		PredicateSet other = (PredicateSet)_other;
-		int pred_count = Math.min(getPredicateCount(),
-				other.getPredicateCount());
-		for(int i=0; i < pred_count; i++) {
-			tmp = getPredicate(i).compareTo(other.getPredicate(i));
-			if(tmp != 0)
-				return tmp;
-		}
-		if(getPredicateCount() > pred_count)
-			return -1;
-		else if(other.getPredicateCount() > pred_count)
-			return 1;
-		return 0;
-	}
-	
-	/**
-	 * Tests if this set contains a specified predicate.
-	 * 
-	 *	@param _predicate tested predicate.
-	 *	@return true if the set contains the predicate <i>_predicate</i>.
-	 */
-	public boolean contains(Predicate _predicate) {
-		return predicates.contains(_predicate);
-	}
-	
-	/**
-	 * Tests if a set of predicates is subset of this set.
-	 * 
-	 * 	@param _predicate_set testes set of predicates.
-	 * 	@return true if all predicates from <i>_predicate_set</i> are contained
-	 * 		in this set.
-	 */
-	public boolean contains(PredicateSet _predicate_set) {
-		for(Predicate single : _predicate_set)
-			if(!contains(single))
-				return false;
-		return true;
-	}
-	
-	/**
-	 * Getter for a single predicate in the list.
-	 * 
-	 *	@param _index index of the predicate.
-	 *	@return predicate at index <i>_index</i>.
-	 */
-	public Predicate getPredicate(int _index) {
-		return predicates.get(_index);
-	}
-	
-	/**
-	 * Returns number of predicates in the set.
-	 * 
-	 *	@return number of predicates in the set.
-	 */
-	public int getPredicateCount() {
-		return predicates.size();
-	}
-	
-	/**
-	 * Initializes internal structures of the predicate set.
-	 * 
-	 *	@see #predicates
-	 */
-	private void initialize() {
-		predicates = new ArrayList<Predicate>();
-	}
-	
-	/**
-	 * Returns iterator for enumeration of all predicates in the set.
-	 *
-	 *	@see #predicates
-	 */
-	public Iterator<Predicate> iterator() {
-		return predicates.iterator();
-	}
-	
-	/**
-	 * Tests if all predicates in the set are grounded.
-	 * 
-	 *	@return true if all predicates in the set are grounded, false
-	 *		otherwise.
-	 *	@see Predicate#isGrounded()
-	 */
-	public boolean isGrounded() {
-		for(Predicate predicate : predicates) {
-			if(!predicate.isGrounded())
-				return false;
-		}
-		return true;
-	}
-	
-	/**
-	 * Removes a single predicate from the set.
-	 * 
-	 *	@param _predicate predicate that shoul be removed from the set.
-	 */
-	public void remove(Predicate _predicate) {
-		if(_predicate == null)
-			throw new NullPointerException();
-		predicates.remove(_predicate);
-	}
-	
-	/**
-	 * Converts the predicate set to string representation. Returns all
-	 * predicates in textual form, separated by commas.
-	 *	
-	 *	@see Predicate#toString()
-	 */
-	public String toString() {
-		StringBuilder builder = new StringBuilder();
-		for(int i = 0; i < predicates.size(); i++) {
-			if(i > 0)
-				builder.append(',');
-			builder.append(predicates.get(i).toString());
-		}
-		return builder.toString();
-	}
-	
-	/**
-	 * Constructor. Initializes an empty predicate set.
-	 */
-	public PredicateSet() {
-		initialize();
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.predicate;
+
+import java.util.*;
+
+/**
+ * Class used for storing set of predicates. The predicates are kept in the
+ * order in which they were added, but equality, hash code and ordering of the
+ * sets do not depend on the order and on repetitions of the predicates.
+ *
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ */
+public class PredicateSet implements Comparable<PredicateSet>, Iterable<Predicate> {
+	/**
+	 * List of predicates in the set.
+	 */
+	private ArrayList<Predicate> predicates;
+	
+	/**
+	 * Cached hash code of the set. It is only valid if <i>hashValid</i> is
+	 * set; the flag is reset whenever the set is modified.
+	 *
+	 *	@see #hashCode()
+	 */
+	private int hash;
+	
+	/**
+	 * Flag set when <i>hash</i> contains the hash code of the current
+	 * contents of the set.
+	 *
+	 *	@see #hashCode()
+	 */
+	private boolean hashValid;
+	
+	/**
+	 * Adds a single predicate to the set.
+	 *
+	 *	@param _predicate predicate that should be added to the set.
+	 *	@see #add(Iterable)
+	 */
+	public void add(Predicate _predicate) {
+		if(_predicate == null)
+			throw new NullPointerException();
+		predicates.add(_predicate);
+		hashValid = false;
+	}
+	
+	/**
+	 * Adds a collection of predicates to the set.
+	 *
+	 *	@param _predicates collection of predicates that should be added to
+	 *		the set.
+	 *	@see #add(Predicate)
+	 */
+	public void add(Iterable<Predicate> _predicates) {
+		for(Predicate predicate : _predicates)
+			add(predicate);
+	}
+	
+	/**
+	 * Removes all predicates from the set.
+	 */
+	public void clear() {
+		predicates.clear();
+		hashValid = false;
+	}
+	
+	/**
+	 * Clears variable bindings in all predicates in the set.
+	 * 
+	 *	@see Predicate#clearBindings()
+	 */
+	public void clearBindings() {
+		for(Predicate predicate : predicates)
+			predicate.clearBindings();
+	}
+	
+	/**
+	 * Compares this set to another set. The ordering is consistent with
+	 * <i>equals</i>, so it does not depend on the order and on repetitions of
+	 * the predicates. The distinct predicates of both sets are compared in
+	 * ascending order, and a set that is a prefix of the other one is
+	 * "greater".
+	 * 
+	 * Grounded sets are compared by the ids of their atoms (these are the
+	 * sorted ids of a frozen set), sets with variables are compared using
+	 * <i>Predicate.compareTo</i>. Grounded sets are "lower" than sets with
+	 * variables, because they are never equal.
+	 * 
+	 *	@param _other the other set.
+	 *	@return -1 if this set is "lower" than the other one, 0 if they are
+	 *		equal and 1 if this set is "greater" than the other one.
+	 *	@see #nextAtomId(int)
+	 *	@see #nextPredicate(Predicate)
+	 */
+	public int compareTo(PredicateSet _other) {
+		if(!(_other instanceof PredicateSet))
+			throw new ClassCastException("PredicateSet can only be compared to an other PredicateSet.");
+		
+		PredicateSet other = (PredicateSet)_other;
+		boolean grounded = isGrounded();
+		if(grounded != other.isGrounded())
+			return grounded ? -1 : 1;
+		if(grounded) {
+			int first = Predicate.NO_ATOM;
+			int second = Predicate.NO_ATOM;
+			do {
+				first = nextAtomId(first);
+				second = other.nextAtomId(second);
+				if(first != second) {
+					if(first == Predicate.NO_ATOM || second == Predicate.NO_ATOM)
+						return first == Predicate.NO_ATOM ? 1 : -1;
+					return first < second ? -1 : 1;
+				}
+			} while(first != Predicate.NO_ATOM);
+			return 0;
+		}
+		
+		Predicate first = null;
+		Predicate second = null;
+		do {
+			first = nextPredicate(first);
+			second = other.nextPredicate(second);
+			if(first == null || second == null)
+				return first == second ? 0 : (first == null ? 1 : -1);
+			int tmp = first.compareTo(second);
+			if(tmp != 0)
+				return tmp;
+		} while(true);
+	}
+	
+	/**
+	 * Tests if this set contains a specified predicate.
+	 * 
+	 *	@param _predicate tested predicate.
+	 *	@return true if the set contains the predicate <i>_predicate</i>.
+	 */
+	public boolean contains(Predicate _predicate) {
+		return predicates.contains(_predicate);
+	}
+	
+	/**
+	 * Tests if a set of predicates is subset of this set.
+	 * 
+	 * 	@param _predicate_set testes set of predicates.
+	 * 	@return true if all predicates from <i>_predicate_set</i> are contained
+	 * 		in this set.
+	 */
+	public boolean contains(PredicateSet _predicate_set) {
+		for(Predicate single : _predicate_set)
+			if(!contains(single))
+				return false;
+		return true;
+	}
+	
+	/**
+	 * Tests the set for equality with another set. Two sets are equal if
+	 * they contain the same predicates, the order and repetitions of the
+	 * predicates do not matter.
+	 * 
+	 *	@param _other the other set.
+	 *	@return true if the sets contain the same predicates.
+	 */
+	public boolean equals(Object _other) {
+		if(this == _other)
+			return true;
+		if(!(_other instanceof PredicateSet))
+			return false;
+		PredicateSet other = (PredicateSet)_other;
+		if(hashCode() != other.hashCode())
+			return false;
+		return contains(other) && other.contains(this);
+	}
+	
+	/**
+	 * Creates an immutable copy of this set with constant-time membership
+	 * tests. This should be used once the set is fully built.
+	 * 
+	 *	@return frozen copy of this set.
+	 *	@see FrozenPredicateSet
+	 */
+	public FrozenPredicateSet freeze() {
+		return new FrozenPredicateSet(this);
+	}
+	
+	/**
+	 * Getter for a single predicate in the list.
+	 * 
+	 *	@param _index index of the predicate.
+	 *	@return predicate at index <i>_index</i>.
+	 */
+	public Predicate getPredicate(int _index) {
+		return predicates.get(_index);
+	}
+	
+	/**
+	 * Returns number of predicates in the set.
+	 * 
+	 *	@return number of predicates in the set.
+	 */
+	public int getPredicateCount() {
+		return predicates.size();
+	}
+	
+	/**
+	 * Returns hash code of the set. The hash code is the sum of the hash codes
+	 * of the distinct predicates, so it does not depend on the order and
+	 * repetitions of the predicates. If all predicates of the set are atoms,
+	 * the hash code is cached until the set is modified; other predicates may
+	 * change their hash codes when their variables are bound.
+	 * 
+	 *	@return hash code of the set.
+	 */
+	public int hashCode() {
+		if(!hashValid) {
+			int sum = 0;
+			boolean atoms_only = true;
+			for(int i = 0; i < predicates.size(); i++) {
+				Predicate predicate = predicates.get(i);
+				atoms_only &= predicate.isAtom();
+				if(!isRepeated(i))
+					sum += predicate.hashCode();
+			}
+			hash = sum;
+			hashValid = atoms_only;
+		}
+		return hash;
+	}
+	
+	/**
+	 * Initializes internal structures of the predicate set.
+	 * 
+	 *	@see #predicates
+	 */
+	private void initialize() {
+		predicates = new ArrayList<Predicate>();
+	}
+	
+	/**
+	 * Returns iterator for enumeration of all predicates in the set.
+	 *
+	 *	@see #predicates
+	 */
+	public Iterator<Predicate> iterator() {
+		return predicates.iterator();
+	}
+	
+	/**
+	 * Tests if all predicates in the set are grounded.
+	 * 
+	 *	@return true if all predicates in the set are grounded, false
+	 *		otherwise.
+	 *	@see Predicate#isGrounded()
+	 */
+	public boolean isGrounded() {
+		for(Predicate predicate : predicates) {
+			if(!predicate.isGrounded())
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Tests if a predicate of the set is equal to some of the predicates
+	 * before it.
+	 * 
+	 *	@param _index index of the predicate.
+	 *	@return true if the predicate with index <i>_index</i> is repeated.
+	 */
+	private boolean isRepeated(int _index) {
+		Predicate predicate = predicates.get(_index);
+		for(int i = 0; i < _index; i++)
+			if(predicates.get(i).equals(predicate))
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Returns the lowest id of an atom of this set that is greater than a
+	 * given id. All predicates of the set must be grounded. This allows
+	 * iterating over the distinct atoms of the set in ascending order
+	 * without allocating a sorted copy of the set.
+	 * 
+	 *	@param _previous the previous id, or <i>Predicate.NO_ATOM</i> to get
+	 *		the lowest id.
+	 *	@return the next id of an atom in the set, or <i>Predicate.NO_ATOM</i>
+	 *		if there is no such atom.
+	 *	@see #compareTo(PredicateSet)
+	 */
+	int nextAtomId(int _previous) {
+		int next = Predicate.NO_ATOM;
+		for(Predicate predicate : predicates) {
+			int atom_id = predicate.groundedClone().getAtomId();
+			if(atom_id > _previous && (next == Predicate.NO_ATOM || atom_id < next))
+				next = atom_id;
+		}
+		return next;
+	}
+	
+	/**
+	 * Returns the lowest predicate of this set (according to
+	 * <i>Predicate.compareTo</i>) that is greater than a given predicate.
+	 * 
+	 *	@param _previous the previous predicate, or null to get the lowest
+	 *		predicate.
+	 *	@return the next predicate of the set, or null if there is no such
+	 *		predicate.
+	 *	@see #compareTo(PredicateSet)
+	 */
+	private Predicate nextPredicate(Predicate _previous) {
+		Predicate next = null;
+		for(Predicate predicate : predicates)
+			if((_previous == null || predicate.compareTo(_previous) > 0)
+					&& (next == null || predicate.compareTo(next) < 0))
+				next = predicate;
+		return next;
+	}
+	
+	/**
+	 * Removes a single predicate from the set.
+	 * 
+	 *	@param _predicate predicate that shoul be removed from the set.
+	 */
+	public void remove(Predicate _predicate) {
+		if(_predicate == null)
+			throw new NullPointerException();
+		predicates.remove(_predicate);
+		hashValid = false;
+	}
+	
+	/**
+	 * Converts the predicate set to string representation. Returns all
+	 * predicates in textual form, separated by commas.
+	 *	
+	 *	@see Predicate#toString()
+	 */
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < predicates.size(); i++) {
+			if(i > 0)
+				builder.append(',');
+			builder.append(predicates.get(i).toString());
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Constructor. Initializes an empty predicate set.
+	 */
+	public PredicateSet() {
+		initialize();
+	}
+}
@@ -0,0 +1,153 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.predicate;
+
+import java.util.*;
+
+/**
+ * Table of interned symbols. Each identifier (name of a predicate, of an
+ * action or a constant) that is read by the parser is assigned a unique
+ * integer id, and predicates and variable bindings only keep this id. Thanks
+ * to this, predicates can be compared using integer comparisons instead of
+ * comparing strings.
+ *
+ * The ids are assigned in the order in which the symbols are interned,
+ * starting from zero. Each planning problem has its own symbol table, so the
+ * ids are only meaningful within a single problem, and the table together
+ * with the atom table is released with the problem.
+ *
+ *	@author Ondra Sykora [ondrasej@matfyz.cz]
+ *	@see Predicate
+ *	@see ValueBinding
+ */
+public class SymbolTable {
+	/**
+	 * Value used for "no symbol". This is used for example for variables that
+	 * are not bound to any value.
+	 */
+	public static final int NO_SYMBOL = -1;
+
+	/**
+	 * Table of atoms built from the symbols of this table.
+	 *
+	 *	@see #getAtomTable()
+	 */
+	private AtomTable atoms;
+
+	/**
+	 * Mapping from names of the symbols to their ids.
+	 *
+	 *	@see #intern(String)
+	 */
+	private HashMap<String, Integer> symbolIds;
+
+	/**
+	 * List of names of the symbols, indexed by their ids.
+	 *
+	 *	@see #getName(int)
+	 */
+	private ArrayList<String> symbolNames;
+
+	/**
+	 * Types of objects declared or used in the problem, indexed by symbols of
+	 * their names.
+	 *
+	 *	@see #getType(int)
+	 */
+	private HashMap<Integer, ObjectType> types;
+
+	/**
+	 * Returns the table of atoms built from the symbols of this table.
+	 *
+	 *	@return the atom table of this symbol table.
+	 */
+	public AtomTable getAtomTable() {
+		return atoms;
+	}
+
+	/**
+	 * Returns a type of objects. If the type was not used before, a new type
+	 * with no objects is created; objects are added to it when the type is
+	 * declared. Types are kept with the symbol table, so that all inputs of
+	 * a planning problem share them.
+	 *
+	 *	@param _type_symbol id of the symbol with the name of the type.
+	 *	@return the type with the given name.
+	 */
+	public synchronized ObjectType getType(int _type_symbol) {
+		ObjectType type = types.get(_type_symbol);
+		if(type == null) {
+			type = new ObjectType(this, _type_symbol);
+			types.put(_type_symbol, type);
+		}
+		return type;
+	}
+
+	/**
+	 * Returns the name of a symbol.
+	 *
+	 *	@param _symbol id of the symbol.
+	 *	@return name of the symbol with id <i>_symbol</i>.
+	 *	@throws IndexOutOfBoundsException if there is no symbol with the given
+	 *		id.
+	 */
+	public synchronized String getName(int _symbol) {
+		if(_symbol < 0 || _symbol >= symbolNames.size())
+			throw new IndexOutOfBoundsException("_symbol is out of range");
+		return symbolNames.get(_symbol);
+	}
+
+	/**
+	 * Returns number of symbols in the table.
+	 *
+	 *	@return number of symbols in the table.
+	 */
+	public synchronized int getSymbolCount() {
+		return symbolNames.size();
+	}
+
+	/**
+	 * Returns the id of a symbol. If the symbol is not in the table yet, it is
+	 * added to the table and it gets a new id.
+	 *
+	 *	@param _name name of the symbol.
+	 *	@return id of the symbol.
+	 */
+	public synchronized int intern(String _name) {
+		if(_name == null)
+			throw new NullPointerException("_name parameter must not be null");
+		Integer symbol = symbolIds.get(_name);
+		if(symbol == null) {
+			symbol = symbolNames.size();
+			symbolIds.put(_name, symbol);
+			symbolNames.add(_name);
+		}
+		return symbol;
+	}
+
+	/**
+	 * Constructor. Creates a new empty symbol table.
+	 */
+	public SymbolTable() {
+		symbolIds = new HashMap<String, Integer>();
+		symbolNames = new ArrayList<String>();
+		types = new HashMap<Integer, ObjectType>();
+		atoms = new AtomTable(this);
+	}
+}
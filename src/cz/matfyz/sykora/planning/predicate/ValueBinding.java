@@ -1,246 +1,345 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package cz.matfyz.sykora.planning.predicate;
-
-import java.util.*;
-
-/**
- * Representation of a single variable in a predicate/action specification.
- * 
- * A variable can be either bound to a solid value (string) or linked with
- * other variables and recieve a value even if any other "linked" variable
- * revieved it.
- * 
- *	@author Ondra Sykora [ondrasej@centrum.cz]
- *	@see Predicate
- */
-public class ValueBinding {
-	/**
-	 * Value that is this variable bound to. If this variable is not bound yet,
-	 * this value is set to null.
-	 *
-	 *	@see #getValue()
-	 *	@see #isBound()
-	 */
-	private String boundValue;
-	
-	/**
-	 * List of dependent bindings. These variables are bound to the same value
-	 * as this one and if any of these variables gets bound, all other
-	 * variables are bound to the same value.
-	 *	
-	 *	@see #bind(ValueBinding)
-	 */
-	private LinkedList<ValueBinding> dependentBindings;
-	
-	/**
-	 * List of variables that must have distinct values. This may be used to
-	 * exclude some combinations of values in action preconditions without
-	 * having to set up special predicates that specify which atoms (values)
-	 * are different.
-	 * 
-	 * Binding to value that any of these variables is bound to fails
-	 * immediately.
-	 * 
-	 *	@see #bind(String)
-	 *	@see #addDistinctBinding(ValueBinding) 
-	 */
-	private LinkedList<ValueBinding> distinctBindings;
-	
-	/**
-	 * Adds a variable binding to the list of distinct variables.
-	 * 
-	 *	@param _binding distinct variable.
-	 */
-	public void addDistinctBinding(ValueBinding _binding) {
-		if(_binding == null)
-			throw new NullPointerException("_binding parameter must not be null");
-		if(_binding == this) {
-			assert(false);
-			return;
-		}
-		if(distinctBindings.contains(_binding))
-			return;
-		distinctBindings.add(_binding);
-	}
-	
-	/**
-	 * Binds this variable (and all linked variables) to a solid value. This
-	 * binding procedure may fail if one of the "distinct" variables is already
-	 * bound to the same value.
-	 * 
-	 *	@param _value value for this variable.
-	 *	@return true if the binding procedure succeeded, false if binding was
-	 * 		not possible.
-	 *	@see #boundValue
-	 *	@see #dependentBindings
-	 *	@see #distinctBindings
-	 *	@see #getValue()
-	 */
-	public boolean bind(String _value) {
-		if(_value == null)
-			throw new NullPointerException("_value parameter must not be null");
-		for(ValueBinding distinct : distinctBindings) {
-			if(distinct.isBound()
-					&& distinct.getValue().equals(_value))
-				return false;
-		}
-		for(ValueBinding binding : dependentBindings) {
-			if(binding.isBound()) {
-				assert(binding.getValue().equals(_value));
-				return binding.getValue().equals(_value);
-			}
-			else
-				binding.setValue(_value);
-		}
-		setValue(_value);
-		return true;
-	}
-	
-	/**
-	 * Links this variable with another variable. Variable <i>_binding</i> and
-	 * all it's linked variables are linked to this variable and to all it's
-	 * linked variables.
-	 *
-	 *	@param _binding variable that should be linked with this variable.
-	 *	@return true on successful linking, false if linking is not possible
-	 *		(when the variables should have different values).
-	 */
-	public boolean bind(ValueBinding _binding) {
-		if(_binding == null)
-			throw new NullPointerException("_binding parameter must not be null");
-		
-		// linking is not possible if this two variables shold have
-		// different values.
-		if(distinctBindings.contains(_binding))
-			return false;
-		if(_binding.isBound())
-			return bind(_binding.getValue());
-		else {
-			dependentBindings.addAll(_binding.dependentBindings);
-			for(ValueBinding binding : dependentBindings)
-				binding.dependentBindings = dependentBindings;
-		}
-		return true;
-	}
-	
-	/**
-	 * Resets the bound value. Also resets the bound value for all linked
-	 * variables.
-	 *
-	 *	@see #boundValue
-	 *	@see #setValue(String)
-	 */
-	public void clear() {
-		if(!isBound())
-			return;
-		for(ValueBinding binding : dependentBindings)
-			binding.setValue(null);
-		setValue(null);
-	}
-	
-	/**
-	 * Tests other variable for equality.
-	 * 
-	 * Two variable bindings are considered equal when they are both bound to
-	 * the same value or if they are linked. In other case they are considered
-	 * different.
-	 *
-	 *	@return true if the variables are equal, false otherwise.
-	 *	@see #isBound()
-	 *	@see #getValue()
-	 */
-	public boolean equals(Object _other) {
-		if(!(_other instanceof ValueBinding))
-			return false;
-		ValueBinding binding = (ValueBinding)_other;
-		if(binding.isBound() != isBound())
-			return false;
-		if(binding.isBound())
-			return binding.getValue().equals(getValue());
-		for (ValueBinding dependentBinding : dependentBindings) {
-			if (dependentBinding == binding) {
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	/**
-	 * Initializes internal structures of this class.
-	 */
-	private void initialize() {
-		dependentBindings = new LinkedList<ValueBinding>();
-		dependentBindings.add(this);
-		
-		distinctBindings = new LinkedList<ValueBinding>();
-	}
-	
-	/**
-	 * Returns value of this variable.
-	 *
-	 *	@return value to which this variable is bound or null when this
-	 *		variable is not bound.
-	 *	@see #boundValue
-	 *	@see #isBound()
-	 */
-	public String getValue() {
-		return boundValue;
-	}
-	
-	/**
-	 * Tests if this variable is bound to a solid value.
-	 * 
-	 *	@return true if this variable is bound, false otherwise.
-	 *	@see #boundValue
-	 */
-	public boolean isBound() {
-		return boundValue != null;
-	}
-	
-	/**
-	 * Sets the bound value.
-	 * 
-	 * This is helper method only, other objects should use <i>bind</i>
-	 * instead.
-	 *
-	 *	@param _value value to bind this variable to.
-	 */
-	private void setValue(String _value) {
-		boundValue = _value;
-	}
-	
-	/**
-	 * Constructor. Creates a new unbound variable.
-	 */
-	public ValueBinding() {
-		initialize();
-		boundValue = null;
-	}
-	
-	/**
-	 * Constructor. Creates a new variable bound to a specified value.
-	 *
-	 *	@param _value value for the new variable.
-	 */
-	public ValueBinding(String _value) {
-		initialize();
-		boundValue = _value;
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cz.matfyz.sykora.planning.predicate;
+
+import java.util.*;
+
+/**
+ * Representation of a single variable in a predicate/action specification.
+ * 
+ * A variable can be either bound to a solid value (symbol) or linked with
+ * other variables and recieve a value even if any other "linked" variable
+ * revieved it. The values are stored as ids of symbols from the symbol table
+ * of the planning problem, so that comparing values of two variables is an
+ * integer comparison.
+ * 
+ *	@author Ondra Sykora [ondrasej@centrum.cz]
+ *	@see Predicate
+ */
+public class ValueBinding {
+	/**
+	 * Id of the symbol that is this variable bound to. If this variable is
+	 * not bound yet, this value is set to <i>SymbolTable.NO_SYMBOL</i>.
+	 *
+	 *	@see #getSymbol()
+	 *	@see #isBound()
+	 */
+	private int boundSymbol;
+	
+	/**
+	 * List of dependent bindings. These variables are bound to the same value
+	 * as this one and if any of these variables gets bound, all other
+	 * variables are bound to the same value.
+	 * 
+	 * This list is null for constant bindings, which can not be linked to
+	 * other variables.
+	 *	
+	 *	@see #bind(ValueBinding)
+	 *	@see #isConstant()
+	 */
+	private LinkedList<ValueBinding> dependentBindings;
+	
+	/**
+	 * List of variables that must have distinct values. This may be used to
+	 * exclude some combinations of values in action preconditions without
+	 * having to set up special predicates that specify which atoms (values)
+	 * are different.
+	 * 
+	 * Binding to value that any of these variables is bound to fails
+	 * immediately. This list is null for constant bindings.
+	 * 
+	 *	@see #bind(int)
+	 *	@see #addDistinctBinding(ValueBinding) 
+	 */
+	private LinkedList<ValueBinding> distinctBindings;
+	
+	/**
+	 * Type of this variable. If the variable has a type, it can only be bound
+	 * to objects of this type. This is null for variables without a type and
+	 * for constant bindings.
+	 * 
+	 *	@see #getType()
+	 *	@see #setType(ObjectType)
+	 */
+	private ObjectType type;
+	
+	/**
+	 * Adds a variable binding to the list of distinct variables.
+	 * 
+	 *	@param _binding distinct variable.
+	 *	@throws IllegalStateException if this binding is a constant binding.
+	 */
+	public void addDistinctBinding(ValueBinding _binding) {
+		if(_binding == null)
+			throw new NullPointerException("_binding parameter must not be null");
+		if(_binding == this) {
+			assert(false);
+			return;
+		}
+		if(isConstant())
+			throw new IllegalStateException("Constant bindings can not have distinct bindings");
+		if(distinctBindings.contains(_binding))
+			return;
+		distinctBindings.add(_binding);
+	}
+	
+	/**
+	 * Binds this variable (and all linked variables) to a symbol. This
+	 * binding procedure may fail if one of the "distinct" variables is already
+	 * bound to the same symbol.
+	 * 
+	 *	@param _symbol id of the symbol for this variable.
+	 *	@return true if the binding procedure succeeded, false if binding was
+	 * 		not possible (because of a distinct variable or because the symbol
+	 *		is not of the type of one of the linked variables).
+	 *	@see #boundSymbol
+	 *	@see #dependentBindings
+	 *	@see #distinctBindings
+	 *	@see #getSymbol()
+	 */
+	public boolean bind(int _symbol) {
+		if(_symbol == SymbolTable.NO_SYMBOL)
+			throw new IllegalArgumentException("_symbol must be a valid symbol id");
+		if(isConstant())
+			return boundSymbol == _symbol;
+		for(ValueBinding distinct : distinctBindings) {
+			if(distinct.boundSymbol == _symbol)
+				return false;
+		}
+		for(ValueBinding binding : dependentBindings) {
+			if(binding.type != null && !binding.type.contains(_symbol))
+				return false;
+		}
+		for(ValueBinding binding : dependentBindings) {
+			if(binding.isBound()) {
+				assert(binding.boundSymbol == _symbol);
+				return binding.boundSymbol == _symbol;
+			}
+			else
+				binding.setSymbol(_symbol);
+		}
+		setSymbol(_symbol);
+		return true;
+	}
+	
+	/**
+	 * Links this variable with another variable. Variable <i>_binding</i> and
+	 * all it's linked variables are linked to this variable and to all it's
+	 * linked variables.
+	 *
+	 *	@param _binding variable that should be linked with this variable.
+	 *	@return true on successful linking, false if linking is not possible
+	 *		(when the variables should have different values).
+	 */
+	public boolean bind(ValueBinding _binding) {
+		if(_binding == null)
+			throw new NullPointerException("_binding parameter must not be null");
+		
+		if(isConstant())
+			return _binding.isBound() ? _binding.getSymbol() == boundSymbol : _binding.bind(boundSymbol);
+		// linking is not possible if this two variables shold have
+		// different values.
+		if(distinctBindings.contains(_binding))
+			return false;
+		if(_binding.isBound())
+			return bind(_binding.getSymbol());
+		else {
+			dependentBindings.addAll(_binding.dependentBindings);
+			for(ValueBinding binding : dependentBindings)
+				binding.dependentBindings = dependentBindings;
+		}
+		return true;
+	}
+	
+	/**
+	 * Resets the bound value. Also resets the bound value for all linked
+	 * variables. Constant bindings are never reset.
+	 *
+	 *	@see #boundSymbol
+	 *	@see #setSymbol(int)
+	 */
+	public void clear() {
+		if(!isBound() || isConstant())
+			return;
+		for(ValueBinding binding : dependentBindings)
+			binding.setSymbol(SymbolTable.NO_SYMBOL);
+		setSymbol(SymbolTable.NO_SYMBOL);
+	}
+	
+	/**
+	 * Tests other variable for equality.
+	 * 
+	 * Two variable bindings are considered equal when they are both bound to
+	 * the same value or if they are linked. In other case they are considered
+	 * different.
+	 *
+	 *	@return true if the variables are equal, false otherwise.
+	 *	@see #isBound()
+	 *	@see #getSymbol()
+	 */
+	public boolean equals(Object _other) {
+		if(!(_other instanceof ValueBinding))
+			return false;
+		ValueBinding binding = (ValueBinding)_other;
+		if(binding.isBound() != isBound())
+			return false;
+		if(binding.isBound())
+			return binding.boundSymbol == boundSymbol;
+		for (ValueBinding dependentBinding : dependentBindings) {
+			if (dependentBinding == binding) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns hash code of this variable. The hash code is consistent with
+	 * <i>equals</i>: bound variables are hashed by their values and all
+	 * unbound variables share the same hash code.
+	 *
+	 *	@return hash code of this variable.
+	 */
+	public int hashCode() {
+		return boundSymbol;
+	}
+	
+	/**
+	 * Initializes internal structures of this class.
+	 */
+	private void initialize() {
+		dependentBindings = new LinkedList<ValueBinding>();
+		dependentBindings.add(this);
+		
+		distinctBindings = new LinkedList<ValueBinding>();
+	}
+	
+	/**
+	 * Returns id of the symbol to which this variable is bound.
+	 *
+	 *	@return id of the symbol to which this variable is bound or
+	 *		<i>SymbolTable.NO_SYMBOL</i> when this variable is not bound.
+	 *	@see #boundSymbol
+	 */
+	public final int getSymbol() {
+		return boundSymbol;
+	}
+	
+	/**
+	 * Returns type of this variable.
+	 *
+	 *	@return type of this variable or null if the variable has no type.
+	 *	@see #type
+	 */
+	public final ObjectType getType() {
+		return type;
+	}
+	
+	/**
+	 * Tests if this variable must have a value distinct from another
+	 * variable.
+	 *
+	 *	@param _binding the other variable.
+	 *	@return true if the variables must have distinct values.
+	 *	@see #addDistinctBinding(ValueBinding)
+	 */
+	public boolean isDistinctFrom(ValueBinding _binding) {
+		return distinctBindings != null && distinctBindings.contains(_binding);
+	}
+	
+	/**
+	 * Tests if this variable is an immutable constant binding. Constant
+	 * bindings are shared by the atoms in the atom table.
+	 * 
+	 *	@return true if this variable is a constant binding, false otherwise.
+	 *	@see AtomTable
+	 */
+	public final boolean isConstant() {
+		return dependentBindings == null;
+	}
+	
+	/**
+	 * Tests if this variable is bound to a solid value.
+	 * 
+	 *	@return true if this variable is bound, false otherwise.
+	 *	@see #boundSymbol
+	 */
+	public final boolean isBound() {
+		return boundSymbol != SymbolTable.NO_SYMBOL;
+	}
+	
+	/**
+	 * Sets the bound symbol.
+	 * 
+	 * This is helper method only, other objects should use <i>bind</i>
+	 * instead.
+	 *
+	 *	@param _symbol id of the symbol to bind this variable to.
+	 */
+	private void setSymbol(int _symbol) {
+		boundSymbol = _symbol;
+	}
+	
+	/**
+	 * Sets type of this variable. The variable can then be bound only to
+	 * objects of this type.
+	 *
+	 *	@param _type type of the variable or null for no type.
+	 *	@throws IllegalStateException if this binding is a constant binding.
+	 *	@see #type
+	 */
+	public void setType(ObjectType _type) {
+		if(isConstant())
+			throw new IllegalStateException("Constant bindings can not have a type");
+		type = _type;
+	}
+	
+	/**
+	 * Constructor. Creates a new unbound variable.
+	 */
+	public ValueBinding() {
+		initialize();
+		boundSymbol = SymbolTable.NO_SYMBOL;
+	}
+	
+	/**
+	 * Constructor. Creates a new variable bound to a specified symbol.
+	 *
+	 *	@param _symbol id of the symbol for the new variable.
+	 */
+	public ValueBinding(int _symbol) {
+		initialize();
+		boundSymbol = _symbol;
+	}
+	
+	/**
+	 * Creates a new immutable binding to a constant. Constant bindings do not
+	 * allocate lists of dependent and distinct bindings.
+	 *
+	 *	@param _symbol id of the symbol of the constant.
+	 *	@return a new constant binding.
+	 *	@see AtomTable
+	 */
+	static ValueBinding constant(int _symbol) {
+		ValueBinding constant = new ValueBinding(_symbol);
+		constant.dependentBindings = null;
+		constant.distinctBindings = null;
+		return constant;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.concurrent.*;
+
+import junit.framework.TestCase;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class GrounderTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testGround() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("kup :: mam(penize),zbozi(X) => not mam(penize),mam(X).", symbols));
+		actions.add(Action.parse("prodej :: mam(X),zbozi(X) => not mam(X),mam(penize).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("mam(orezavatko).", symbols));
+		initial_state.add(Predicate.parse("zbozi(orezavatko).", symbols));
+		initial_state.add(Predicate.parse("zbozi(brambory).", symbols));
+		
+		ActionList grounded = Grounder.ground(actions, initial_state, symbols.getAtomTable());
+		// kup(orezavatko), kup(brambory), prodej(orezavatko), prodej(brambory)
+		assertEquals(4, grounded.size());
+		for(Action action : grounded)
+			assertTrue(action.isGrounded());
+		assertTrue(grounded.contains(Action.parse("prodej :: mam(brambory),zbozi(brambory) => not mam(brambory),mam(penize).", symbols)));
+	}
+	
+	public void testUnreachable() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("jdi :: at(X), cesta(X, Y) => not at(X), at(Y).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("at(a).", symbols));
+		initial_state.add(Predicate.parse("cesta(a, b).", symbols));
+		initial_state.add(Predicate.parse("cesta(c, d).", symbols));
+		
+		ActionList grounded = Grounder.ground(actions, initial_state, symbols.getAtomTable());
+		assertEquals(1, grounded.size());
+		assertEquals(Action.parse("jdi :: at(a), cesta(a, b) => not at(a), at(b).", symbols), grounded.get(0));
+	}
+	
+	public void testParallelGround() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("jdi :: at(X), cesta(X, Y) => not at(X), at(Y).", symbols));
+		actions.add(Action.parse("zpet :: at(Y), cesta(X, Y) => not at(Y), at(X).", symbols));
+		actions.add(Action.parse("spoj :: cesta(X, Y) => spojeno(X, Y).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("at(m0).", symbols));
+		for(int i = 0; i < 100; i++)
+			initial_state.add(Predicate.parse("cesta(m" + i + ", m" + (i + 1) + ").", symbols));
+		
+		ActionList sequential = Grounder.ground(actions, initial_state, symbols.getAtomTable());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ActionList parallel = Grounder.ground(actions, initial_state, symbols.getAtomTable(), pool);
+			assertEquals(300, sequential.size());
+			assertEquals(sequential, parallel);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
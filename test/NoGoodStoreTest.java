@@ -0,0 +1,58 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import junit.framework.TestCase;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class NoGoodStoreTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	private PredicateSet parseSet(String... _predicates) {
+		PredicateSet result = new PredicateSet();
+		for(String predicate : _predicates)
+			result.add(Predicate.parse(predicate, symbols));
+		return result.freeze();
+	}
+	
+	public void testContainsSubsetOf() {
+		NoGoodStore store = new NoGoodStore();
+		assertFalse(store.containsSubsetOf(parseSet("at(a).")));
+		
+		assertTrue(store.add(parseSet("at(a).", "mam(b).")));
+		assertTrue(store.add(parseSet("at(c).")));
+		assertFalse(store.add(parseSet("mam(b).", "at(a).")));
+		assertEquals(2, store.getSize());
+		
+		assertTrue(store.containsSubsetOf(parseSet("at(a).", "mam(b).")));
+		assertTrue(store.containsSubsetOf(parseSet("mam(b).", "at(a).", "mam(d).")));
+		assertTrue(store.containsSubsetOf(parseSet("mam(d).", "at(c).")));
+		assertFalse(store.containsSubsetOf(parseSet("at(a).", "mam(d).")));
+		assertFalse(store.containsSubsetOf(parseSet("mam(b).")));
+	}
+	
+	public void testManyNoGoods() {
+		NoGoodStore store = new NoGoodStore();
+		for(int i = 0; i < 100; i++)
+			store.add(parseSet("at(m" + i + ").", "mam(v" + (i % 7) + ")."));
+		assertEquals(100, store.getSize());
+		assertTrue(store.containsSubsetOf(parseSet("mam(v3).", "at(m94).", "at(m1).")));
+		assertFalse(store.containsSubsetOf(parseSet("mam(v4).", "at(m94).", "at(m3).")));
+	}
+}
@@ -0,0 +1,149 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class PlanExtractorTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testLongPath() {
+		final int length = 120;
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("jdi :: at(X), cesta(X, Y) => not at(X), at(Y).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("at(m0).", symbols));
+		for(int i = 0; i < length; i++)
+			initial_state.add(Predicate.parse("cesta(m" + i + ", m" + (i + 1) + ").", symbols));
+		PredicateSet goals = new PredicateSet();
+		goals.add(Predicate.parse("at(m" + length + ").", symbols));
+		
+		PlanningGraph graph = new PlanningGraph(initial_state, symbols.getAtomTable());
+		ArrayList<NoGoodStore> no_goods = new ArrayList<NoGoodStore>();
+		no_goods.add(new NoGoodStore());
+		while(!graph.containsFacts(goals, graph.getLastLevel())) {
+			graph.expand(actions);
+			no_goods.add(new NoGoodStore());
+		}
+		assertEquals(length, graph.getLastLevel());
+		
+		PlanExtractor extractor = new PlanExtractor(graph, no_goods,
+				GoalOrder.NATURAL, SupporterOrder.NO_OP_FIRST);
+		extractor.start(graph.getLastLevel(), goals.freeze());
+		// the search is paused after each selected supporter
+		int pauses = 0;
+		while(!extractor.search(1)) {
+			pauses++;
+			assertFalse(extractor.isFinished());
+			assertTrue(extractor.getDepth() > 0);
+			assertNull(extractor.getPlan());
+		}
+		assertTrue(pauses >= length - 1);
+		ActionList plan = extractor.getPlan();
+		assertNotNull(plan);
+		assertEquals(length, plan.size());
+		for(int i = 0; i < length; i++)
+			assertTrue(plan.get(i).getPositiveEffects().contains(Predicate.parse("at(m" + (i + 1) + ").", symbols)));
+		
+		// an unlimited search finds the same plan
+		PlanExtractor other = new PlanExtractor(graph, no_goods,
+				GoalOrder.NATURAL, SupporterOrder.NO_OP_FIRST);
+		other.start(graph.getLastLevel(), goals.freeze());
+		assertTrue(other.search(Long.MAX_VALUE));
+		assertEquals(plan, other.getPlan());
+		assertEquals(extractor.getSupporterTrials(), other.getSupporterTrials());
+		
+		// a cancelled search does not continue
+		PlanExtractor cancelled = new PlanExtractor(graph, no_goods,
+				GoalOrder.NATURAL, SupporterOrder.RANDOM);
+		cancelled.start(graph.getLastLevel(), goals.freeze());
+		assertFalse(cancelled.search(10));
+		cancelled.cancel();
+		assertFalse(cancelled.search(Long.MAX_VALUE));
+		assertTrue(cancelled.isCancelled());
+		assertFalse(cancelled.isFinished());
+		assertEquals(10, cancelled.getSupporterTrials());
+	}
+	
+	public void testNoPlan() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("vezmi :: volno, vec(X) => not volno, drzim(X).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("volno.", symbols));
+		initial_state.add(Predicate.parse("vec(a).", symbols));
+		initial_state.add(Predicate.parse("vec(b).", symbols));
+		PredicateSet goals = new PredicateSet();
+		goals.add(Predicate.parse("drzim(a).", symbols));
+		goals.add(Predicate.parse("drzim(b).", symbols));
+		
+		PlanningGraph graph = new PlanningGraph(initial_state, symbols.getAtomTable());
+		ArrayList<NoGoodStore> no_goods = new ArrayList<NoGoodStore>();
+		no_goods.add(new NoGoodStore());
+		for(int level = 0; level < 3; level++) {
+			graph.expand(actions);
+			no_goods.add(new NoGoodStore());
+		}
+		
+		// both things can be held at the last level, but not at once; the
+		// goals are mutex, so the search does not select any supporter
+		PlanExtractor extractor = new PlanExtractor(graph, no_goods,
+				GoalOrder.NATURAL, SupporterOrder.NATURAL);
+		extractor.start(graph.getLastLevel(), goals.freeze());
+		assertTrue(extractor.isFinished());
+		assertTrue(extractor.search(Long.MAX_VALUE));
+		assertNull(extractor.getPlan());
+		assertEquals(0, extractor.getDepth());
+		assertEquals(0, extractor.getSupporterTrials());
+		
+		// a single thing can be held
+		PredicateSet single_goal = new PredicateSet();
+		single_goal.add(Predicate.parse("drzim(b).", symbols));
+		extractor.start(graph.getLastLevel(), single_goal.freeze());
+		assertTrue(extractor.search(Long.MAX_VALUE));
+		assertNotNull(extractor.getPlan());
+		assertEquals(1, extractor.getPlan().size());
+		
+		// the thing is either held already, or it is taken at the last level
+		extractor.startSelections(graph.getLastLevel(), single_goal.freeze());
+		int selections = 0;
+		boolean taken = false;
+		while(extractor.nextSelection()) {
+			selections++;
+			ActionList selection = extractor.getSelection();
+			PredicateSet subgoals = extractor.getSelectionSubgoals();
+			if(selection.isEmpty())
+				assertTrue(subgoals.contains(Predicate.parse("drzim(b).", symbols)));
+			else {
+				assertEquals(1, selection.size());
+				assertTrue(subgoals.contains(Predicate.parse("volno.", symbols)));
+				taken = true;
+			}
+		}
+		assertEquals(2, selections);
+		assertTrue(taken);
+		assertTrue(extractor.isFinished());
+		assertNull(extractor.getPlan());
+	}
+}
@@ -0,0 +1,81 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import junit.framework.TestCase;
+
+import java.util.*;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class SchemaMatcherTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testFindInstances() {
+		Action action = Action.parse("jdi :: at(X), cesta(X, Y), distinct(X, Y) => not at(X), at(Y).", symbols);
+		
+		PredicateLayer layer = new PredicateLayer(symbols.getAtomTable());
+		layer.add(Predicate.parse("at(a).", symbols));
+		layer.add(Predicate.parse("cesta(a, a).", symbols));
+		layer.add(Predicate.parse("cesta(a, b).", symbols));
+		layer.add(Predicate.parse("cesta(b, c).", symbols));
+		
+		TreeSet<Action> instances = new TreeSet<Action>();
+		HashMap<Predicate, ActionList> dependencies = new HashMap<Predicate, ActionList>();
+		new SchemaMatcher(action).findInstances(layer, instances, dependencies);
+		
+		assertEquals(1, instances.size());
+		Action instance = instances.first();
+		assertTrue(instance.isGrounded());
+		assertEquals(Action.parse("jdi :: at(a), cesta(a, b) => not at(a), at(b).", symbols), instance);
+		assertSame(instance, dependencies.get(Predicate.parse("at(a).", symbols)).get(0));
+		assertNull(dependencies.get(Predicate.parse("cesta(b, c).", symbols)));
+		
+		// variables of the schema are not changed by the search
+		assertFalse(action.getPreconditions().getPredicate(0).getParameter(0).isBound());
+	}
+	
+	public void testRepeatedVariable() {
+		Action action = Action.parse("zpet :: cesta(X, X) => smycka(X).", symbols);
+		
+		PredicateLayer layer = new PredicateLayer(symbols.getAtomTable());
+		layer.add(Predicate.parse("cesta(a, a).", symbols));
+		layer.add(Predicate.parse("cesta(a, b).", symbols));
+		
+		TreeSet<Action> instances = new TreeSet<Action>();
+		new SchemaMatcher(action).findInstances(layer, instances, null);
+		assertEquals(1, instances.size());
+		assertEquals(Predicate.parse("smycka(a).", symbols), instances.first().getPositiveEffects().getPredicate(0));
+	}
+	
+	public void testMutexPreconditions() {
+		Action action = Action.parse("oba :: at(X), at(Y), distinct(X, Y) => spolu(X, Y).", symbols);
+		
+		PredicateLayer layer = new PredicateLayer(symbols.getAtomTable());
+		layer.add(Predicate.parse("at(a).", symbols));
+		layer.add(Predicate.parse("at(b).", symbols));
+		layer.add(Predicate.parse("at(c).", symbols));
+		layer.addMutex(0, 1);
+		
+		TreeSet<Action> instances = new TreeSet<Action>();
+		new SchemaMatcher(action).findInstances(layer, instances, null);
+		// (a, c), (c, a), (b, c), (c, b)
+		assertEquals(4, instances.size());
+	}
+}
@@ -0,0 +1,66 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class SearchTaskTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testRepeatedSubgoals() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("nastartuj :: klic => motor.", symbols));
+		actions.add(Action.parse("jed :: motor => cil.", symbols));
+		actions.add(Action.parse("let :: motor => cil.", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("klic.", symbols));
+		PredicateSet goals = new PredicateSet();
+		goals.add(Predicate.parse("cil.", symbols));
+		
+		PlanningGraph graph = new PlanningGraph(initial_state, symbols.getAtomTable());
+		ArrayList<NoGoodStore> no_goods = new ArrayList<NoGoodStore>();
+		no_goods.add(new NoGoodStore());
+		while(!graph.containsFacts(goals, graph.getLastLevel())) {
+			graph.expand(actions);
+			no_goods.add(new NoGoodStore());
+		}
+		assertEquals(2, graph.getLastLevel());
+		
+		// both ways to the goal need the same subgoals; with a single thread,
+		// the first subtask waits in the queue, so the second selection finds
+		// its subgoals in the memo
+		SearchTask task = new SearchTask(graph, no_goods, GoalOrder.NATURAL,
+				SupporterOrder.NATURAL, graph.getLastLevel(), goals.freeze());
+		ForkJoinPool pool = new ForkJoinPool(1);
+		pool.invoke(task);
+		pool.shutdown();
+		ActionList plan = task.getPlan();
+		assertNotNull(plan);
+		assertEquals(2, plan.size());
+		assertTrue(plan.get(0).getPositiveEffects().contains(Predicate.parse("motor.", symbols)));
+		assertTrue(plan.get(1).getPositiveEffects().contains(Predicate.parse("cil.", symbols)));
+		assertEquals(1, task.getMemoHitCount());
+	}
+}
@@ -0,0 +1,55 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import junit.framework.TestCase;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class StaticPredicatesTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testStaticPredicates() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("jdi :: at(X), cesta(X, Y) => not at(X), at(Y).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("at(a).", symbols));
+		initial_state.add(Predicate.parse("cesta(a, b).", symbols));
+		initial_state.add(Predicate.parse("cesta(b, c).", symbols));
+		
+		StaticPredicates static_predicates = new StaticPredicates(actions, initial_state, symbols.getAtomTable());
+		assertTrue(static_predicates.isStatic(Predicate.parse("cesta(c, a).", symbols)));
+		assertFalse(static_predicates.isStatic(Predicate.parse("at(c).", symbols)));
+		// predicates with a different number of parameters are different
+		assertTrue(static_predicates.isStatic(Predicate.parse("at(a, b).", symbols)));
+		
+		assertEquals(2, static_predicates.getFacts().getPredicateCount());
+		assertTrue(static_predicates.getFacts().contains(Predicate.parse("cesta(b, c).", symbols)));
+		
+		PredicateSet fluents = static_predicates.removeStatic(initial_state);
+		assertEquals(1, fluents.getPredicateCount());
+		assertEquals(Predicate.parse("at(a).", symbols), fluents.getPredicate(0));
+		
+		Action grounded = Grounder.ground(actions, initial_state, symbols.getAtomTable()).get(0);
+		Action compiled = static_predicates.removeStatic(grounded);
+		assertEquals(1, compiled.getPreconditions().getPredicateCount());
+		assertEquals(grounded.getPositiveEffects(), compiled.getPositiveEffects());
+		assertSame(compiled, static_predicates.removeStatic(compiled));
+	}
+}
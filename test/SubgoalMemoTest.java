@@ -0,0 +1,60 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import junit.framework.TestCase;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class SubgoalMemoTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	private PredicateSet parseSet(String... _predicates) {
+		PredicateSet result = new PredicateSet();
+		for(String predicate : _predicates)
+			result.add(Predicate.parse(predicate, symbols));
+		return result.freeze();
+	}
+	
+	public void testPutIfAbsent() {
+		SubgoalMemo<String> memo = new SubgoalMemo<String>(2);
+		assertNull(memo.get(parseSet("at(a).")));
+		
+		assertNull(memo.putIfAbsent(parseSet("at(a).", "mam(b)."), "first"));
+		// the order of the goals does not matter
+		assertEquals("first", memo.putIfAbsent(parseSet("mam(b).", "at(a)."), "second"));
+		assertEquals("first", memo.get(parseSet("mam(b).", "at(a).")));
+		assertNull(memo.get(parseSet("at(a).")));
+		assertEquals(2, memo.getHitCount());
+		assertEquals(1, memo.getSize());
+	}
+	
+	public void testEviction() {
+		SubgoalMemo<String> memo = new SubgoalMemo<String>(2);
+		assertNull(memo.putIfAbsent(parseSet("at(a)."), "a"));
+		assertNull(memo.putIfAbsent(parseSet("at(b)."), "b"));
+		// at(a) becomes the most recently used set, at(b) is evicted
+		assertEquals("a", memo.get(parseSet("at(a).")));
+		assertNull(memo.putIfAbsent(parseSet("at(c)."), "c"));
+		assertEquals(2, memo.getSize());
+		assertEquals(2, memo.getCapacity());
+		assertNull(memo.get(parseSet("at(b).")));
+		assertEquals("a", memo.get(parseSet("at(a).")));
+		assertEquals("c", memo.get(parseSet("at(c).")));
+	}
+}
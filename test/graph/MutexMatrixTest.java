@@ -0,0 +1,101 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package graph;
+
+import java.util.BitSet;
+
+import cz.matfyz.sykora.planning.graph.*;
+import junit.framework.TestCase;
+
+public class MutexMatrixTest extends TestCase {
+	public void testAdd() {
+		MutexMatrix matrix = new MutexMatrix();
+		
+		assertTrue(matrix.add(0, 3));
+		assertFalse(matrix.add(3, 0));
+		assertTrue(matrix.add(130, 2));
+		
+		assertTrue(matrix.contains(0, 3));
+		assertTrue(matrix.contains(3, 0));
+		assertTrue(matrix.contains(2, 130));
+		assertFalse(matrix.contains(0, 2));
+		assertFalse(matrix.contains(500, 2));
+		assertEquals(2, matrix.getPairCount());
+	}
+	
+	public void testAddAll() {
+		MutexMatrix matrix = new MutexMatrix();
+		matrix.add(1, 4);
+		
+		BitSet items = new BitSet();
+		items.set(1);
+		items.set(4);
+		items.set(7);
+		assertEquals(1, matrix.addAll(1, items));
+		assertEquals(0, matrix.addAll(1, items));
+		assertTrue(matrix.contains(7, 1));
+		assertFalse(matrix.contains(1, 1));
+		assertEquals(2, matrix.getPairCount());
+	}
+	
+	public void testIntersects() {
+		MutexMatrix matrix = new MutexMatrix(4);
+		matrix.add(0, 1);
+		matrix.add(0, 2);
+		
+		BitSet items = new BitSet();
+		items.set(2);
+		items.set(3);
+		assertTrue(matrix.intersects(0, items));
+		assertFalse(matrix.intersects(1, items));
+		assertFalse(matrix.intersects(3, items));
+	}
+	
+	public void testRemove() {
+		MutexMatrix matrix = new MutexMatrix();
+		matrix.add(0, 2);
+		matrix.add(1, 2);
+		matrix.add(3, 70);
+		matrix.add(0, 3);
+		
+		matrix.remove(2);
+		assertEquals(2, matrix.getPairCount());
+		assertFalse(matrix.contains(0, 1));
+		assertTrue(matrix.contains(2, 69));
+		assertTrue(matrix.contains(69, 2));
+		assertTrue(matrix.contains(0, 2));
+		assertFalse(matrix.contains(3, 70));
+		
+		MutexMatrix expected = new MutexMatrix();
+		expected.add(2, 69);
+		expected.add(0, 2);
+		assertEquals(expected, matrix);
+	}
+	
+	public void testEquals() {
+		MutexMatrix first = new MutexMatrix();
+		MutexMatrix second = new MutexMatrix(100);
+		first.add(1, 2);
+		second.add(2, 1);
+		assertEquals(first, second);
+		
+		second.add(5, 6);
+		assertFalse(first.equals(second));
+	}
+}
@@ -0,0 +1,153 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package graph;
+
+import java.util.BitSet;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+import junit.framework.TestCase;
+
+public class PlanningGraphTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testExpand() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("vezmi :: volno, vec(X) => not volno, drzim(X).", symbols));
+		actions.add(Action.parse("poloz :: drzim(X) => not drzim(X), volno, mam(X).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("volno.", symbols));
+		initial_state.add(Predicate.parse("vec(a).", symbols));
+		initial_state.add(Predicate.parse("vec(b).", symbols));
+		
+		PlanningGraph graph = new PlanningGraph(initial_state, symbols.getAtomTable());
+		assertEquals(0, graph.getLastLevel());
+		assertEquals(3, graph.getFactCount(0));
+		
+		for(int level = 0; level < 4; level++)
+			graph.expand(actions);
+		assertEquals(4, graph.getLastLevel());
+		
+		// facts keep their indices between levels
+		assertEquals(0, graph.getFactIndex(Predicate.parse("volno.", symbols)));
+		for(int fact = 0; fact < graph.getFactCount(0); fact++)
+			assertEquals(0, graph.getFactLevel(fact));
+		
+		int drzim_a = graph.getFactIndex(Predicate.parse("drzim(a).", symbols));
+		int mam_a = graph.getFactIndex(Predicate.parse("mam(a).", symbols));
+		int mam_b = graph.getFactIndex(Predicate.parse("mam(b).", symbols));
+		assertEquals(1, graph.getFactLevel(drzim_a));
+		assertEquals(2, graph.getFactLevel(mam_a));
+		assertEquals(2, graph.getFactLevel(mam_b));
+		
+		// both things can not be put down at once, but they can be later
+		assertTrue(graph.isFactMutex(mam_a, mam_b, 2));
+		assertFalse(graph.isFactMutex(mam_a, mam_b, 4));
+		
+		PredicateSet goals = new PredicateSet();
+		goals.add(Predicate.parse("mam(a).", symbols));
+		goals.add(Predicate.parse("mam(b).", symbols));
+		assertFalse(graph.containsFacts(goals, 1));
+		assertFalse(graph.containsFacts(goals, 2));
+		assertTrue(graph.containsFacts(goals, 4));
+		
+		// supporters are sorted by the level at which they appeared
+		assertEquals(0, graph.getSupporterCount(mam_a, 1));
+		int supporters = graph.getSupporterCount(mam_a, 2);
+		assertEquals(1, supporters);
+		assertEquals(2, graph.getActionLevel(graph.getSupporter(mam_a, 0)));
+		assertEquals(1, graph.getSupporterCount(mam_a, 3));
+		
+		// effects are indices of facts of the graph, not ids of atoms
+		int[] effects = graph.getActionEffects(graph.getSupporter(mam_a, 0));
+		assertEquals(2, effects.length);
+		assertEquals(Math.min(mam_a, 0), effects[0]);
+		assertEquals(Math.max(mam_a, 0), effects[1]);
+		
+		// no-ops are implicit, they are not among the supporters
+		assertFalse(graph.hasNoOp(mam_a, 2));
+		assertTrue(graph.hasNoOp(mam_a, 3));
+		int poloz_a = graph.getSupporter(mam_a, 0);
+		assertTrue(graph.isNoOpMutex(drzim_a, poloz_a, 2));
+		assertTrue(graph.isNoOpMutex(mam_b, poloz_a, 3));
+		assertFalse(graph.isNoOpMutex(mam_b, poloz_a, 4));
+	}
+	
+	public void testMutexRows() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("vezmi :: volno, vec(X) => not volno, drzim(X).", symbols));
+		actions.add(Action.parse("poloz :: drzim(X) => not drzim(X), volno, mam(X).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("volno.", symbols));
+		initial_state.add(Predicate.parse("vec(a).", symbols));
+		initial_state.add(Predicate.parse("vec(b).", symbols));
+		
+		PlanningGraph graph = new PlanningGraph(initial_state, symbols.getAtomTable());
+		graph.expand(actions);
+		graph.expand(actions);
+		// rows of the last level are cached, they must not change later
+		assertMutexRows(graph, 2);
+		graph.expand(actions);
+		graph.expand(actions);
+		for(int level = 1; level <= graph.getLastLevel(); level++)
+			assertMutexRows(graph, level);
+	}
+	
+	private static void assertMutexRows(PlanningGraph _graph, int _level) {
+		for(int action = 0; action < _graph.getActionCount(_level); action++) {
+			BitSet row = _graph.getActionMutexRow(action, _level);
+			for(int other = 0; other < _graph.getActionCount(_level); other++)
+				assertEquals(_graph.isActionMutex(action, other, _level), row.get(other));
+			assertTrue(row.length() <= _graph.getActionCount(_level));
+		}
+		for(int fact = 0; fact < _graph.getFactCount(_level - 1); fact++) {
+			BitSet column = _graph.getNoOpMutexColumn(fact, _level);
+			for(int action = 0; action < _graph.getActionCount(_level); action++)
+				assertEquals(_graph.isNoOpMutex(fact, action, _level), column.get(action));
+		}
+	}
+	
+	public void testLevelOff() {
+		ActionList actions = new ActionList();
+		actions.add(Action.parse("jdi :: at(X), cesta(X, Y) => not at(X), at(Y).", symbols));
+		
+		PredicateSet initial_state = new PredicateSet();
+		initial_state.add(Predicate.parse("at(a).", symbols));
+		initial_state.add(Predicate.parse("cesta(a, b).", symbols));
+		initial_state.add(Predicate.parse("cesta(b, c).", symbols));
+		
+		PlanningGraph graph = new PlanningGraph(initial_state, symbols.getAtomTable());
+		assertFalse(graph.isLevelledOff());
+		PredicateLayer previous = graph.getLastPredicateLayer();
+		int level = 0;
+		while(!graph.isLevelledOff()) {
+			assertTrue(level++ < 10);
+			graph.expand(actions);
+			assertEquals(graph.getAddedFactCount(),
+					graph.getLastPredicateLayer().getPredicateCount() - previous.getPredicateCount());
+			assertEquals(previous.equals(graph.getLastPredicateLayer()), graph.isLevelledOff());
+			previous = graph.getLastPredicateLayer();
+		}
+		assertEquals(0, graph.getAddedFactCount());
+		assertEquals(0, graph.getRemovedFactMutexCount());
+	}
+}
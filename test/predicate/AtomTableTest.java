@@ -0,0 +1,81 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package predicate;
+
+import junit.framework.TestCase;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class AtomTableTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testIntern() {
+		AtomTable table = symbols.getAtomTable();
+		
+		Predicate first = table.intern(Predicate.parse("at(home).", symbols));
+		Predicate second = table.intern(Predicate.parse("at(home).", symbols));
+		Predicate third = table.intern(Predicate.parse("at(work).", symbols));
+		
+		assertTrue(first.isAtom());
+		assertSame(first, second);
+		assertNotSame(first, third);
+		assertSame(first, table.getAtom(first.getAtomId()));
+		assertEquals(Predicate.parse("at(home).", symbols), first);
+		assertEquals(Predicate.parse("at(home).", symbols).hashCode(), first.hashCode());
+	}
+	
+	public void testGroundedClone() {
+		Predicate schema = Predicate.parse("at(X).", symbols);
+		assertTrue(schema.getParameter(0).bind(symbols.intern("school")));
+		
+		Predicate atom = schema.groundedClone();
+		schema.clearBindings();
+		atom.clearBindings();
+		
+		assertTrue(atom.isGrounded());
+		assertFalse(schema.isGrounded());
+		assertEquals("at(school)", atom.toString());
+		assertSame(atom, Predicate.parse("at(school).", symbols).groundedClone());
+	}
+	
+	public void testInternSymbols() {
+		AtomTable table = symbols.getAtomTable();
+		Predicate atom = table.intern(Predicate.parse("cesta(doma, obchod).", symbols));
+		
+		int[] parameters = { symbols.intern("doma"), symbols.intern("obchod") };
+		assertSame(atom, table.intern(symbols.intern("cesta"), parameters));
+		// a constant that is not used by any atom yet
+		parameters[1] = symbols.intern("banka");
+		Predicate other = table.intern(symbols.intern("cesta"), parameters);
+		assertEquals(2, table.getAtomCount());
+		assertSame(other, table.intern(Predicate.parse("cesta(doma, banka).", symbols)));
+	}
+	
+	public void testSeparateTables() {
+		SymbolTable other_symbols = new SymbolTable();
+		Predicate first = Predicate.parse("at(home).", symbols).groundedClone();
+		Predicate second = Predicate.parse("at(work).", other_symbols).groundedClone();
+		
+		// each problem numbers its atoms from zero
+		assertEquals(0, first.getAtomId());
+		assertEquals(0, second.getAtomId());
+		assertEquals(1, symbols.getAtomTable().getAtomCount());
+		assertEquals(1, other_symbols.getAtomTable().getAtomCount());
+		assertNull(symbols.getAtomTable().find(Predicate.parse("at(work).", symbols)));
+	}
+}
@@ -0,0 +1,111 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package predicate;
+
+import junit.framework.TestCase;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class FrozenPredicateSetTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testContains() {
+		PredicateSet set = new PredicateSet();
+		set.add(Predicate.parse("at(home).", symbols));
+		set.add(Predicate.parse("mam(brambory).", symbols));
+		set.add(Predicate.parse("at(home).", symbols));
+		
+		FrozenPredicateSet frozen = set.freeze();
+		assertEquals(2, frozen.getPredicateCount());
+		assertTrue(frozen.contains(Predicate.parse("at(home).", symbols)));
+		assertTrue(frozen.contains(Predicate.parse("mam(brambory).", symbols)));
+		assertFalse(frozen.contains(Predicate.parse("mam(penize).", symbols)));
+		assertTrue(frozen.getPredicate(0).isAtom());
+		
+		PredicateSet subset = new PredicateSet();
+		subset.add(Predicate.parse("mam(brambory).", symbols));
+		assertTrue(frozen.contains(subset));
+		assertTrue(frozen.contains(subset.freeze()));
+		assertFalse(subset.freeze().contains(frozen));
+	}
+	
+	public void testEquals() {
+		PredicateSet first = new PredicateSet();
+		first.add(Predicate.parse("at(home).", symbols));
+		first.add(Predicate.parse("mam(brambory).", symbols));
+		
+		PredicateSet second = new PredicateSet();
+		second.add(Predicate.parse("mam(brambory).", symbols));
+		second.add(Predicate.parse("at(home).", symbols));
+		
+		assertEquals(first.freeze(), second.freeze());
+		assertEquals(first.freeze().hashCode(), second.hashCode());
+		assertEquals(first, second.freeze());
+		
+		// repeated predicates do not change the set
+		second.add(Predicate.parse("at(home).", symbols));
+		assertEquals(first, second);
+		assertEquals(second, first);
+		assertEquals(first.hashCode(), second.hashCode());
+		assertEquals(second.hashCode(), second.freeze().hashCode());
+		
+		second.add(Predicate.parse("mam(penize).", symbols));
+		assertFalse(first.equals(second));
+		assertFalse(second.freeze().equals(first));
+	}
+	
+	public void testCompareTo() {
+		PredicateSet first = new PredicateSet();
+		first.add(Predicate.parse("at(home).", symbols));
+		first.add(Predicate.parse("mam(brambory).", symbols));
+		
+		PredicateSet second = new PredicateSet();
+		second.add(Predicate.parse("mam(brambory).", symbols));
+		second.add(Predicate.parse("at(home).", symbols));
+		second.add(Predicate.parse("mam(brambory).", symbols));
+		
+		// the order agrees with equals
+		assertEquals(0, first.compareTo(second));
+		assertEquals(0, second.compareTo(first.freeze()));
+		assertEquals(0, first.freeze().compareTo(second.freeze()));
+		
+		second.add(Predicate.parse("mam(penize).", symbols));
+		int order = first.compareTo(second);
+		assertTrue(order != 0);
+		assertEquals(-order, second.compareTo(first));
+		assertEquals(order, first.freeze().compareTo(second));
+		assertEquals(order, first.compareTo(second.freeze()));
+		assertEquals(order, first.freeze().compareTo(second.freeze()));
+		
+		// sets with variables are never equal to grounded sets
+		PredicateSet schema = new PredicateSet();
+		schema.add(Predicate.parse("at(X).", symbols));
+		assertTrue(first.compareTo(schema) < 0);
+		assertTrue(schema.compareTo(first.freeze()) > 0);
+	}
+	
+	public void testImmutable() {
+		FrozenPredicateSet frozen = new PredicateSet().freeze();
+		try {
+			frozen.add(Predicate.parse("at(home).", symbols));
+			fail("Frozen set must not be modified");
+		}
+		catch(UnsupportedOperationException err) {
+		}
+	}
+}
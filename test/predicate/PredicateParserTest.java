@@ -1,67 +1,115 @@
-/*
-    Copyright 2006 Ondrej Sykora
- 
-    This file is part of GPlan.
-
-    GPlan is free software: you can redistribute it and/or modify it
-    under the terms of the GNU General Public License as published by
-    the Free Software Foundation, either version 3 of the License, or
-    (at your option) any later version.
-
-    GPlan is distributed in the hope that it will be useful, but
-    WITHOUT ANY WARRANTY; without even the implied warranty of
-    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
-    GNU General Public License for more details.
-
-    You should have received a copy of the GNU General Public License
-    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
- */
-package predicate;
-
-import cz.matfyz.sykora.planning.*;
-import cz.matfyz.sykora.planning.predicate.*;
-import junit.framework.TestCase;
-
-public class PredicateParserTest extends TestCase {
-	public void testParseAction() throws Exception {
-		PredicateParser parser = new PredicateParser("go-home :: at(X) => not at(X), at(home).");
-		
-		Action act = parser.parseAction();
-		
-		assertEquals(
-				(Object)act.getPreconditions().getPredicate(0).getParameter(0),
-				(Object)act.getNegativeEffects().getPredicate(0).getParameter(0));
-		
-		System.out.println(act.toString());
-		
-		parser = new PredicateParser("buy :: needs(X), at(shop), has(money) => not has(money), has(X).");
-		act = parser.parseAction();
-		
-		System.out.println(act.toString());
-	}
-	
-	public void testParsePredicate() throws Exception {
-		PredicateParser parser = new PredicateParser("hello(world).");
-		
-		Predicate res = parser.parsePredicate();
-		assertEquals(res.getPredicateName(), "hello");
-		assertTrue(res.getParameter(0).isBound());
-		
-		System.out.println(res.toString());
-		
-		parser = new PredicateParser("how-are-you.");
-		
-		res = parser.parsePredicate();
-		assertEquals(res.getPredicateName(), "how-are-you");
-		
-		System.out.println(res.toString());
-		
-		parser = new PredicateParser("hello_worlds(World1, World1).");
-		res = parser.parsePredicate();
-		assertFalse(res.getParameter(0).isBound());
-		assertFalse(res.getParameter(1).isBound());
-		assertEquals((Object)res.getParameter(0), res.getParameter(1));
-		
-//		System.out.println(res.toString());
-	}
-}
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package predicate;
+
+import java.util.TreeSet;
+
+import cz.matfyz.sykora.planning.*;
+import cz.matfyz.sykora.planning.graph.*;
+import cz.matfyz.sykora.planning.predicate.*;
+import junit.framework.TestCase;
+
+public class PredicateParserTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testParseAction() throws Exception {
+		PredicateParser parser = new PredicateParser("go-home :: at(X) => not at(X), at(home).", symbols);
+		
+		Action act = parser.parseAction();
+		
+		assertEquals(
+				(Object)act.getPreconditions().getPredicate(0).getParameter(0),
+				(Object)act.getNegativeEffects().getPredicate(0).getParameter(0));
+		
+		System.out.println(act.toString());
+		
+		parser = new PredicateParser("buy :: needs(X), at(shop), has(money) => not has(money), has(X).", symbols);
+		act = parser.parseAction();
+		
+		System.out.println(act.toString());
+	}
+	
+	public void testParsePredicate() throws Exception {
+		PredicateParser parser = new PredicateParser("hello(world).", symbols);
+		
+		Predicate res = parser.parsePredicate();
+		assertEquals(res.getPredicateName(), "hello");
+		assertTrue(res.getParameter(0).isBound());
+		
+		System.out.println(res.toString());
+		
+		parser = new PredicateParser("how-are-you.", symbols);
+		
+		res = parser.parsePredicate();
+		assertEquals(res.getPredicateName(), "how-are-you");
+		
+		System.out.println(res.toString());
+		
+		parser = new PredicateParser("hello_worlds(World1, World1).", symbols);
+		res = parser.parsePredicate();
+		assertFalse(res.getParameter(0).isBound());
+		assertFalse(res.getParameter(1).isBound());
+		assertEquals((Object)res.getParameter(0), res.getParameter(1));
+		
+//		System.out.println(res.toString());
+	}
+	
+	public void testParseTypes() throws Exception {
+		PredicateParser parser = new PredicateParser(
+				"disc : k1, k2." +
+				"move :: on(X:disc, Y), empty(X) => not on(X, Y), on(X, table)." +
+				"disc : k3.", symbols);
+		
+		ObjectType disc = (ObjectType)parser.parse();
+		assertEquals("disc", disc.getTypeName());
+		Action act = (Action)parser.parse();
+		assertSame(disc, parser.parse());
+		assertEquals(3, disc.getObjectCount());
+		// types belong to the symbol table, not to the parser
+		assertSame(disc, new PredicateParser("disc : k4.", symbols).parse());
+		assertEquals(4, disc.getObjectCount());
+		
+		ValueBinding variable = act.getPreconditions().getPredicate(1).getParameter(0);
+		assertSame(disc, variable.getType());
+		assertFalse(variable.bind(symbols.intern("table")));
+		assertFalse(variable.isBound());
+		assertTrue(variable.bind(symbols.intern("k3")));
+		variable.clear();
+		
+		PredicateLayer layer = new PredicateLayer(symbols.getAtomTable());
+		layer.add(Predicate.parse("on(k1, k2).", symbols));
+		layer.add(Predicate.parse("on(b1, k1).", symbols));
+		layer.add(Predicate.parse("empty(k1).", symbols));
+		layer.add(Predicate.parse("empty(b1).", symbols));
+		TreeSet<Action> instances = new TreeSet<Action>();
+		act.findPossibleInstances(layer, instances);
+		assertEquals(1, instances.size());
+		assertEquals(symbols.intern("k1"), instances.first().getPreconditions().getPredicate(0).getParameter(0).getSymbol());
+	}
+	
+	public void testTypeOfConstant() throws Exception {
+		PredicateParser parser = new PredicateParser("move :: on(k1:disc, Y) => on(k1, table).", symbols);
+		try {
+			parser.parse();
+			fail("Constants can not have a type");
+		}
+		catch(PredicateParser.UnexpectedTokenException expected) {
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*
+    Copyright 2006 Ondrej Sykora
+ 
+    This file is part of GPlan.
+
+    GPlan is free software: you can redistribute it and/or modify it
+    under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    GPlan is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with GPlan.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package predicate;
+
+import junit.framework.TestCase;
+import cz.matfyz.sykora.planning.predicate.*;
+
+public class SymbolTableTest extends TestCase {
+	private SymbolTable symbols = new SymbolTable();
+	
+	public void testIntern() {
+		SymbolTable table = new SymbolTable();
+		
+		int first = table.intern("hello");
+		int second = table.intern("world");
+		
+		assertTrue("different names must get different ids", first != second);
+		assertEquals(first, table.intern("hello"));
+		assertEquals("hello", table.getName(first));
+		assertEquals("world", table.getName(second));
+		assertEquals(2, table.getSymbolCount());
+	}
+	
+	public void testPredicateSymbols() {
+		Predicate first = Predicate.parse("at(home).", symbols);
+		Predicate second = Predicate.parse("at(home).", symbols);
+		
+		assertEquals(first.getPredicateSymbol(), second.getPredicateSymbol());
+		assertEquals(first.getParameter(0).getSymbol(), second.getParameter(0).getSymbol());
+		assertEquals(0, first.compareTo(second));
+		assertEquals("at(home)", first.toString());
+	}
+}